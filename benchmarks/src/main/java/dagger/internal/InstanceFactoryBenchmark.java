@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.internal;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Benchmarks {@link InstanceFactory}, which backs component and builder-supplied bindings. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InstanceFactoryBenchmark {
+  private final Object instance = new Object();
+  private Factory<Object> instanceFactory;
+
+  @Setup
+  public void setUp() {
+    instanceFactory = InstanceFactory.create(instance);
+  }
+
+  @Benchmark
+  public Object get() {
+    return instanceFactory.get();
+  }
+
+  @Benchmark
+  @Threads(Threads.MAX)
+  public Object get_contended() {
+    return instanceFactory.get();
+  }
+
+  @Benchmark
+  public Object createAndGet() {
+    return InstanceFactory.create(instance).get();
+  }
+
+  @Benchmark
+  @Threads(Threads.MAX)
+  public Object createAndGet_contended() {
+    return InstanceFactory.create(instance).get();
+  }
+}
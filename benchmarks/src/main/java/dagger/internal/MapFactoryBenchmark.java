@@ -0,0 +1,82 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.internal;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import javax.inject.Provider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks {@link MapFactory#get} and {@link MapProviderFactory#get} for a map multibinding with
+ * {@link #entries} {@code String} keys.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MapFactoryBenchmark {
+  @Param({"1", "10", "300"})
+  int entries;
+
+  private MapProviderFactory<String, Object> mapProviderFactory;
+  private MapFactory<String, Object> mapFactory;
+
+  @Setup
+  public void setUp() {
+    MapProviderFactory.Builder<String, Object> builder = MapProviderFactory.builder(entries);
+    for (int i = 0; i < entries; i++) {
+      builder.put("key" + i, InstanceFactory.<Object>create(i));
+    }
+    mapProviderFactory = builder.build();
+    mapFactory = MapFactory.create(mapProviderFactory);
+  }
+
+  @Benchmark
+  public Map<String, Object> mapFactory_get() {
+    return mapFactory.get();
+  }
+
+  @Benchmark
+  @Threads(Threads.MAX)
+  public Map<String, Object> mapFactory_get_contended() {
+    return mapFactory.get();
+  }
+
+  @Benchmark
+  public Map<String, Provider<Object>> mapProviderFactory_get() {
+    return mapProviderFactory.get();
+  }
+
+  @Benchmark
+  @Threads(Threads.MAX)
+  public Map<String, Provider<Object>> mapProviderFactory_get_contended() {
+    return mapProviderFactory.get();
+  }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.internal;
+
+import java.util.concurrent.TimeUnit;
+import javax.inject.Provider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks {@link DoubleCheck#provider}. The {@code get} benchmarks measure the steady state,
+ * after the instance has been memoized; the {@code createAndGet} benchmarks measure the first call.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ScopedProviderBenchmark {
+  private final Factory<Object> factory = new NewObjectFactory();
+  private Provider<Object> scopedProvider;
+
+  @Setup
+  public void setUp() {
+    scopedProvider = DoubleCheck.provider(factory);
+    scopedProvider.get();
+  }
+
+  @Benchmark
+  public Object get() {
+    return scopedProvider.get();
+  }
+
+  @Benchmark
+  @Threads(Threads.MAX)
+  public Object get_contended() {
+    return scopedProvider.get();
+  }
+
+  @Benchmark
+  public Object createAndGet() {
+    return DoubleCheck.provider(factory).get();
+  }
+
+  @Benchmark
+  @Threads(Threads.MAX)
+  public Object createAndGet_contended() {
+    return DoubleCheck.provider(factory).get();
+  }
+
+  private static final class NewObjectFactory implements Factory<Object> {
+    @Override
+    public Object get() {
+      return new Object();
+    }
+  }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.internal;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import javax.inject.Provider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks {@link SetFactory#get} for a set multibinding with {@link #contributions} elements,
+ * each of which is contributed by its own provider.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SetFactoryBenchmark {
+  @Param({"1", "10", "200"})
+  int contributions;
+
+  private Factory<Set<Object>> setFactory;
+
+  @Setup
+  @SuppressWarnings("unchecked")
+  public void setUp() {
+    Provider<Set<Object>>[] providers = new Provider[contributions];
+    for (int i = 0; i < contributions; i++) {
+      providers[i] = InstanceFactory.create(Collections.singleton(new Object()));
+    }
+    setFactory = SetFactory.create(providers);
+  }
+
+  @Benchmark
+  public Set<Object> get() {
+    return setFactory.get();
+  }
+
+  @Benchmark
+  @Threads(Threads.MAX)
+  public Set<Object> get_contended() {
+    return setFactory.get();
+  }
+}
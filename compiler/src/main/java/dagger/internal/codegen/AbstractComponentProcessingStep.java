@@ -17,9 +17,13 @@ package dagger.internal.codegen;
 
 import com.google.auto.common.BasicAnnotationProcessor.ProcessingStep;
 import com.google.auto.common.MoreElements;
+import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
 import com.google.common.collect.SetMultimap;
 import java.lang.annotation.Annotation;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 import javax.annotation.processing.Messager;
 import javax.lang.model.element.Element;
 import javax.lang.model.element.TypeElement;
@@ -37,6 +41,8 @@ abstract class AbstractComponentProcessingStep implements ProcessingStep {
   private final ComponentDescriptor.Factory componentDescriptorFactory;
   private final BindingGraph.Factory bindingGraphFactory;
   private final ComponentGenerator componentGenerator;
+  private final ProcessorStats stats;
+  private final FeatureStatus parallelGeneration;
 
   AbstractComponentProcessingStep(
       Class<? extends Annotation> componentAnnotation,
@@ -45,7 +51,9 @@ abstract class AbstractComponentProcessingStep implements ProcessingStep {
       BindingGraphValidator bindingGraphValidator,
       ComponentDescriptor.Factory componentDescriptorFactory,
       BindingGraph.Factory bindingGraphFactory,
-      ComponentGenerator componentGenerator) {
+      ComponentGenerator componentGenerator,
+      ProcessorStats stats,
+      FeatureStatus parallelGeneration) {
     this.componentAnnotation = componentAnnotation;
     this.messager = messager;
     this.componentHierarchyValidator = componentHierarchyValidator;
@@ -53,12 +61,41 @@ abstract class AbstractComponentProcessingStep implements ProcessingStep {
     this.componentDescriptorFactory = componentDescriptorFactory;
     this.bindingGraphFactory = bindingGraphFactory;
     this.componentGenerator = componentGenerator;
+    this.stats = stats;
+    this.parallelGeneration = parallelGeneration;
   }
 
+  /**
+   * {@inheritDoc}
+   *
+   * <p>If parallel generation is enabled, each component's generated sources are formatted on a
+   * {@link ForkJoinPool} while the following components are processed. Building and validating
+   * the graphs, building the writers, and writing the files all stay on this thread, since the
+   * processing environment, {@link javax.annotation.processing.Filer} and {@link Messager} may
+   * not be used from other threads.
+   */
   @Override
   public final ImmutableSet<Element> process(
       SetMultimap<Class<? extends Annotation>, Element> elementsByAnnotation) {
+    Optional<ForkJoinPool> formattingPool =
+        parallelGeneration.equals(FeatureStatus.ENABLED)
+            ? Optional.of(new ForkJoinPool())
+            : Optional.<ForkJoinPool>absent();
+    try {
+      return process(elementsByAnnotation, formattingPool);
+    } finally {
+      if (formattingPool.isPresent()) {
+        formattingPool.get().shutdownNow();
+      }
+    }
+  }
+
+  private ImmutableSet<Element> process(
+      SetMultimap<Class<? extends Annotation>, Element> elementsByAnnotation,
+      Optional<ForkJoinPool> formattingPool) {
     ImmutableSet.Builder<Element> rejectedElements = ImmutableSet.builder();
+    List<SourceFileGenerator<BindingGraph>.PendingSourceFiles> pendingComponents =
+        Lists.newArrayList();
     ComponentElementValidator componentElementValidator =
         componentElementValidator(elementsByAnnotation);
     for (Element element : elementsByAnnotation.get(componentAnnotation)) {
@@ -71,12 +108,16 @@ abstract class AbstractComponentProcessingStep implements ProcessingStep {
               componentHierarchyValidator.validate(componentDescriptor);
           hierarchyReport.printMessagesTo(messager);
           if (hierarchyReport.isClean()) {
-            BindingGraph bindingGraph = bindingGraphFactory.create(componentDescriptor);
-            ValidationReport<TypeElement> graphReport =
-                bindingGraphValidator.validate(bindingGraph);
+            BindingGraph bindingGraph = createBindingGraph(componentDescriptor);
+            ValidationReport<TypeElement> graphReport = validateBindingGraph(bindingGraph);
             graphReport.printMessagesTo(messager);
             if (graphReport.isClean()) {
-              generateComponent(bindingGraph);
+              if (formattingPool.isPresent()) {
+                pendingComponents.add(
+                    componentGenerator.generateAsync(bindingGraph, formattingPool.get()));
+              } else {
+                generateComponent(bindingGraph);
+              }
             }
           }
         }
@@ -84,9 +125,38 @@ abstract class AbstractComponentProcessingStep implements ProcessingStep {
         rejectedElements.add(componentTypeElement);
       }
     }
+    for (SourceFileGenerator<BindingGraph>.PendingSourceFiles pendingComponent
+        : pendingComponents) {
+      try {
+        pendingComponent.file();
+      } catch (SourceFileGenerationException e) {
+        e.printMessageTo(messager);
+      }
+    }
     return rejectedElements.build();
   }
 
+  private BindingGraph createBindingGraph(ComponentDescriptor componentDescriptor) {
+    ProcessorStats.Timer timer = stats.start("BindingGraph.Factory.create");
+    BindingGraph bindingGraph;
+    try {
+      bindingGraph = bindingGraphFactory.create(componentDescriptor);
+    } finally {
+      timer.stop();
+    }
+    stats.countGraph(bindingGraph);
+    return bindingGraph;
+  }
+
+  private ValidationReport<TypeElement> validateBindingGraph(BindingGraph bindingGraph) {
+    ProcessorStats.Timer timer = stats.start("BindingGraphValidator.validate");
+    try {
+      return bindingGraphValidator.validate(bindingGraph);
+    } finally {
+      timer.stop();
+    }
+  }
+
   private void generateComponent(BindingGraph bindingGraph) {
     try {
       componentGenerator.generate(bindingGraph);
@@ -17,8 +17,11 @@ package dagger.internal.codegen;
 
 import com.google.auto.common.MoreElements;
 import com.google.auto.common.MoreTypes;
+import com.google.common.base.Function;
+import com.google.common.base.Functions;
 import com.google.common.base.Joiner;
 import com.google.common.base.Optional;
+import com.google.common.base.Predicates;
 import com.google.common.collect.FluentIterable;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
@@ -30,13 +33,15 @@ import com.google.common.collect.Sets;
 import com.google.common.util.concurrent.ListenableFuture;
 import dagger.MembersInjector;
 import dagger.internal.DelegateFactory;
+import dagger.internal.DoubleCheck;
 import dagger.internal.Factory;
 import dagger.internal.InstanceFactory;
+import dagger.internal.LazyMapFactory;
 import dagger.internal.MapFactory;
 import dagger.internal.MapProviderFactory;
 import dagger.internal.MembersInjectors;
-import dagger.internal.ScopedProvider;
 import dagger.internal.SetFactory;
+import dagger.internal.SingleCheckProvider;
 import dagger.internal.codegen.ComponentDescriptor.BuilderSpec;
 import dagger.internal.codegen.ComponentDescriptor.ComponentMethodDescriptor;
 import dagger.internal.codegen.ComponentGenerator.MemberSelect;
@@ -47,6 +52,7 @@ import dagger.internal.codegen.writer.FieldWriter;
 import dagger.internal.codegen.writer.JavaWriter;
 import dagger.internal.codegen.writer.MethodWriter;
 import dagger.internal.codegen.writer.ParameterizedTypeName;
+import dagger.internal.codegen.writer.PrimitiveName;
 import dagger.internal.codegen.writer.Snippet;
 import dagger.internal.codegen.writer.StringLiteral;
 import dagger.internal.codegen.writer.TypeName;
@@ -56,9 +62,12 @@ import dagger.producers.Producer;
 import dagger.producers.internal.Producers;
 import dagger.producers.internal.SetOfProducedProducer;
 import dagger.producers.internal.SetProducer;
+import java.util.ArrayDeque;
 import java.util.Collection;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -74,6 +83,7 @@ import javax.lang.model.type.DeclaredType;
 import javax.lang.model.type.ExecutableType;
 import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
 import javax.lang.model.util.Elements;
 import javax.lang.model.util.Types;
 import javax.tools.Diagnostic;
@@ -93,8 +103,10 @@ import static dagger.internal.codegen.ComponentGenerator.MemberSelect.staticMeth
 import static dagger.internal.codegen.ComponentGenerator.MemberSelect.staticSelect;
 import static dagger.internal.codegen.ContributionBinding.contributionTypeFor;
 import static dagger.internal.codegen.ContributionBinding.FactoryCreationStrategy.ENUM_INSTANCE;
+import static dagger.internal.codegen.ContributionBinding.Kind.INJECTION;
 import static dagger.internal.codegen.ContributionBinding.Kind.PROVISION;
 import static dagger.internal.codegen.ErrorMessages.CANNOT_RETURN_NULL_FROM_NON_NULLABLE_COMPONENT_METHOD;
+import static dagger.internal.codegen.ErrorMessages.CANNOT_RETURN_NULL_FROM_NON_NULLABLE_PROVIDES_METHOD;
 import static dagger.internal.codegen.MapKeys.getMapKeySnippet;
 import static dagger.internal.codegen.MembersInjectionBinding.Strategy.NO_OP;
 import static dagger.internal.codegen.SourceFiles.frameworkTypeUsageStatement;
@@ -113,6 +125,7 @@ import static javax.lang.model.element.Modifier.FINAL;
 import static javax.lang.model.element.Modifier.PRIVATE;
 import static javax.lang.model.element.Modifier.PUBLIC;
 import static javax.lang.model.element.Modifier.STATIC;
+import static javax.lang.model.element.Modifier.VOLATILE;
 import static javax.lang.model.type.TypeKind.DECLARED;
 import static javax.lang.model.type.TypeKind.VOID;
 
@@ -125,6 +138,7 @@ abstract class AbstractComponentWriter {
   protected final Types types;
   protected final Key.Factory keyFactory;
   protected final Kind nullableValidationType;
+  protected final CompilerOptions compilerOptions;
   protected final Set<JavaWriter> javaWriters = new LinkedHashSet<>();
   protected final ClassName name;
   protected final BindingGraph graph;
@@ -138,6 +152,47 @@ abstract class AbstractComponentWriter {
   protected ConstructorWriter constructorWriter;
   protected Optional<ClassName> builderName = Optional.absent();
 
+  /**
+   * When {@linkplain CompilerOptions#lazyInitialization initializing lazily}, the framework field
+   * and getter for each binding key that has a field in this component.
+   */
+  private final Map<BindingKey, LazyFrameworkField> lazyFrameworkFields = new LinkedHashMap<>();
+
+  /**
+   * When {@linkplain CompilerOptions#lazyInitialization initializing lazily}, the framework field
+   * and getter for each multibinding contribution owned by this component.
+   */
+  private final Map<ContributionBinding, LazyFrameworkField> lazyContributionFields =
+      new LinkedHashMap<>();
+
+  /**
+   * The binding keys whose initialization is being written. References to them select their
+   * fields instead of calling their getters.
+   */
+  private Set<BindingKey> keysInitializedInline = ImmutableSet.of();
+
+  /**
+   * The multibinding contributions whose initialization is being written. References to them
+   * select their fields instead of calling their getters.
+   */
+  private Set<ContributionBinding> contributionsInitializedInline = ImmutableSet.of();
+
+  /**
+   * When {@linkplain CompilerOptions#directInstanceBindings invoking bindings directly}, the method
+   * that returns a new instance for each binding key whose method has been written in this
+   * component.
+   */
+  private final Map<BindingKey, MemberSelect> directInstanceMethods = new HashMap<>();
+
+  /**
+   * The binding keys owned by this component that are only ever invoked through their direct
+   * instance methods, and so have no framework field.
+   */
+  private final Set<BindingKey> directOnlyKeys = new HashSet<>();
+
+  /** The names of the methods in this component and its subcomponents. */
+  private final Set<String> methodNames = new HashSet<>();
+
   /**
    * For each component requirement, the builder field. This map is empty for subcomponents that do
    * not use a builder.
@@ -157,12 +212,14 @@ abstract class AbstractComponentWriter {
       Elements elements,
       Key.Factory keyFactory,
       Diagnostic.Kind nullableValidationType,
+      CompilerOptions compilerOptions,
       ClassName name,
       BindingGraph graph) {
     this.types = types;
     this.elements = elements;
     this.keyFactory = keyFactory;
     this.nullableValidationType = nullableValidationType;
+    this.compilerOptions = compilerOptions;
     this.name = name;
     this.graph = graph;
   }
@@ -177,10 +234,11 @@ abstract class AbstractComponentWriter {
 
   /**
    * Returns an expression snippet that evaluates to an instance of the contribution, looking for
-   * either a builder field or a component field.
+   * either a builder field or a component field. Lazily initialized components always use a
+   * component field, since the builder is only available in the constructor.
    */
   private Snippet getComponentContributionSnippet(TypeElement contributionType) {
-    if (builderFields.containsKey(contributionType)) {
+    if (builderFields.containsKey(contributionType) && !compilerOptions.lazyInitialization()) {
       return Snippet.format("builder.%s", builderFields.get(contributionType).name());
     } else {
       Optional<Snippet> snippet = getOrCreateComponentContributionFieldSnippet(contributionType);
@@ -189,6 +247,17 @@ abstract class AbstractComponentWriter {
     }
   }
 
+  /**
+   * Returns an expression snippet for the contribution that is valid within an anonymous class
+   * that declares a field named for the contribution type.
+   */
+  private Snippet getComponentContributionSnippetForAnonymousClass(TypeElement contributionType) {
+    Snippet snippet = getComponentContributionSnippet(contributionType);
+    return snippet.toString().equals(simpleVariableName(contributionType))
+        ? Snippet.format("%s.this.%s", name, snippet)
+        : snippet;
+  }
+
   /**
    * Returns a snippet for a component contribution field. Adds a field the first time one is
    * requested for a contribution type if this component's builder has a field for it.
@@ -220,11 +289,32 @@ abstract class AbstractComponentWriter {
   }
 
   protected MemberSelect getMemberSelect(BindingKey key) {
-    return memberSelectSnippets.get(key);
+    return keysInitializedInline.contains(key)
+        ? lazyFrameworkFields.get(key).fieldSelect()
+        : memberSelectSnippets.get(key);
   }
 
   protected Optional<MemberSelect> getMultibindingContributionSnippet(ContributionBinding binding) {
-    return Optional.fromNullable(multibindingContributionSnippets.get(binding));
+    return contributionsInitializedInline.contains(binding)
+        ? Optional.of(lazyContributionFields.get(binding).fieldSelect())
+        : Optional.fromNullable(multibindingContributionSnippets.get(binding));
+  }
+
+  /**
+   * Reserves a method name in the component implementation. Returns {@code false} if the name was
+   * already taken by this component or by any component that encloses it or is enclosed by it,
+   * which could otherwise shadow the unqualified method calls in generated code.
+   */
+  protected boolean reserveMethodName(String methodName) {
+    return methodNames.add(methodName);
+  }
+
+  private String uniqueMethodName(String preferredName) {
+    String methodName = preferredName;
+    for (int i = 2; !reserveMethodName(methodName); i++) {
+      methodName = preferredName + i;
+    }
+    return methodName;
   }
 
   /**
@@ -263,7 +353,11 @@ abstract class AbstractComponentWriter {
     addBuilder();
     addFactoryMethods();
     addFields();
-    initializeFrameworkTypes();
+    if (compilerOptions.lazyInitialization()) {
+      initializeFrameworkTypesLazily();
+    } else {
+      initializeFrameworkTypes();
+    }
     implementInterfaceMethods();
     addSubcomponents();
   }
@@ -453,12 +547,23 @@ abstract class AbstractComponentWriter {
   protected abstract void addFactoryMethods();
 
   private void addFields() {
+    if (compilerOptions.lazyInitialization() || compilerOptions.directInstanceBindings()) {
+      for (ExecutableElement method :
+          ElementFilter.methodsIn(elements.getAllMembers(componentDefinitionType()))) {
+        reserveMethodName(method.getSimpleName().toString());
+      }
+    }
+    ImmutableSet<BindingKey> frameworkTypeKeys =
+        compilerOptions.directInstanceBindings()
+            ? frameworkTypeKeys()
+            : ImmutableSet.<BindingKey>of();
     for (ResolvedBindings resolvedBindings : graph.resolvedBindings().values()) {
-      addField(resolvedBindings);
+      addField(resolvedBindings, frameworkTypeKeys);
     }
   }
 
-  private void addField(ResolvedBindings resolvedBindings) {
+  private void addField(
+      ResolvedBindings resolvedBindings, ImmutableSet<BindingKey> frameworkTypeKeys) {
     BindingKey bindingKey = resolvedBindings.bindingKey();
 
     // No field needed if there are no owned bindings.
@@ -473,6 +578,12 @@ abstract class AbstractComponentWriter {
       return;
     }
 
+    // No field needed for bindings that are only invoked directly.
+    if (!frameworkTypeKeys.contains(bindingKey) && isDirectInstanceBinding(graph, bindingKey)) {
+      directOnlyKeys.add(bindingKey);
+      return;
+    }
+
     Optional<String> bindingPackage = bindingPackageFor(resolvedBindings.bindings());
     boolean useRawType = bindingPackage.isPresent()
         && !bindingPackage.get().equals(name.packageName());
@@ -493,6 +604,12 @@ abstract class AbstractComponentWriter {
               FieldWriter contributionField =
                   addFrameworkField(useRawType, contributionBindingField);
 
+              if (compilerOptions.lazyInitialization()) {
+                LazyFrameworkField lazyField = new LazyFrameworkField(contributionField, useRawType);
+                lazyContributionFields.put(contributionBinding, lazyField);
+                multibindingContributionSnippets.put(contributionBinding, lazyField.getterSelect());
+                continue;
+              }
               ImmutableList<String> contributionSelectTokens =
                   new ImmutableList.Builder<String>()
                       .add(contributionField.name())
@@ -509,6 +626,12 @@ abstract class AbstractComponentWriter {
     FrameworkField bindingField = FrameworkField.createForResolvedBindings(resolvedBindings);
     FieldWriter frameworkField = addFrameworkField(useRawType, bindingField);
 
+    if (compilerOptions.lazyInitialization()) {
+      LazyFrameworkField lazyField = new LazyFrameworkField(frameworkField, useRawType);
+      lazyFrameworkFields.put(bindingKey, lazyField);
+      memberSelectSnippets.put(bindingKey, lazyField.getterSelect());
+      return;
+    }
     ImmutableList<String> memberSelectTokens =
         new ImmutableList.Builder<String>()
             .add(frameworkField.name())
@@ -601,6 +724,12 @@ abstract class AbstractComponentWriter {
           interfaceMethod.annotate(Override.class);
           interfaceMethod.addModifiers(PUBLIC);
           BindingKey bindingKey = interfaceRequest.bindingKey();
+          if (usesDirectInstanceMethod(graph, interfaceRequest)) {
+            interfaceMethod
+                .body()
+                .addSnippet("return %s;", getDirectInstanceMethod(bindingKey).getSnippetFor(name));
+            continue;
+          }
           MemberSelect memberSelect = getMemberSelect(bindingKey);
           Snippet memberSelectSnippet = memberSelect.getSnippetFor(name);
           switch (interfaceRequest.kind()) {
@@ -649,7 +778,6 @@ abstract class AbstractComponentWriter {
             case PRODUCED:
             case PRODUCER:
             case PROVIDER:
-            case FUTURE:
               interfaceMethod
                   .body()
                   .addSnippet(
@@ -657,6 +785,20 @@ abstract class AbstractComponentWriter {
                       frameworkTypeUsageStatement(
                           memberSelectSnippet, interfaceRequest.kind()));
               break;
+            case FUTURE:
+              Snippet futureSnippet =
+                  frameworkTypeUsageStatement(memberSelectSnippet, interfaceRequest.kind());
+              Optional<TypeElement> deadline = graph.componentDescriptor().deadlineDependency();
+              if (deadline.isPresent()) {
+                futureSnippet =
+                    Snippet.format(
+                        "%s.withDeadline(%s, %s)",
+                        ClassName.fromClass(Producers.class),
+                        futureSnippet,
+                        getOrCreateComponentContributionFieldSnippet(deadline.get()).get());
+              }
+              interfaceMethod.body().addSnippet("return %s;", futureSnippet);
+              break;
             default:
               throw new AssertionError();
           }
@@ -665,6 +807,204 @@ abstract class AbstractComponentWriter {
     }
   }
 
+  /**
+   * Returns {@code true} if the binding for {@code bindingKey} in {@code bindingGraph} is an
+   * unscoped {@code @Inject} constructor or {@code @Provides} method that this component can call
+   * directly when {@linkplain CompilerOptions#directInstanceBindings enabled}.
+   */
+  private boolean isDirectInstanceBinding(BindingGraph bindingGraph, BindingKey bindingKey) {
+    if (!compilerOptions.directInstanceBindings()
+        || !bindingKey.kind().equals(BindingKey.Kind.CONTRIBUTION)) {
+      return false;
+    }
+    ResolvedBindings resolvedBindings = bindingGraph.resolvedBindings().get(bindingKey);
+    if (resolvedBindings == null || resolvedBindings.contributionBindings().size() != 1) {
+      return false;
+    }
+    ContributionBinding binding = getOnlyElement(resolvedBindings.contributionBindings());
+    if (!binding.bindingType().equals(Binding.Type.PROVISION)
+        || !(binding.bindingKind().equals(INJECTION) || binding.bindingKind().equals(PROVISION))
+        || binding.contributionType().isMultibinding()
+        || binding.scope().isPresent()
+        || binding.membersInjectionRequest().isPresent()
+        || !binding.bindingTypeElement().getTypeParameters().isEmpty()
+        || !isAccessibleFromComponent(binding.bindingElement())
+        || !isVisibleFromComponent(binding.key())) {
+      return false;
+    }
+    for (DependencyRequest dependency : binding.dependencies()) {
+      if (!isVisibleFromComponent(dependency.key())) {
+        return false;
+      }
+      // javac can't infer the type arguments of a generic factory's create().get() when it is
+      // used as an argument.
+      TypeMirror dependencyType = dependency.key().type();
+      if (dependency.kind().equals(DependencyRequest.Kind.INSTANCE)
+          && dependencyType.getKind().equals(DECLARED)
+          && !((DeclaredType) dependencyType).getTypeArguments().isEmpty()
+          && staticMemberSelect(bindingGraph.resolvedBindings().get(dependency.bindingKey()))
+              .isPresent()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private boolean usesDirectInstanceMethod(BindingGraph bindingGraph, DependencyRequest request) {
+    return request.kind().equals(DependencyRequest.Kind.INSTANCE)
+        && isDirectInstanceBinding(bindingGraph, request.bindingKey());
+  }
+
+  /** Returns {@code true} if {@code element} and its enclosing types are visible to this class. */
+  private boolean isAccessibleFromComponent(Element element) {
+    boolean samePackage =
+        MoreElements.getPackage(element).getQualifiedName().contentEquals(name.packageName());
+    for (Element enclosing = element;
+        !enclosing.getKind().equals(ElementKind.PACKAGE);
+        enclosing = enclosing.getEnclosingElement()) {
+      if (enclosing.getModifiers().contains(PRIVATE)
+          || !(samePackage || enclosing.getModifiers().contains(PUBLIC))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private boolean isVisibleFromComponent(Key key) {
+    Optional<String> bindingPackage = Binding.findBindingPackage(key);
+    return !bindingPackage.isPresent() || bindingPackage.get().equals(name.packageName());
+  }
+
+  /**
+   * Returns the keys that a component method or binding in this component or any of its
+   * subcomponents uses through a framework type instead of a direct instance method. Only these
+   * keys need framework fields when {@linkplain CompilerOptions#directInstanceBindings invoking
+   * bindings directly}.
+   */
+  private ImmutableSet<BindingKey> frameworkTypeKeys() {
+    ImmutableList.Builder<BindingGraph> graphsBuilder = ImmutableList.builder();
+    Deque<BindingGraph> graphsToVisit = new ArrayDeque<>(ImmutableList.of(graph));
+    while (!graphsToVisit.isEmpty()) {
+      BindingGraph bindingGraph = graphsToVisit.pop();
+      graphsBuilder.add(bindingGraph);
+      graphsToVisit.addAll(bindingGraph.subgraphs().values());
+    }
+    ImmutableList<BindingGraph> graphs = graphsBuilder.build();
+
+    Set<BindingKey> keys = new LinkedHashSet<>();
+    for (BindingGraph bindingGraph : graphs) {
+      for (ComponentMethodDescriptor componentMethod :
+          bindingGraph.componentDescriptor().componentMethods()) {
+        if (componentMethod.dependencyRequest().isPresent()
+            && !usesDirectInstanceMethod(bindingGraph, componentMethod.dependencyRequest().get())) {
+          keys.add(componentMethod.dependencyRequest().get().bindingKey());
+        }
+      }
+      for (ResolvedBindings resolvedBindings : bindingGraph.resolvedBindings().values()) {
+        boolean direct = isDirectInstanceBinding(bindingGraph, resolvedBindings.bindingKey());
+        for (Binding binding : resolvedBindings.ownedBindings()) {
+          for (DependencyRequest dependency : binding.implicitDependencies()) {
+            if (!direct || !usesDirectInstanceMethod(bindingGraph, dependency)) {
+              keys.add(dependency.bindingKey());
+            }
+          }
+        }
+      }
+    }
+
+    // The factory for a direct instance binding that is also used through its framework type
+    // needs the framework types of all of its dependencies.
+    Deque<BindingKey> keysToVisit = new ArrayDeque<>(keys);
+    while (!keysToVisit.isEmpty()) {
+      BindingKey bindingKey = keysToVisit.pop();
+      for (BindingGraph bindingGraph : graphs) {
+        ResolvedBindings resolvedBindings = bindingGraph.resolvedBindings().get(bindingKey);
+        if (resolvedBindings != null
+            && !resolvedBindings.ownedBindings().isEmpty()
+            && isDirectInstanceBinding(bindingGraph, bindingKey)) {
+          for (DependencyRequest dependency :
+              getOnlyElement(resolvedBindings.contributionBindings()).dependencies()) {
+            if (keys.add(dependency.bindingKey())) {
+              keysToVisit.push(dependency.bindingKey());
+            }
+          }
+        }
+      }
+    }
+    return ImmutableSet.copyOf(keys);
+  }
+
+  /**
+   * Returns a select for the method that calls the {@code @Inject} constructor or
+   * {@code @Provides} method of a {@linkplain #isDirectInstanceBinding direct instance binding}
+   * owned by this component, writing the method the first time it is requested.
+   */
+  protected MemberSelect getDirectInstanceMethod(BindingKey bindingKey) {
+    MemberSelect methodSelect = directInstanceMethods.get(bindingKey);
+    if (methodSelect == null) {
+      ContributionBinding binding =
+          getOnlyElement(graph.resolvedBindings().get(bindingKey).contributionBindings());
+      MethodWriter method =
+          componentWriter.addMethod(
+              TypeNames.forTypeMirror(binding.key().type()),
+              uniqueMethodName(
+                  "get"
+                      + LOWER_CAMEL.to(UPPER_CAMEL, KeyVariableNamer.INSTANCE.apply(binding.key()))));
+      method.addModifiers(PRIVATE);
+      methodSelect = MemberSelect.instanceSelect(name, Snippet.format("%s()", method.name()));
+      directInstanceMethods.put(bindingKey, methodSelect);
+      writeDirectInstanceMethod(method, binding);
+    }
+    return methodSelect;
+  }
+
+  private void writeDirectInstanceMethod(MethodWriter method, ContributionBinding binding) {
+    List<Snippet> arguments = Lists.newArrayListWithCapacity(binding.dependencies().size());
+    for (DependencyRequest dependency : binding.dependencies()) {
+      arguments.add(
+          usesDirectInstanceMethod(graph, dependency)
+              ? getDirectInstanceMethod(dependency.bindingKey()).getSnippetFor(name)
+              : frameworkTypeUsageStatement(
+                  getMemberSelect(dependency.bindingKey()).getSnippetWithRawTypeCastFor(name),
+                  dependency.kind()));
+    }
+    Snippet argumentsSnippet = makeParametersSnippet(arguments);
+
+    if (binding.bindingKind().equals(INJECTION)) {
+      method.body().addSnippet("return new %s(%s);", method.returnType(), argumentsSnippet);
+      return;
+    }
+    Snippet providesMethodInvocation =
+        Snippet.format(
+            "%s.%s(%s)",
+            binding.bindingElement().getModifiers().contains(STATIC)
+                ? ClassName.fromTypeElement(binding.bindingTypeElement())
+                : getOrCreateComponentContributionFieldSnippet(binding.contributedBy().get()).get(),
+            binding.bindingElement().getSimpleName(),
+            argumentsSnippet);
+    if (binding.nullableType().isPresent()
+        || nullableValidationType.equals(Diagnostic.Kind.WARNING)) {
+      if (binding.nullableType().isPresent()) {
+        method.annotate((ClassName) TypeNames.forTypeMirror(binding.nullableType().get()));
+      }
+      method.body().addSnippet("return %s;", providesMethodInvocation);
+    } else {
+      method
+          .body()
+          .addSnippet(
+              Joiner.on('\n')
+                  .join(
+                      "%s provided = %s;",
+                      "if (provided == null) {",
+                      "  throw new NullPointerException(%s);",
+                      "}",
+                      "return provided;"),
+              method.returnType(),
+              providesMethodInvocation,
+              StringLiteral.forValue(CANNOT_RETURN_NULL_FROM_NON_NULLABLE_PROVIDES_METHOD));
+    }
+  }
+
   private void addSubcomponents() {
     for (Map.Entry<ExecutableElement, BindingGraph> subgraphEntry : graph.subgraphs().entrySet()) {
       SubcomponentWriter subcomponent =
@@ -704,6 +1044,201 @@ abstract class AbstractComponentWriter {
     }
   }
 
+  /**
+   * Writes a getter for each framework field instead of initializing the fields in the
+   * constructor. Each getter creates its field the first time it is called, so a component only
+   * pays for the bindings that are actually used.
+   *
+   * <p>Bindings that depend on each other through {@link Provider}, {@link dagger.Lazy} or
+   * {@link MembersInjector} form strongly connected components of the graph of fields. Those
+   * fields are created together by a single initialization method, which wires the cycle through
+   * {@link DelegateFactory} just as the constructor does when initializing eagerly.
+   */
+  private void initializeFrameworkTypesLazily() {
+    Function<BindingKey, Set<BindingKey>> fieldDependencies =
+        new Function<BindingKey, Set<BindingKey>>() {
+          @Override
+          public Set<BindingKey> apply(BindingKey bindingKey) {
+            return fieldDependencies(graph.resolvedBindings().get(bindingKey).ownedBindings());
+          }
+        };
+    for (ImmutableSet<BindingKey> component :
+        StronglyConnectedComponents.compute(lazyFrameworkFields.keySet(), fieldDependencies)) {
+      boolean cyclic = StronglyConnectedComponents.isCyclic(component, fieldDependencies);
+      ImmutableList<BindingKey> bindingKeys =
+          FluentIterable.from(graph.resolvedBindings().keySet())
+              .filter(Predicates.in(component))
+              .toList();
+      Set<ContributionBinding> contributionsInCycle = new LinkedHashSet<>();
+      for (BindingKey bindingKey : bindingKeys) {
+        if (!bindingKey.kind().equals(BindingKey.Kind.CONTRIBUTION)) {
+          continue;
+        }
+        for (ContributionBinding contribution :
+            graph.resolvedBindings().get(bindingKey).ownedContributionBindings()) {
+          if (lazyContributionFields.containsKey(contribution)
+              && getContributionInitializationState(contribution).equals(UNINITIALIZED)) {
+            if (cyclic
+                && !Sets.intersection(
+                        fieldDependencies(ImmutableSet.of(contribution)), component)
+                    .isEmpty()) {
+              contributionsInCycle.add(contribution);
+            } else {
+              initializeContributionLazily(contribution);
+            }
+          }
+        }
+      }
+      if (cyclic) {
+        initializeCycleLazily(bindingKeys, contributionsInCycle);
+      } else {
+        initializeFrameworkTypeLazily(getOnlyElement(bindingKeys));
+      }
+    }
+  }
+
+  /** Returns the keys with fields in this component that {@code bindings} depend on. */
+  private Set<BindingKey> fieldDependencies(Iterable<? extends Binding> bindings) {
+    ImmutableSet.Builder<BindingKey> dependencies = ImmutableSet.builder();
+    for (Binding binding : bindings) {
+      for (DependencyRequest dependency : binding.implicitDependencies()) {
+        if (lazyFrameworkFields.containsKey(dependency.bindingKey())) {
+          dependencies.add(dependency.bindingKey());
+        }
+      }
+    }
+    return dependencies.build();
+  }
+
+  private void initializeContributionLazily(ContributionBinding contribution) {
+    LazyFrameworkField lazyField = lazyContributionFields.get(contribution);
+    writeDoubleCheckedGetter(
+        lazyField,
+        Snippet.format(
+            "this.%s = %s;",
+            lazyField.field.name(),
+            initializeFactoryForContributionBinding(contribution)));
+    setContributionInitializationState(contribution, INITIALIZED);
+  }
+
+  private void initializeFrameworkTypeLazily(BindingKey bindingKey) {
+    keysInitializedInline = ImmutableSet.of(bindingKey);
+    Snippet initialization = initializeFrameworkType(bindingKey);
+    keysInitializedInline = ImmutableSet.of();
+    writeDoubleCheckedGetter(lazyFrameworkFields.get(bindingKey), initialization);
+  }
+
+  /**
+   * Writes a getter that creates its field on first use, using the double-checked idiom on a
+   * {@code volatile} field.
+   */
+  private void writeDoubleCheckedGetter(LazyFrameworkField lazyField, Snippet initialization) {
+    lazyField.field.addModifiers(VOLATILE);
+    MethodWriter getter = addGetter(lazyField);
+    getter
+        .body()
+        .addSnippet(
+            Joiner.on('\n')
+                .join(
+                    "%1$s result = %2$s;",
+                    "if (result == null) {",
+                    "  synchronized (this) {",
+                    "    result = %2$s;",
+                    "    if (result == null) {",
+                    "      %3$s",
+                    "      result = %2$s;",
+                    "    }",
+                    "  }",
+                    "}",
+                    "return result;"),
+            lazyField.field.type(),
+            lazyField.field.name(),
+            initialization);
+  }
+
+  /**
+   * Writes a method that initializes all of the fields in a cycle, and getters for those fields
+   * that call it the first time any of them is used. The fields are only read after a
+   * {@code volatile} flag has been set, so no thread sees a cycle whose delegates are not yet set.
+   */
+  private void initializeCycleLazily(
+      ImmutableList<BindingKey> bindingKeys, Set<ContributionBinding> contributions) {
+    LazyFrameworkField firstField = lazyFrameworkFields.get(bindingKeys.get(0));
+    FieldWriter initializedFlag =
+        componentWriter.addField(PrimitiveName.BOOLEAN, firstField.field.name() + "CycleInitialized");
+    initializedFlag.addModifiers(PRIVATE, VOLATILE);
+
+    MethodWriter initializeMethod =
+        componentWriter.addMethod(
+            VoidName.VOID,
+            uniqueMethodName(
+                "initialize" + LOWER_CAMEL.to(UPPER_CAMEL, firstField.field.name()) + "Cycle"));
+    initializeMethod.addModifiers(PRIVATE);
+    initializeMethod.annotate(SuppressWarnings.class).setValue("unchecked");
+    keysInitializedInline = ImmutableSet.copyOf(bindingKeys);
+    contributionsInitializedInline = contributions;
+    for (BindingKey bindingKey : bindingKeys) {
+      initializeMethod.body().addSnippet(initializeFrameworkType(bindingKey));
+    }
+    keysInitializedInline = ImmutableSet.of();
+    contributionsInitializedInline = ImmutableSet.of();
+    initializeMethod.body().addSnippet("%s = true;", initializedFlag.name());
+
+    for (LazyFrameworkField lazyField :
+        Iterables.concat(
+            Iterables.transform(bindingKeys, Functions.forMap(lazyFrameworkFields)),
+            Iterables.transform(contributions, Functions.forMap(lazyContributionFields)))) {
+      addGetter(lazyField)
+          .body()
+          .addSnippet(
+              Joiner.on('\n')
+                  .join(
+                      "if (!%1$s) {",
+                      "  synchronized (this) {",
+                      "    if (!%1$s) {",
+                      "      %2$s();",
+                      "    }",
+                      "  }",
+                      "}",
+                      "return %3$s;"),
+              initializedFlag.name(),
+              initializeMethod.name(),
+              lazyField.field.name());
+    }
+  }
+
+  private MethodWriter addGetter(LazyFrameworkField lazyField) {
+    MethodWriter getter = componentWriter.addMethod(lazyField.field.type(), lazyField.getterName);
+    getter.addModifiers(PRIVATE);
+    if (lazyField.rawType) {
+      getter.annotate(SuppressWarnings.class).setValue("unchecked", "rawtypes");
+    } else {
+      getter.annotate(SuppressWarnings.class).setValue("unchecked");
+    }
+    return getter;
+  }
+
+  /** A framework field that is initialized by its getter the first time it is used. */
+  private final class LazyFrameworkField {
+    final FieldWriter field;
+    final boolean rawType;
+    final String getterName;
+
+    LazyFrameworkField(FieldWriter field, boolean rawType) {
+      this.field = field;
+      this.rawType = rawType;
+      this.getterName = uniqueMethodName(field.name());
+    }
+
+    MemberSelect fieldSelect() {
+      return MemberSelect.instanceSelect(name, Snippet.format("%s", field.name()));
+    }
+
+    MemberSelect getterSelect() {
+      return MemberSelect.instanceSelect(name, Snippet.format("%s()", getterName));
+    }
+  }
+
   /**
    * Returns a single snippet representing the initialization of the framework type.
    *
@@ -714,8 +1249,8 @@ abstract class AbstractComponentWriter {
   private Snippet initializeFrameworkType(BindingKey bindingKey) {
     ResolvedBindings resolvedBindings = graph.resolvedBindings().get(bindingKey);
     
-    // There's no field for inherited bindings.
-    if (resolvedBindings.ownedBindings().isEmpty()) {
+    // There's no field for inherited bindings or for bindings that are only invoked directly.
+    if (resolvedBindings.ownedBindings().isEmpty() || directOnlyKeys.contains(bindingKey)) {
       return Snippet.format("");
     }
     
@@ -771,12 +1306,28 @@ abstract class AbstractComponentWriter {
             "%s.create(%s)",
             ClassName.fromClass(factoryClass),
             makeParametersSnippet(parameterSnippets.build()));
+    if (factoryClass.equals(SetFactory.class)
+        && allScoped(resolvedBindings.contributionBindings())) {
+      // every contribution returns the same set on each call, so the union never changes
+      initializeSetSnippet =
+          Snippet.format(
+              "%s.provider(%s)", ClassName.fromClass(DoubleCheck.class), initializeSetSnippet);
+    }
     initializationSnippets.add(
         initializeMember(resolvedBindings.bindingKey(), initializeSetSnippet));
 
     return Snippet.concat(initializationSnippets.build());
   }
 
+  private static boolean allScoped(Iterable<? extends Binding> bindings) {
+    for (Binding binding : bindings) {
+      if (!binding.scope().isPresent()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   private Snippet initializeMapMultibindings(ResolvedBindings resolvedBindings) {
     ImmutableList.Builder<Snippet> initializationSnippets = ImmutableList.builder();
 
@@ -789,12 +1340,14 @@ abstract class AbstractComponentWriter {
           getMultibindingContributionSnippet(binding);
       if (!isMapWithNonProvidedValues(binding.key().type())
           && multibindingContributionSnippet.isPresent()
-          && multibindingContributionSnippet.get().owningClass().equals(name)) {
+          && multibindingContributionSnippet.get().owningClass().equals(name)
+          && getContributionInitializationState(binding).equals(UNINITIALIZED)) {
         initializationSnippets.add(
             Snippet.format(
                 "this.%s = %s;",
                 multibindingContributionSnippet.get().getSnippetFor(name),
                 initializeFactoryForContributionBinding(binding)));
+        setContributionInitializationState(binding, INITIALIZED);
       }
     }
     initializationSnippets.add(
@@ -941,7 +1494,7 @@ abstract class AbstractComponentWriter {
                       "}"),
               /* 1 */ ClassName.fromClass(Factory.class),
               /* 2 */ bindingKeyTypeName,
-              /* 3 */ getComponentContributionSnippet(bindingTypeElement),
+              /* 3 */ getComponentContributionSnippetForAnonymousClass(bindingTypeElement),
               /* 4 */ nullableSnippet(binding.nullableType()),
               /* 5 */ TypeNames.forTypeMirror(bindingTypeElement.asType()),
               /* 6 */ localFactoryVariable,
@@ -977,10 +1530,14 @@ abstract class AbstractComponentWriter {
                   "%s.create(%s)",
                   generatedClassNameForBinding(binding),
                   Snippet.makeParametersSnippet(parameters));
-          return binding.scope().isPresent()
+          if (!binding.scope().isPresent()) {
+            return factorySnippet;
+          }
+          return binding.scope().isReusable()
               ? Snippet.format(
-                  "%s.create(%s)", ClassName.fromClass(ScopedProvider.class), factorySnippet)
-              : factorySnippet;
+                  "%s.create(%s)", ClassName.fromClass(SingleCheckProvider.class), factorySnippet)
+              : Snippet.format(
+                  "%s.provider(%s)", ClassName.fromClass(DoubleCheck.class), factorySnippet);
         }
 
       case COMPONENT_PRODUCTION:
@@ -999,7 +1556,7 @@ abstract class AbstractComponentWriter {
               /* 1 */ ClassName.fromClass(Producer.class),
               /* 2 */ TypeNames.forTypeMirror(binding.key().type()),
               /* 3 */ ClassName.fromClass(ListenableFuture.class),
-              /* 4 */ getComponentContributionSnippet(bindingTypeElement),
+              /* 4 */ getComponentContributionSnippetForAnonymousClass(bindingTypeElement),
               /* 5 */ binding.bindingElement().getSimpleName().toString(),
               /* 6 */ TypeNames.forTypeMirror(bindingTypeElement.asType()),
               /* 7 */ simpleVariableName(bindingTypeElement));
@@ -1015,7 +1572,14 @@ abstract class AbstractComponentWriter {
           }
           parameters.add(
               getComponentContributionSnippet(
-                  graph.componentDescriptor().executorDependency().get()));
+                  ((ProductionBinding) binding)
+                      .executorType()
+                      .or(graph.componentDescriptor().executorDependency().get())));
+          if (((ProductionBinding) binding).timeoutMillis() > 0) {
+            parameters.add(
+                getComponentContributionSnippet(
+                    graph.componentDescriptor().deadlineDependency().get()));
+          }
           parameters.addAll(getProducerDependencyParameters(binding));
 
           return Snippet.format(
@@ -1120,7 +1684,8 @@ abstract class AbstractComponentWriter {
     if (isMapWithNonProvidedValues(mapType)) {
       return Snippet.format(
           "%s.create(%s)",
-          ClassName.fromClass(MapFactory.class),
+          ClassName.fromClass(
+              compilerOptions.lazyMapValues() ? LazyMapFactory.class : MapFactory.class),
           getMemberSelectSnippet(getOnlyElement(firstBinding.dependencies()).bindingKey()));
     }
 
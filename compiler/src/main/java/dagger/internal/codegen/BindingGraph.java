@@ -108,7 +108,7 @@ abstract class BindingGraph {
 
   /**
    * Returns the set of types necessary to implement the component, but are not part of the injected
-   * graph.  This includes modules, component dependencies and an {@link Executor} in the case of
+   * graph.  This includes modules, component dependencies and {@link Executor}s in the case of
    * {@link ProductionComponent}.
    */
   ImmutableSet<TypeElement> componentRequirements() {
@@ -141,7 +141,8 @@ abstract class BindingGraph {
             })
         .filter(in(ownedModuleTypes()))
         .append(componentDescriptor().dependencies())
-        .append(componentDescriptor().executorDependency().asSet())
+        .append(componentDescriptor().executorDependencies())
+        .append(componentDescriptor().deadlineDependency().asSet())
         .toSet();
   }
 
@@ -149,7 +150,8 @@ abstract class BindingGraph {
     return new ImmutableSet.Builder<TypeElement>()
         .addAll(componentDescriptor().transitiveModuleTypes())
         .addAll(componentDescriptor().dependencies())
-        .addAll(componentDescriptor().executorDependency().asSet())
+        .addAll(componentDescriptor().executorDependencies())
+        .addAll(componentDescriptor().deadlineDependency().asSet())
         .build();
   }
 
@@ -276,6 +278,7 @@ abstract class BindingGraph {
       final ImmutableSetMultimap<Key, ContributionBinding> explicitBindings;
       final ImmutableSet<ContributionBinding> explicitBindingsSet;
       final Map<BindingKey, ResolvedBindings> resolvedBindings;
+      final ImmutableSet<ModuleDescriptor> inheritedModules;
       final Deque<BindingKey> cycleStack = new ArrayDeque<>();
       final Cache<BindingKey, Boolean> dependsOnLocalMultibindingsCache =
           CacheBuilder.newBuilder().<BindingKey, Boolean>build();
@@ -292,6 +295,13 @@ abstract class BindingGraph {
         this.explicitBindings = explicitBindings;
         this.explicitBindingsSet = ImmutableSet.copyOf(explicitBindings.values());
         this.resolvedBindings = Maps.newLinkedHashMap();
+        this.inheritedModules =
+            parentResolver.isPresent()
+                ? Sets.union(
+                        parentResolver.get().inheritedModules,
+                        parentResolver.get().componentDescriptor.transitiveModules())
+                    .immutableCopy()
+                : ImmutableSet.<ModuleDescriptor>of();
       }
 
       /**
@@ -420,12 +430,13 @@ abstract class BindingGraph {
       /**
        * Returns {@code true} if {@code binding}, which was previously resolved by a parent
        * resolver, should be moved into this resolver's bindings for {@code request} because it is
-       * unscoped and {@linkplain #dependsOnLocalMultibindings(ResolvedBindings) depends on local
-       * multibindings}, or {@code false} if it can satisfy {@code request} as an inherited binding.
+       * unscoped or {@link dagger.Reusable @Reusable} and
+       * {@linkplain #dependsOnLocalMultibindings(ResolvedBindings) depends on local multibindings},
+       * or {@code false} if it can satisfy {@code request} as an inherited binding.
        */
       private boolean shouldOwnParentBinding(
           DependencyRequest request, ContributionBinding binding) {
-        return !binding.scope().isPresent()
+        return (!binding.scope().isPresent() || binding.scope().isReusable())
             && dependsOnLocalMultibindings(
                 getPreviouslyResolvedBindings(request.bindingKey()).get());
       }
@@ -568,7 +579,7 @@ abstract class BindingGraph {
                   }
 
                   for (Binding binding : previouslyResolvedBindings.bindings()) {
-                    if (!binding.scope().isPresent()
+                    if ((!binding.scope().isPresent() || binding.scope().isReusable())
                         && !binding.bindingType().equals(Type.PRODUCTION)) {
                       for (DependencyRequest dependency : binding.implicitDependencies()) {
                         if (dependsOnLocalMultibindings(
@@ -610,12 +621,7 @@ abstract class BindingGraph {
       }
 
       ImmutableSet<ModuleDescriptor> getInheritedModules() {
-        return parentResolver.isPresent()
-            ? Sets.union(
-                    parentResolver.get().getInheritedModules(),
-                    parentResolver.get().componentDescriptor.transitiveModules())
-                .immutableCopy()
-            : ImmutableSet.<ModuleDescriptor>of();
+        return inheritedModules;
       }
 
       ImmutableSet<ModuleDescriptor> getOwnedModules() {
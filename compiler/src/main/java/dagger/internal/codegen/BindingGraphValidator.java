@@ -47,9 +47,7 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Deque;
 import java.util.Formatter;
-import java.util.HashSet;
 import java.util.Iterator;
-import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
 import javax.inject.Provider;
@@ -73,11 +71,10 @@ import static com.google.auto.common.MoreTypes.asTypeElements;
 import static com.google.common.base.Predicates.equalTo;
 import static com.google.common.base.Predicates.in;
 import static com.google.common.base.Predicates.not;
-import static com.google.common.base.Verify.verify;
 import static com.google.common.collect.Iterables.all;
 import static com.google.common.collect.Iterables.any;
+import static com.google.common.collect.Iterables.getLast;
 import static com.google.common.collect.Iterables.getOnlyElement;
-import static com.google.common.collect.Iterables.indexOf;
 import static com.google.common.collect.Iterables.skip;
 import static com.google.common.collect.Maps.filterKeys;
 import static dagger.internal.codegen.ComponentDescriptor.ComponentMethodDescriptor.isOfKind;
@@ -139,6 +136,14 @@ public class BindingGraphValidator {
     final BindingGraph topLevelGraph;
     final BindingGraph subject;
     final ValidationReport.Builder<TypeElement> reportBuilder;
+    /**
+     * The requests from the entry point being traversed to the current request, which is at the
+     * head.
+     */
+    final Deque<ResolvedRequest> bindingPath = new ArrayDeque<ResolvedRequest>();
+    final Map<BindingKey, TraversalState> traversalStates = Maps.newHashMap();
+    /** The states of the keys whose strongly connected components are still being traversed. */
+    final Deque<TraversalState> openStates = new ArrayDeque<TraversalState>();
 
     Validation(BindingGraph topLevelGraph, BindingGraph subject) {
       this.topLevelGraph = topLevelGraph;
@@ -165,12 +170,7 @@ public class BindingGraphValidator {
            subject.componentDescriptor().componentMethods()) {
         Optional<DependencyRequest> entryPoint = componentMethod.dependencyRequest();
         if (entryPoint.isPresent()) {
-          traverseRequest(
-              entryPoint.get(),
-              new ArrayDeque<ResolvedRequest>(),
-              new LinkedHashSet<BindingKey>(),
-              subject,
-              new HashSet<DependencyRequest>());
+          traverseDependencies(entryPoint.get());
         }
       }
       
@@ -223,60 +223,206 @@ public class BindingGraphValidator {
     }
 
     /**
-     * Traverse the resolved dependency requests, validating resolved bindings, and reporting any
-     * cycles found.
+     * Traverses the dependency requests reachable from an entry point, validating each request and
+     * the bindings it resolves to, and reporting any cycles found.
+     *
+     * <p>The traversal is an iterative depth-first search over binding keys that tracks strongly
+     * connected components using Tarjan's algorithm. Its state is shared by all of the entry points
+     * of the component, so the {@link ResolvedBindings} for each key are validated only once, when
+     * the key is first reached. A request for a key whose strongly connected component is still
+     * being traversed closes a cycle. The dependency path from the entry point is the traversal's
+     * stack, and is only formatted when an error is reported.
      *
-     * @param request the current dependency request
-     * @param bindingPath the dependency request path from the parent of {@code request} at the head
-     *     up to the root dependency request from the component method at the tail
-     * @param keysInPath the binding keys corresponding to the dependency requests in
-     *     {@code bindingPath}, but in reverse order: the first element is the binding key from the
-     *     component method
-     * @param resolvedRequests the requests that have already been resolved, so we can avoid
-     *     traversing that part of the graph again
+     * <p>Keys that can reach an error are traversed again from each entry point that requests them,
+     * so that each of those entry points reports the error with its own dependency path.
+     */
+    private void traverseDependencies(DependencyRequest entryPoint) {
+      Deque<TraversalFrame> frames = new ArrayDeque<TraversalFrame>();
+      Set<BindingKey> keysReachedFromEntryPoint = Sets.newHashSet();
+      visitRequest(entryPoint, frames, keysReachedFromEntryPoint);
+      while (!frames.isEmpty()) {
+        TraversalFrame frame = frames.peek();
+        if (frame.dependencies.hasNext()) {
+          visitRequest(frame.dependencies.next(), frames, keysReachedFromEntryPoint);
+          continue;
+        }
+        frames.pop();
+        bindingPath.pop();
+        TraversalState state = frame.state;
+        state.pathIndex = TraversalState.NOT_IN_PATH;
+        if (!frame.revisit && state.lowLink == state.index) {
+          // state is the root of a strongly connected component, all of which has been traversed
+          closeComponent(state);
+        }
+        if (!frames.isEmpty()) {
+          TraversalState parent = frames.peek().state;
+          if (!frame.revisit) {
+            parent.lowLink = Math.min(parent.lowLink, state.lowLink);
+          }
+          parent.reachesErrors |= state.reachesErrors;
+        }
+      }
+    }
+
+    /**
+     * Visits a request made by the bindings at the head of the binding path (or an entry point, if
+     * the path is empty), and pushes a frame for the request's key if its bindings need to be
+     * traversed.
      */
-    // TODO(dpb): It might be simpler to invert bindingPath's order.
-    private void traverseRequest(
+    private void visitRequest(
         DependencyRequest request,
-        Deque<ResolvedRequest> bindingPath,
-        LinkedHashSet<BindingKey> keysInPath,
-        BindingGraph graph,
-        Set<DependencyRequest> resolvedRequests) {
-      verify(bindingPath.size() == keysInPath.size(),
-          "mismatched path vs keys -- (%s vs %s)", bindingPath, keysInPath);
-      BindingKey requestKey = request.bindingKey();
-      if (keysInPath.contains(requestKey)) {
-        reportCycle(
-            // Invert bindingPath to match keysInPath's order
-            ImmutableList.copyOf(bindingPath).reverse(),
-            request,
-            indexOf(keysInPath, equalTo(requestKey)));
+        Deque<TraversalFrame> frames,
+        Set<BindingKey> keysReachedFromEntryPoint) {
+      BindingKey bindingKey = request.bindingKey();
+      TraversalState state = traversalStates.get(bindingKey);
+      TraversalFrame parentFrame = frames.peek();
+      if (state != null && (state.open || state.pathIndex != TraversalState.NOT_IN_PATH)) {
+        if (state.open) {
+          parentFrame.state.lowLink = Math.min(parentFrame.state.lowLink, state.index);
+        }
+        parentFrame.state.reachesErrors |= reportCycle(request, state);
         return;
       }
 
-      // If request has already been resolved, avoid re-traversing the binding path.
-      if (resolvedRequests.add(request)) {
-        ResolvedRequest resolvedRequest = ResolvedRequest.create(request, graph);
-        bindingPath.push(resolvedRequest);
-        keysInPath.add(requestKey);
-        validateResolvedBinding(bindingPath, resolvedRequest.binding());
+      ResolvedRequest resolvedRequest = ResolvedRequest.create(request, subject);
+      bindingPath.push(resolvedRequest);
+      if (!validateRequest(resolvedRequest.binding()) && parentFrame != null) {
+        parentFrame.state.reachesErrors = true;
+      }
+      if (state == null) {
+        state = new TraversalState(traversalStates.size(), bindingPath.size() - 1);
+        traversalStates.put(bindingKey, state);
+        openStates.push(state);
+        keysReachedFromEntryPoint.add(bindingKey);
+        state.reachesErrors = !validateResolvedBindings(resolvedRequest.binding());
+        frames.push(new TraversalFrame(state, resolvedRequest.binding(), false));
+      } else if (state.reachesErrors && keysReachedFromEntryPoint.add(bindingKey)) {
+        // Report the errors again, with the path from this entry point.
+        state.pathIndex = bindingPath.size() - 1;
+        validateResolvedBindings(resolvedRequest.binding());
+        frames.push(new TraversalFrame(state, resolvedRequest.binding(), true));
+      } else {
+        bindingPath.pop();
+      }
+    }
+
+    /**
+     * Closes the strongly connected component whose root is {@code root}. If any of its keys can
+     * reach an error, then all of them can.
+     */
+    private void closeComponent(TraversalState root) {
+      boolean reachesErrors = false;
+      ImmutableList.Builder<TraversalState> members = ImmutableList.builder();
+      TraversalState member;
+      do {
+        member = openStates.pop();
+        member.open = false;
+        reachesErrors |= member.reachesErrors;
+        members.add(member);
+      } while (member != root);
+      for (TraversalState closedMember : members.build()) {
+        closedMember.reachesErrors = reachesErrors;
+      }
+    }
+
+    /**
+     * Reports the cycle closed by {@code request}, whose key is either in the binding path or in a
+     * strongly connected component that is still being traversed. Returns {@code true} if the cycle
+     * was reported.
+     */
+    private boolean reportCycle(DependencyRequest request, TraversalState state) {
+      ImmutableList<DependencyRequest> requestPath =
+          FluentIterable.from(bindingPath)
+              .transform(REQUEST_FROM_RESOLVED_REQUEST)
+              .toList()
+              .reverse();
+      if (state.pathIndex != TraversalState.NOT_IN_PATH) {
+        return reportCycle(
+            ImmutableList.<DependencyRequest>builder().addAll(requestPath).add(request).build(),
+            state.pathIndex);
+      }
+      // The key isn't in the path, but it can reach a key that is, so complete the cycle with the
+      // requests that lead back to the path.
+      ImmutableList<DependencyRequest> requestsBackToPath =
+          requestsBackToPath(request.bindingKey());
+      return reportCycle(
+          ImmutableList.<DependencyRequest>builder()
+              .addAll(requestPath)
+              .add(request)
+              .addAll(requestsBackToPath)
+              .build(),
+          traversalStates.get(getLast(requestsBackToPath).bindingKey()).pathIndex);
+    }
 
-        for (Binding binding : resolvedRequest.binding().bindings()) {
-          for (DependencyRequest nextRequest : binding.implicitDependencies()) {
-            traverseRequest(nextRequest, bindingPath, keysInPath, graph, resolvedRequests);
+    /**
+     * Returns the shortest chain of requests from the bindings for {@code openKey} to a key in the
+     * binding path. Every key in a strongly connected component that is still being traversed has
+     * one, through other keys in such components.
+     */
+    private ImmutableList<DependencyRequest> requestsBackToPath(BindingKey openKey) {
+      Map<BindingKey, DependencyRequest> requestsReaching = Maps.newHashMap();
+      Map<BindingKey, BindingKey> previousKeys = Maps.newHashMap();
+      Deque<BindingKey> queue = new ArrayDeque<BindingKey>();
+      queue.add(openKey);
+      while (!queue.isEmpty()) {
+        BindingKey key = queue.remove();
+        ResolvedBindings resolvedBindings = subject.resolvedBindings().get(key);
+        if (resolvedBindings == null) {
+          continue;
+        }
+        for (DependencyRequest request : dependenciesOf(resolvedBindings)) {
+          BindingKey nextKey = request.bindingKey();
+          TraversalState nextState = traversalStates.get(nextKey);
+          if (nextState == null
+              || !nextState.open
+              || nextKey.equals(openKey)
+              || requestsReaching.containsKey(nextKey)) {
+            continue;
           }
+          requestsReaching.put(nextKey, request);
+          previousKeys.put(nextKey, key);
+          if (nextState.pathIndex != TraversalState.NOT_IN_PATH) {
+            Deque<DependencyRequest> requests = new ArrayDeque<DependencyRequest>();
+            for (BindingKey k = nextKey; !k.equals(openKey); k = previousKeys.get(k)) {
+              requests.push(requestsReaching.get(k));
+            }
+            return ImmutableList.copyOf(requests);
+          }
+          queue.add(nextKey);
         }
-        bindingPath.poll();
-        keysInPath.remove(requestKey);
       }
+      throw new AssertionError(openKey + " is open but can't reach the binding path");
+    }
+
+    /**
+     * Validates that the bindings resolved for the request at the head of the binding path can
+     * satisfy that request, and returns true if they can.
+     */
+    private boolean validateRequest(ResolvedBindings resolvedBinding) {
+      if (resolvedBinding.bindings().isEmpty()
+          || !resolvedBinding.bindingKey().kind().equals(BindingKey.Kind.CONTRIBUTION)) {
+        return true;
+      }
+      ImmutableSet<ContributionBinding> contributionBindings =
+          resolvedBinding.contributionBindings();
+      if (!validateNullability(bindingPath.peek().request(), contributionBindings)) {
+        return false;
+      }
+      if (any(contributionBindings, Binding.Type.PRODUCTION)
+          && doesPathRequireProvisionOnly(bindingPath)) {
+        reportProviderMayNotDependOnProducer(bindingPath);
+        return false;
+      }
+      return true;
     }
 
     /**
      * Validates that the set of bindings resolved is consistent with the type of the binding, and
-     * returns true if the bindings are valid.
+     * returns true if the bindings are valid. The request at the head of the binding path is the
+     * first one to have been resolved to them.
      */
-    private boolean validateResolvedBinding(
-        Deque<ResolvedRequest> path, ResolvedBindings resolvedBinding) {
+    private boolean validateResolvedBindings(ResolvedBindings resolvedBinding) {
+      Deque<ResolvedRequest> path = bindingPath;
       if (resolvedBinding.bindings().isEmpty()) {
         reportMissingBinding(path);
         return false;
@@ -290,14 +436,6 @@ public class BindingGraphValidator {
             throw new IllegalArgumentException(
                 "contribution binding keys should never have members injection bindings");
           }
-          if (!validateNullability(path.peek().request(), contributionBindings)) {
-            return false;
-          }
-          if (any(contributionBindings, Binding.Type.PRODUCTION)
-              && doesPathRequireProvisionOnly(path)) {
-            reportProviderMayNotDependOnProducer(path);
-            return false;
-          }
           if (contributionBindings.size() <= 1) {
             return true;
           }
@@ -720,7 +858,10 @@ public class BindingGraphValidator {
         if (bindings.bindingKey().kind().equals(BindingKey.Kind.CONTRIBUTION)) {
           for (ContributionBinding contributionBinding : bindings.ownedContributionBindings()) {
             Scope bindingScope = contributionBinding.scope();
-            if (bindingScope.isPresent() && !bindingScope.equals(componentScope)) {
+            // @Reusable bindings may be used by any component.
+            if (bindingScope.isPresent()
+                && !bindingScope.isReusable()
+                && !bindingScope.equals(componentScope)) {
               // Scoped components cannot reference bindings to @Provides methods or @Inject
               // types decorated by a different scope annotation. Unscoped components cannot
               // reference to scoped @Provides methods or @Inject types decorated by any
@@ -898,22 +1039,15 @@ public class BindingGraphValidator {
     /**
      * Reports a cycle in the binding path.
      *
-     * @param bindingPath the binding path, starting with the component provision dependency, and
-     *     ending with the binding that depends on {@code request}
-     * @param request the request that would have been added to the binding path if its
-     *     {@linkplain DependencyRequest#bindingKey() binding key} wasn't already in it
-     * @param indexOfDuplicatedKey the index of the dependency request in {@code bindingPath} whose
-     *     {@linkplain DependencyRequest#bindingKey() binding key} matches {@code request}'s
+     * @param requestPath the dependency requests, starting with the component provision
+     *     dependency, and ending with a request whose {@linkplain DependencyRequest#bindingKey()
+     *     binding key} is already in the path
+     * @param indexOfDuplicatedKey the index of the dependency request in {@code requestPath} whose
+     *     {@linkplain DependencyRequest#bindingKey() binding key} matches the last request's
+     * @return {@code true} unless the cycle's warning was suppressed
      */
-    private void reportCycle(
-        Iterable<ResolvedRequest> bindingPath,
-        DependencyRequest request,
-        int indexOfDuplicatedKey) {
-      ImmutableList<DependencyRequest> requestPath =
-          FluentIterable.from(bindingPath)
-              .transform(REQUEST_FROM_RESOLVED_REQUEST)
-              .append(request)
-              .toList();
+    private boolean reportCycle(
+        ImmutableList<DependencyRequest> requestPath, int indexOfDuplicatedKey) {
       Element rootRequestElement = requestPath.get(0).requestElement();
       ImmutableList<DependencyRequest> cycle =
           requestPath.subList(indexOfDuplicatedKey, requestPath.size());
@@ -922,7 +1056,7 @@ public class BindingGraphValidator {
           && (suppressCycleWarnings(rootRequestElement)
               || suppressCycleWarnings(rootRequestElement.getEnclosingElement())
               || suppressCycleWarnings(cycle))) {
-        return;
+        return false;
       }
       // TODO(cgruber): Provide a hint for the start and end of the cycle.
       TypeElement componentType = MoreElements.asType(rootRequestElement.getEnclosingElement());
@@ -939,6 +1073,7 @@ public class BindingGraphValidator {
                           .skip(1))),
           kind,
           rootRequestElement);
+      return true;
     }
 
     /**
@@ -1135,6 +1270,55 @@ public class BindingGraphValidator {
     }
   }
 
+  /** Returns the requests made by the resolved bindings, in order. */
+  private static ImmutableList<DependencyRequest> dependenciesOf(
+      ResolvedBindings resolvedBindings) {
+    ImmutableList.Builder<DependencyRequest> dependencies = ImmutableList.builder();
+    for (Binding binding : resolvedBindings.bindings()) {
+      dependencies.addAll(binding.implicitDependencies());
+    }
+    return dependencies.build();
+  }
+
+  /** The state of a binding key in the traversal of a component's dependencies. */
+  private static final class TraversalState {
+    static final int NOT_IN_PATH = -1;
+
+    /** The order in which the key was first reached. */
+    final int index;
+    /** The smallest index of a key in the same strongly connected component that it can reach. */
+    int lowLink;
+    /** Whether the key's strongly connected component is still being traversed. */
+    boolean open = true;
+    /** The index of the key's request in the binding path, or {@link #NOT_IN_PATH}. */
+    int pathIndex;
+    /**
+     * Whether any errors were reported for the key's bindings or any that they depend on. This is
+     * only complete once the key is no longer {@link #open}.
+     */
+    boolean reachesErrors;
+
+    TraversalState(int index, int pathIndex) {
+      this.index = index;
+      this.lowLink = index;
+      this.pathIndex = pathIndex;
+    }
+  }
+
+  /** A binding key in the binding path, along with its dependencies that are left to traverse. */
+  private static final class TraversalFrame {
+    final TraversalState state;
+    final Iterator<DependencyRequest> dependencies;
+    /** Whether the key was already traversed, and is being traversed again to report errors. */
+    final boolean revisit;
+
+    TraversalFrame(TraversalState state, ResolvedBindings resolvedBindings, boolean revisit) {
+      this.state = state;
+      this.dependencies = dependenciesOf(resolvedBindings).iterator();
+      this.revisit = revisit;
+    }
+  }
+
   @AutoValue
   abstract static class ResolvedRequest {
     abstract DependencyRequest request();
@@ -0,0 +1,49 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.internal.codegen;
+
+import com.google.auto.value.AutoValue;
+
+/**
+ * The processor options that affect how components are generated.
+ */
+@AutoValue
+abstract class CompilerOptions {
+  /**
+   * Returns {@code true} if the framework fields of generated components are created the first
+   * time they are used instead of in the component's constructor.
+   */
+  abstract boolean lazyInitialization();
+
+  /**
+   * Returns {@code true} if component methods and dependent bindings call the {@code @Inject}
+   * constructor or {@code @Provides} method of eligible unscoped bindings directly instead of
+   * going through a factory.
+   */
+  abstract boolean directInstanceBindings();
+
+  /**
+   * Returns {@code true} if {@code Map<K, V>} multibindings only invoke the provider for a value
+   * when its entry is first read instead of providing every value when the map is requested.
+   */
+  abstract boolean lazyMapValues();
+
+  static CompilerOptions create(
+      boolean lazyInitialization, boolean directInstanceBindings, boolean lazyMapValues) {
+    return new AutoValue_CompilerOptions(
+        lazyInitialization, directInstanceBindings, lazyMapValues);
+  }
+}
@@ -30,6 +30,7 @@ import dagger.Lazy;
 import dagger.MembersInjector;
 import dagger.Module;
 import dagger.Subcomponent;
+import dagger.producers.Deadline;
 import dagger.producers.ProductionComponent;
 import java.lang.annotation.Annotation;
 import java.util.EnumSet;
@@ -143,6 +144,9 @@ abstract class ComponentDescriptor {
    */
   abstract ImmutableSet<ModuleDescriptor> modules();
 
+  /** The {@linkplain #transitiveModules transitive modules}, once they have been computed. */
+  private ImmutableSet<ModuleDescriptor> transitiveModules;
+
   /**
    * Returns the set of {@link ModuleDescriptor modules} declared in {@link Component#modules} and
    * those reachable by traversing {@link Module#includes}.
@@ -151,11 +155,16 @@ abstract class ComponentDescriptor {
    * are declared in parent components.
    */
   ImmutableSet<ModuleDescriptor> transitiveModules() {
-    Set<ModuleDescriptor> transitiveModules = new LinkedHashSet<>();
-    for (ModuleDescriptor module : modules()) {
-      addTransitiveModules(transitiveModules, module);
+    ImmutableSet<ModuleDescriptor> transitiveModules = this.transitiveModules;
+    if (transitiveModules == null) {
+      Set<ModuleDescriptor> modules = new LinkedHashSet<>();
+      for (ModuleDescriptor module : modules()) {
+        addTransitiveModules(modules, module);
+      }
+      // Racing threads compute the same immutable set, so this needn't be synchronized.
+      transitiveModules = this.transitiveModules = ImmutableSet.copyOf(modules);
     }
-    return ImmutableSet.copyOf(transitiveModules);
+    return transitiveModules;
   }
 
   ImmutableSet<TypeElement> transitiveModuleTypes() {
@@ -186,6 +195,29 @@ abstract class ComponentDescriptor {
    */
   abstract Optional<TypeElement> executorDependency();
 
+  /**
+   * The element representing {@link Deadline}, if it should be a dependency of this component.
+   */
+  abstract Optional<TypeElement> deadlineDependency();
+
+  /**
+   * The executors that are dependencies of this component: the {@linkplain #executorDependency
+   * component's executor}, followed by each subtype of {@link Executor} named by a
+   * {@code @Produces} method in the component's modules.
+   */
+  ImmutableSet<TypeElement> executorDependencies() {
+    ImmutableSet.Builder<TypeElement> executorDependencies = ImmutableSet.builder();
+    executorDependencies.addAll(executorDependency().asSet());
+    for (ModuleDescriptor module : transitiveModules()) {
+      for (ContributionBinding binding : module.bindings()) {
+        if (binding.bindingType().equals(Binding.Type.PRODUCTION)) {
+          executorDependencies.addAll(((ProductionBinding) binding).executorType().asSet());
+        }
+      }
+    }
+    return executorDependencies.build();
+  }
+
   /**
    * The scope of the component.
    */
@@ -292,6 +324,10 @@ abstract class ComponentDescriptor {
           kind.equals(Kind.PRODUCTION_COMPONENT)
               ? Optional.of(elements.getTypeElement(Executor.class.getCanonicalName()))
               : Optional.<TypeElement>absent();
+      Optional<TypeElement> deadlineDependency =
+          kind.equals(Kind.PRODUCTION_COMPONENT)
+              ? Optional.of(elements.getTypeElement(Deadline.class.getCanonicalName()))
+              : Optional.<TypeElement>absent();
 
       ImmutableSet.Builder<ModuleDescriptor> modules = ImmutableSet.builder();
       for (TypeMirror moduleIncludesType : getComponentModules(componentMirror)) {
@@ -351,6 +387,7 @@ abstract class ComponentDescriptor {
           modules.build(),
           dependencyMethodIndex.build(),
           executorDependency,
+          deadlineDependency,
           scope,
           subcomponentDescriptors.build(),
           componentMethodsBuilder.build(),
@@ -42,18 +42,22 @@ final class ComponentGenerator extends SourceFileGenerator<BindingGraph> {
   private final Elements elements;
   private final Key.Factory keyFactory;
   private final Diagnostic.Kind nullableValidationType;
+  private final CompilerOptions compilerOptions;
 
   ComponentGenerator(
       Filer filer,
+      ProcessorStats stats,
       Elements elements,
       Types types,
       Key.Factory keyFactory,
-      Diagnostic.Kind nullableValidationType) {
-    super(filer);
+      Diagnostic.Kind nullableValidationType,
+      CompilerOptions compilerOptions) {
+    super(filer, stats);
     this.types = types;
     this.elements = elements;
     this.keyFactory = keyFactory;
     this.nullableValidationType = nullableValidationType;
+    this.compilerOptions = compilerOptions;
   }
 
   @Override
@@ -121,7 +125,13 @@ final class ComponentGenerator extends SourceFileGenerator<BindingGraph> {
   @Override
   ImmutableSet<JavaWriter> write(ClassName componentName, BindingGraph input) {
     return new ComponentWriter(
-            types, elements, keyFactory, nullableValidationType, componentName, input)
+            types,
+            elements,
+            keyFactory,
+            nullableValidationType,
+            compilerOptions,
+            componentName,
+            input)
         .write();
   }
 }
@@ -54,7 +54,9 @@ final class ComponentProcessingStep extends AbstractComponentProcessingStep {
       BindingGraphValidator bindingGraphValidator,
       Factory componentDescriptorFactory,
       BindingGraph.Factory bindingGraphFactory,
-      ComponentGenerator componentGenerator) {
+      ComponentGenerator componentGenerator,
+      ProcessorStats stats,
+      FeatureStatus parallelGeneration) {
     super(
         Component.class,
         messager,
@@ -62,7 +64,9 @@ final class ComponentProcessingStep extends AbstractComponentProcessingStep {
         bindingGraphValidator,
         componentDescriptorFactory,
         bindingGraphFactory,
-        componentGenerator);
+        componentGenerator,
+        stats,
+        parallelGeneration);
     this.messager = messager;
     this.componentValidator = componentValidator;
     this.subcomponentValidator = subcomponentValidator;
@@ -18,12 +18,14 @@ package dagger.internal.codegen;
 import com.google.auto.common.BasicAnnotationProcessor;
 import com.google.auto.service.AutoService;
 import com.google.common.base.Ascii;
+import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import dagger.Module;
 import dagger.Provides;
 import dagger.producers.ProducerModule;
 import dagger.producers.Produces;
+import java.io.IOException;
 import java.lang.annotation.Annotation;
 import java.util.EnumSet;
 import java.util.Map;
@@ -38,6 +40,7 @@ import javax.lang.model.util.Types;
 import javax.tools.Diagnostic;
 
 import static javax.tools.Diagnostic.Kind.ERROR;
+import static javax.tools.Diagnostic.Kind.WARNING;
 
 /**
  * The annotation processor responsible for generating the classes that drive the Dagger 2.0
@@ -53,6 +56,8 @@ public final class ComponentProcessor extends BasicAnnotationProcessor {
   private InjectBindingRegistry injectBindingRegistry;
   private FactoryGenerator factoryGenerator;
   private MembersInjectorGenerator membersInjectorGenerator;
+  private ModuleDescriptor.Factory moduleDescriptorFactory;
+  private ProcessorStats stats;
 
   @Override
   public SourceVersion getSupportedSourceVersion() {
@@ -62,10 +67,15 @@ public final class ComponentProcessor extends BasicAnnotationProcessor {
   @Override
   public Set<String> getSupportedOptions() {
     return ImmutableSet.of(
+        DIRECT_INSTANCE_BINDINGS_KEY,
         DISABLE_INTER_COMPONENT_SCOPE_VALIDATION_KEY,
+        LAZY_INITIALIZATION_KEY,
+        LAZY_MAP_VALUES_KEY,
         NULLABLE_VALIDATION_KEY,
+        PARALLEL_GENERATION_KEY,
         PRIVATE_MEMBER_VALIDATION_TYPE_KEY,
-        STATIC_MEMBER_VALIDATION_TYPE_KEY
+        STATIC_MEMBER_VALIDATION_TYPE_KEY,
+        STATS_KEY
     );
   }
 
@@ -75,6 +85,12 @@ public final class ComponentProcessor extends BasicAnnotationProcessor {
     Types types = processingEnv.getTypeUtils();
     Elements elements = processingEnv.getElementUtils();
     Filer filer = processingEnv.getFiler();
+    this.stats =
+        statsPath(processingEnv).isPresent()
+            ? ProcessorStats.enabled()
+            : ProcessorStats.disabled();
+
+    FeatureStatus parallelGeneration = parallelGeneration(processingEnv);
 
     Diagnostic.Kind nullableDiagnosticType =
         nullableValidationType(processingEnv).diagnosticKind().get();
@@ -126,14 +142,26 @@ public final class ComponentProcessor extends BasicAnnotationProcessor {
     Key.Factory keyFactory = new Key.Factory(types, elements);
 
     this.factoryGenerator =
-        new FactoryGenerator(filer, DependencyRequestMapper.FOR_PROVIDER, nullableDiagnosticType);
+        new FactoryGenerator(
+            filer, stats, DependencyRequestMapper.FOR_PROVIDER, nullableDiagnosticType);
     this.membersInjectorGenerator =
-        new MembersInjectorGenerator(filer, DependencyRequestMapper.FOR_PROVIDER);
+        new MembersInjectorGenerator(filer, stats, DependencyRequestMapper.FOR_PROVIDER);
     ComponentGenerator componentGenerator =
-        new ComponentGenerator(filer, elements, types, keyFactory, nullableDiagnosticType);
+        new ComponentGenerator(
+            filer,
+            stats,
+            elements,
+            types,
+            keyFactory,
+            nullableDiagnosticType,
+            CompilerOptions.create(
+                lazyInitialization(processingEnv).equals(FeatureStatus.ENABLED),
+                directInstanceBindings(processingEnv).equals(FeatureStatus.ENABLED),
+                lazyMapValues(processingEnv).equals(FeatureStatus.ENABLED)));
     ProducerFactoryGenerator producerFactoryGenerator =
-        new ProducerFactoryGenerator(filer, DependencyRequestMapper.FOR_PRODUCER);
-    MonitoringModuleGenerator monitoringModuleGenerator = new MonitoringModuleGenerator(filer);
+        new ProducerFactoryGenerator(filer, stats, DependencyRequestMapper.FOR_PRODUCER);
+    MonitoringModuleGenerator monitoringModuleGenerator =
+        new MonitoringModuleGenerator(filer, stats);
 
     DependencyRequest.Factory dependencyRequestFactory =
         new DependencyRequest.Factory(elements, keyFactory);
@@ -148,7 +176,7 @@ public final class ComponentProcessor extends BasicAnnotationProcessor {
     this.injectBindingRegistry = new InjectBindingRegistry(
         elements, types, messager, provisionBindingFactory, membersInjectionBindingFactory);
 
-    ModuleDescriptor.Factory moduleDescriptorFactory = new ModuleDescriptor.Factory(
+    this.moduleDescriptorFactory = new ModuleDescriptor.Factory(
         elements, provisionBindingFactory, productionBindingFactory);
 
     ComponentDescriptor.Factory componentDescriptorFactory = new ComponentDescriptor.Factory(
@@ -162,7 +190,7 @@ public final class ComponentProcessor extends BasicAnnotationProcessor {
             provisionBindingFactory,
             productionBindingFactory);
 
-    MapKeyGenerator mapKeyGenerator = new MapKeyGenerator(filer);
+    MapKeyGenerator mapKeyGenerator = new MapKeyGenerator(filer, stats);
     ComponentHierarchyValidator componentHierarchyValidator = new ComponentHierarchyValidator();
     BindingGraphValidator bindingGraphValidator =
         new BindingGraphValidator(
@@ -175,7 +203,7 @@ public final class ComponentProcessor extends BasicAnnotationProcessor {
             dependencyRequestFormatter,
             keyFormatter);
 
-    return ImmutableList.<ProcessingStep>of(
+    ImmutableList<ProcessingStep> steps = ImmutableList.<ProcessingStep>of(
         new MapKeyProcessingStep(messager, types, mapKeyValidator, mapKeyGenerator),
         new InjectProcessingStep(
             messager,
@@ -202,7 +230,9 @@ public final class ComponentProcessor extends BasicAnnotationProcessor {
             bindingGraphValidator,
             componentDescriptorFactory,
             bindingGraphFactory,
-            componentGenerator),
+            componentGenerator,
+            stats,
+            parallelGeneration),
         new ProducerModuleProcessingStep(
             messager,
             producerModuleValidator,
@@ -217,30 +247,74 @@ public final class ComponentProcessor extends BasicAnnotationProcessor {
             bindingGraphValidator,
             componentDescriptorFactory,
             bindingGraphFactory,
-            componentGenerator));
+            componentGenerator,
+            stats,
+            parallelGeneration));
+    ImmutableList.Builder<ProcessingStep> timedSteps = ImmutableList.builder();
+    for (ProcessingStep step : steps) {
+      timedSteps.add(stats.timed(step));
+    }
+    return timedSteps.build();
   }
 
   @Override
   protected void postProcess() {
+    ProcessorStats.Timer timer = stats.start("ComponentProcessor.postProcess");
     try {
       injectBindingRegistry.generateSourcesForRequiredBindings(
           factoryGenerator, membersInjectorGenerator);
     } catch (SourceFileGenerationException e) {
       e.printMessageTo(processingEnv.getMessager());
+    } finally {
+      timer.stop();
+    }
+    moduleDescriptorFactory.clearCache();
+    writeStats();
+  }
+
+  /**
+   * Writes the stats recorded so far, if {@code -Adagger.stats} is set. This runs after every
+   * round, so the report from the last round covers the whole compilation.
+   */
+  private void writeStats() {
+    Optional<String> statsPath = statsPath(processingEnv);
+    if (statsPath.isPresent()) {
+      try {
+        stats.writeTo(statsPath.get());
+      } catch (IOException e) {
+        processingEnv.getMessager().printMessage(WARNING,
+            "Could not write Dagger processor stats to " + statsPath.get() + ": " + e);
+      }
     }
   }
 
   private static final String DISABLE_INTER_COMPONENT_SCOPE_VALIDATION_KEY =
       "dagger.disableInterComponentScopeValidation";
 
+  private static final String DIRECT_INSTANCE_BINDINGS_KEY = "dagger.directInstanceBindings";
+
+  private static final String LAZY_INITIALIZATION_KEY = "dagger.lazyInitialization";
+
+  private static final String LAZY_MAP_VALUES_KEY = "dagger.lazyMapValues";
+
   private static final String NULLABLE_VALIDATION_KEY = "dagger.nullableValidation";
 
+  private static final String PARALLEL_GENERATION_KEY = "dagger.parallelGeneration";
+
   private static final String PRIVATE_MEMBER_VALIDATION_TYPE_KEY =
       "dagger.privateMemberValidation";
 
   private static final String STATIC_MEMBER_VALIDATION_TYPE_KEY =
       "dagger.staticMemberValidation";
 
+  private static final String STATS_KEY = "dagger.stats";
+
+  /** Returns the path to write processor stats to, if any. */
+  private static Optional<String> statsPath(ProcessingEnvironment processingEnv) {
+    String path = processingEnv.getOptions().get(STATS_KEY);
+    return path == null || path.isEmpty() ? Optional.<String>absent() : Optional.of(path);
+  }
+
   private static ValidationType scopeValidationType(ProcessingEnvironment processingEnv) {
     return valueOf(processingEnv,
         DISABLE_INTER_COMPONENT_SCOPE_VALIDATION_KEY,
@@ -248,6 +322,34 @@ public final class ComponentProcessor extends BasicAnnotationProcessor {
         EnumSet.allOf(ValidationType.class));
   }
 
+  private static FeatureStatus lazyInitialization(ProcessingEnvironment processingEnv) {
+    return valueOf(processingEnv,
+        LAZY_INITIALIZATION_KEY,
+        FeatureStatus.DISABLED,
+        EnumSet.allOf(FeatureStatus.class));
+  }
+
+  private static FeatureStatus directInstanceBindings(ProcessingEnvironment processingEnv) {
+    return valueOf(processingEnv,
+        DIRECT_INSTANCE_BINDINGS_KEY,
+        FeatureStatus.DISABLED,
+        EnumSet.allOf(FeatureStatus.class));
+  }
+
+  private static FeatureStatus lazyMapValues(ProcessingEnvironment processingEnv) {
+    return valueOf(processingEnv,
+        LAZY_MAP_VALUES_KEY,
+        FeatureStatus.DISABLED,
+        EnumSet.allOf(FeatureStatus.class));
+  }
+
+  private static FeatureStatus parallelGeneration(ProcessingEnvironment processingEnv) {
+    return valueOf(processingEnv,
+        PARALLEL_GENERATION_KEY,
+        FeatureStatus.DISABLED,
+        EnumSet.allOf(FeatureStatus.class));
+  }
+
   private static ValidationType nullableValidationType(ProcessingEnvironment processingEnv) {
     return valueOf(processingEnv,
         NULLABLE_VALIDATION_KEY,
@@ -27,6 +27,7 @@ import com.google.common.collect.Multimap;
 import com.google.common.collect.Sets;
 import dagger.Component;
 import dagger.Module;
+import dagger.Reusable;
 import dagger.Subcomponent;
 import java.lang.annotation.Annotation;
 import java.util.Collection;
@@ -50,6 +51,7 @@ import static com.google.auto.common.MoreElements.getAnnotationMirror;
 import static dagger.internal.codegen.ConfigurationAnnotations.enclosedBuilders;
 import static dagger.internal.codegen.ConfigurationAnnotations.getComponentModules;
 import static dagger.internal.codegen.ConfigurationAnnotations.getTransitiveModules;
+import static dagger.internal.codegen.InjectionAnnotations.getScopes;
 import static javax.lang.model.element.ElementKind.CLASS;
 import static javax.lang.model.element.ElementKind.INTERFACE;
 import static javax.lang.model.element.Modifier.ABSTRACT;
@@ -147,6 +149,12 @@ final class ComponentValidator {
           subject);
     }
 
+    for (AnnotationMirror scope : getScopes(subject)) {
+      if (MoreTypes.isTypeOf(Reusable.class, scope.getAnnotationType())) {
+        builder.addError(ErrorMessages.REUSABLE_ON_COMPONENT, subject, scope);
+      }
+    }
+
     DeclaredType subjectType = MoreTypes.asDeclared(subject.asType());
 
     // TODO(gak): This should use Util.findLocalAndInheritedMethods, otherwise
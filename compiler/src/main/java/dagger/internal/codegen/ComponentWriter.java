@@ -42,9 +42,10 @@ class ComponentWriter extends AbstractComponentWriter {
       Elements elements,
       Key.Factory keyFactory,
       Kind nullableValidationType,
+      CompilerOptions compilerOptions,
       ClassName name,
       BindingGraph graph) {
-    super(types, elements, keyFactory, nullableValidationType, name, graph);
+    super(types, elements, keyFactory, nullableValidationType, compilerOptions, name, graph);
   }
 
   @Override
@@ -93,6 +93,14 @@ final class ConfigurationAnnotations {
     return convertClassArrayToListOfTypes(moduleAnnotation, INJECTS_ATTRIBUTE);
   }
 
+  private static final String EXECUTOR_ATTRIBUTE = "executor";
+
+  /** Returns the executor type named by a {@code Produces} annotation. */
+  static TypeMirror getProducesExecutor(AnnotationMirror producesAnnotation) {
+    checkNotNull(producesAnnotation);
+    return TO_TYPE.visit(getAnnotationValue(producesAnnotation, EXECUTOR_ATTRIBUTE));
+  }
+
   /** Returns the first type that specifies this' nullability, or absent if none. */
   static Optional<DeclaredType> getNullableType(Element element) {
     List<? extends AnnotationMirror> mirrors = element.getAnnotationMirrors();
@@ -57,6 +57,8 @@ final class ErrorMessages {
 
   /* scope */
   static final String MULTIPLE_SCOPES = "A single binding may not declare more than one @Scope.";
+  static final String REUSABLE_ON_COMPONENT =
+      "@Reusable cannot be applied to components or subcomponents.";
 
   /*
    * Dagger errors
@@ -119,6 +121,15 @@ final class ErrorMessages {
   static final String PRODUCES_METHOD_RAW_FUTURE =
       "@Produces methods cannot return a raw ListenableFuture.";
 
+  static final String PRODUCES_METHOD_DIRECT_EXECUTOR =
+      "@Produces methods with DIRECT execution cannot name an executor.";
+
+  static final String PRODUCES_METHOD_CONCRETE_EXECUTOR =
+      "@Produces methods may only name an interface or abstract class as their executor.";
+
+  static final String PRODUCES_METHOD_NEGATIVE_TIMEOUT =
+      "@Produces methods cannot have a negative timeout.";
+
   static final String BINDING_METHOD_SET_VALUES_RAW_SET =
       "@%s methods of type set values cannot return a raw Set";
 
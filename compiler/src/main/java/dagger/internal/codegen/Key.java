@@ -146,6 +146,42 @@ abstract class Key {
     }, null);
   }
 
+  /**
+   * The hash of the wrapped type and qualifier, or {@code 0} if it hasn't been computed yet. Keys
+   * are used as map keys throughout the graph code, and hashing the wrappers walks the structure
+   * of the type and qualifier each time, so it is computed once. Like {@link String#hashCode()},
+   * a race only causes the hash to be computed more than once.
+   */
+  private int hashCode;
+
+  @Override
+  public int hashCode() {
+    int result = hashCode;
+    if (result == 0) {
+      result = 31 * wrappedQualifier().hashCode() + wrappedType().hashCode();
+      hashCode = result;
+    }
+    return result;
+  }
+
+  /**
+   * Keys are equal if their types and qualifiers are equivalent. Keys whose cached hashes differ
+   * are unequal without comparing either structurally.
+   */
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    } else if (obj instanceof Key) {
+      Key that = (Key) obj;
+      return this.hashCode() == that.hashCode()
+          && this.wrappedType().equals(that.wrappedType())
+          && this.wrappedQualifier().equals(that.wrappedQualifier());
+    } else {
+      return false;
+    }
+  }
+
   @Override
   public String toString() {
     return MoreObjects.toStringHelper(Key.class)
@@ -90,8 +90,8 @@ final class MapKeyGenerator extends SourceFileGenerator<MapKeyCreatorSpecificati
     }
   }
 
-  MapKeyGenerator(Filer filer) {
-    super(filer);
+  MapKeyGenerator(Filer filer, ProcessorStats stats) {
+    super(filer, stats);
   }
 
   @Override
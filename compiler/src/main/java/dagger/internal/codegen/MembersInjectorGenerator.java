@@ -80,8 +80,9 @@ final class MembersInjectorGenerator extends SourceFileGenerator<MembersInjectio
 
   MembersInjectorGenerator(
       Filer filer,
+      ProcessorStats stats,
       DependencyRequestMapper dependencyRequestMapper) {
-    super(filer);
+    super(filer, stats);
     this.dependencyRequestMapper = dependencyRequestMapper;
   }
 
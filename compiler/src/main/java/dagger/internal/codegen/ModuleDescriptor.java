@@ -5,11 +5,13 @@ import com.google.auto.value.AutoValue;
 import com.google.common.base.Function;
 import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
 import dagger.Module;
 import dagger.Provides;
 import dagger.producers.ProducerModule;
 import dagger.producers.Produces;
 import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.Set;
 import javax.lang.model.element.AnnotationMirror;
 import javax.lang.model.element.ExecutableElement;
@@ -55,6 +57,11 @@ abstract class ModuleDescriptor {
     private final Elements elements;
     private final ProvisionBinding.Factory provisionBindingFactory;
     private final ProductionBinding.Factory productionBindingFactory;
+    /**
+     * The descriptors created in this round, so that components that include the same module share
+     * one descriptor and its bindings.
+     */
+    private final Map<TypeElement, ModuleDescriptor> cache = Maps.newHashMap();
 
     Factory(
         Elements elements,
@@ -66,6 +73,23 @@ abstract class ModuleDescriptor {
     }
 
     ModuleDescriptor create(TypeElement moduleElement) {
+      ModuleDescriptor moduleDescriptor = cache.get(moduleElement);
+      if (moduleDescriptor == null) {
+        moduleDescriptor = createUncached(moduleElement);
+        cache.put(moduleElement, moduleDescriptor);
+      }
+      return moduleDescriptor;
+    }
+
+    /**
+     * Clears the descriptors created so far. This is called at the end of each round, since modules
+     * that refer to types that hadn't been generated yet may resolve differently in the next one.
+     */
+    void clearCache() {
+      cache.clear();
+    }
+
+    private ModuleDescriptor createUncached(TypeElement moduleElement) {
       AnnotationMirror moduleAnnotation = getModuleAnnotation(moduleElement).get();
 
       ImmutableSet.Builder<ContributionBinding> bindings = ImmutableSet.builder();
@@ -46,8 +46,8 @@ final class MonitoringModuleGenerator extends SourceFileGenerator<TypeElement> {
       ParameterizedTypeName.create(
           Set.class, ClassName.fromClass(ProductionComponentMonitor.Factory.class));
 
-  MonitoringModuleGenerator(Filer filer) {
-    super(filer);
+  MonitoringModuleGenerator(Filer filer, ProcessorStats stats) {
+    super(filer, stats);
   }
 
   @Override
@@ -0,0 +1,246 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.internal.codegen;
+
+import com.google.auto.common.BasicAnnotationProcessor.ProcessingStep;
+import com.google.common.base.Ticker;
+import com.google.common.collect.SetMultimap;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.annotation.Annotation;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import javax.lang.model.element.Element;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Records the wall time and allocation of each phase of the {@link ComponentProcessor}, along with
+ * counts of what it processed, and writes them as a JSON report. Phases that run inside other
+ * phases are included in the times of the outer phases as well as their own.
+ *
+ * <p>Recording is only enabled by the {@code -Adagger.stats=<path>} option; otherwise all of the
+ * methods do nothing.
+ */
+final class ProcessorStats {
+  private static final ProcessorStats DISABLED = new ProcessorStats(null);
+
+  static final String BINDINGS = "bindings";
+  static final String KEYS = "keys";
+  static final String SUBGRAPHS = "subgraphs";
+  static final String GENERATED_FILES = "generatedFiles";
+
+  /** Returns stats that record nothing. */
+  static ProcessorStats disabled() {
+    return DISABLED;
+  }
+
+  /** Returns stats that record everything, to be written with {@link #writeTo}. */
+  static ProcessorStats enabled() {
+    return enabled(Ticker.systemTicker());
+  }
+
+  /** Returns stats that record everything, timing phases with the given ticker. */
+  static ProcessorStats enabled(Ticker ticker) {
+    return new ProcessorStats(checkNotNull(ticker));
+  }
+
+  /** Times one run of a phase. */
+  interface Timer {
+    /** Records the time and allocation since the timer was started. */
+    void stop();
+  }
+
+  private static final Timer NO_OP_TIMER =
+      new Timer() {
+        @Override
+        public void stop() {}
+      };
+
+  private final Ticker ticker;
+  private final Map<String, Phase> phases = new LinkedHashMap<>();
+  private final Map<String, Long> counters = new LinkedHashMap<>();
+
+  private ProcessorStats(Ticker ticker) {
+    this.ticker = ticker;
+  }
+
+  boolean isEnabled() {
+    return ticker != null;
+  }
+
+  /** Starts timing a run of the named phase. */
+  Timer start(String phaseName) {
+    if (!isEnabled()) {
+      return NO_OP_TIMER;
+    }
+    Phase phase = phases.get(phaseName);
+    if (phase == null) {
+      phase = new Phase();
+      phases.put(phaseName, phase);
+    }
+    return new PhaseTimer(phase, ticker.read(), allocatedBytes());
+  }
+
+  /** Adds {@code delta} to the named counter. */
+  void count(String counterName, long delta) {
+    if (isEnabled()) {
+      Long count = counters.get(counterName);
+      counters.put(counterName, (count == null ? 0L : count) + delta);
+    }
+  }
+
+  /** Counts the keys, bindings and subgraphs of a graph and all of its subgraphs. */
+  void countGraph(BindingGraph graph) {
+    if (isEnabled()) {
+      count(KEYS, graph.resolvedBindings().size());
+      for (ResolvedBindings resolvedBindings : graph.resolvedBindings().values()) {
+        count(BINDINGS, resolvedBindings.ownedBindings().size());
+      }
+      count(SUBGRAPHS, graph.subgraphs().size());
+      for (BindingGraph subgraph : graph.subgraphs().values()) {
+        countGraph(subgraph);
+      }
+    }
+  }
+
+  /** Returns a step that records each of its calls to {@code process} as a phase. */
+  ProcessingStep timed(final ProcessingStep step) {
+    if (!isEnabled()) {
+      return step;
+    }
+    final String phaseName = step.getClass().getSimpleName() + ".process";
+    return new ProcessingStep() {
+      @Override
+      public Set<? extends Class<? extends Annotation>> annotations() {
+        return step.annotations();
+      }
+
+      @Override
+      public Set<Element> process(
+          SetMultimap<Class<? extends Annotation>, Element> elementsByAnnotation) {
+        Timer timer = start(phaseName);
+        try {
+          return step.process(elementsByAnnotation);
+        } finally {
+          timer.stop();
+        }
+      }
+    };
+  }
+
+  /** Writes the report, replacing any that was written before. */
+  void writeTo(String path) throws IOException {
+    checkNotNull(path);
+    if (!isEnabled()) {
+      return;
+    }
+    try (Writer writer = Files.newBufferedWriter(Paths.get(path), StandardCharsets.UTF_8)) {
+      writer.write(toJson());
+    }
+  }
+
+  String toJson() {
+    StringBuilder json = new StringBuilder("{\n  \"phases\": {");
+    String separator = "\n";
+    for (Map.Entry<String, Phase> phase : phases.entrySet()) {
+      json.append(separator)
+          .append("    ")
+          .append(quote(phase.getKey()))
+          .append(": {\"count\": ")
+          .append(phase.getValue().count)
+          .append(", \"wallNanos\": ")
+          .append(phase.getValue().wallNanos)
+          .append(", \"allocatedBytes\": ")
+          .append(phase.getValue().allocatedBytes)
+          .append('}');
+      separator = ",\n";
+    }
+    json.append(phases.isEmpty() ? "},\n" : "\n  },\n").append("  \"counters\": {");
+    separator = "\n";
+    for (Map.Entry<String, Long> counter : counters.entrySet()) {
+      json.append(separator)
+          .append("    ")
+          .append(quote(counter.getKey()))
+          .append(": ")
+          .append(counter.getValue());
+      separator = ",\n";
+    }
+    return json.append(counters.isEmpty() ? "}\n}\n" : "\n  }\n}\n").toString();
+  }
+
+  /** Phase and counter names are identifiers, so only quotes and backslashes need escaping. */
+  private static String quote(String string) {
+    return '"' + string.replace("\\", "\\\\").replace("\"", "\\\"") + '"';
+  }
+
+  /**
+   * Returns the number of bytes that the current thread has allocated, or {@code -1} if the JVM
+   * can't tell.
+   */
+  private static long allocatedBytes() {
+    ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+    try {
+      if (threadMXBean instanceof com.sun.management.ThreadMXBean) {
+        com.sun.management.ThreadMXBean allocationBean =
+            (com.sun.management.ThreadMXBean) threadMXBean;
+        if (allocationBean.isThreadAllocatedMemorySupported()
+            && allocationBean.isThreadAllocatedMemoryEnabled()) {
+          return allocationBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+      }
+    } catch (LinkageError e) {
+      // not a HotSpot JVM
+    }
+    return -1;
+  }
+
+  private static final class Phase {
+    long count;
+    long wallNanos;
+    /** The total bytes allocated, or {@code -1} if allocation can't be measured. */
+    long allocatedBytes;
+  }
+
+  private final class PhaseTimer implements Timer {
+    private final Phase phase;
+    private final long startNanos;
+    private final long startAllocatedBytes;
+
+    PhaseTimer(Phase phase, long startNanos, long startAllocatedBytes) {
+      this.phase = phase;
+      this.startNanos = startNanos;
+      this.startAllocatedBytes = startAllocatedBytes;
+    }
+
+    @Override
+    public void stop() {
+      phase.count++;
+      phase.wallNanos += ticker.read() - startNanos;
+      if (startAllocatedBytes < 0 || phase.allocatedBytes < 0) {
+        phase.allocatedBytes = -1;
+      } else {
+        phase.allocatedBytes += allocatedBytes() - startAllocatedBytes;
+      }
+    }
+  }
+}
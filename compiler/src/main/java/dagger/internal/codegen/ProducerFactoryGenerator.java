@@ -28,6 +28,7 @@ import com.google.common.collect.Iterables;
 import com.google.common.util.concurrent.AsyncFunction;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
 import dagger.Provides.Type;
 import dagger.internal.codegen.writer.ClassName;
 import dagger.internal.codegen.writer.ClassWriter;
@@ -39,6 +40,7 @@ import dagger.internal.codegen.writer.ParameterizedTypeName;
 import dagger.internal.codegen.writer.Snippet;
 import dagger.internal.codegen.writer.TypeName;
 import dagger.internal.codegen.writer.TypeNames;
+import dagger.producers.Deadline;
 import dagger.producers.Produced;
 import dagger.producers.Producer;
 import dagger.producers.Produces;
@@ -47,6 +49,7 @@ import dagger.producers.internal.Producers;
 import dagger.producers.monitoring.ProducerMonitor;
 import dagger.producers.monitoring.ProducerToken;
 import java.util.List;
+import java.util.concurrent.Callable;
 import java.util.concurrent.Executor;
 import javax.annotation.Generated;
 import javax.annotation.processing.Filer;
@@ -71,8 +74,9 @@ import static javax.lang.model.element.Modifier.STATIC;
 final class ProducerFactoryGenerator extends SourceFileGenerator<ProductionBinding> {
   private final DependencyRequestMapper dependencyRequestMapper;
 
-  ProducerFactoryGenerator(Filer filer, DependencyRequestMapper dependencyRequestMapper) {
-    super(filer);
+  ProducerFactoryGenerator(
+      Filer filer, ProcessorStats stats, DependencyRequestMapper dependencyRequestMapper) {
+    super(filer, stats);
     this.dependencyRequestMapper = dependencyRequestMapper;
   }
 
@@ -109,13 +113,27 @@ final class ProducerFactoryGenerator extends SourceFileGenerator<ProductionBindi
         SourceFiles.generateBindingFieldsForDependencies(
             dependencyRequestMapper, binding.implicitDependencies());
 
-    constructorWriter
-        .body()
-        .addSnippet(
-            "super(%s, %s.create(%s.class));",
-            fields.get(binding.monitorRequest().get().bindingKey()).name(),
-            ClassName.fromClass(ProducerToken.class),
-            factoryWriter.name());
+    // one token per producer method rather than per instance, since components may be short-lived
+    FieldWriter tokenField = factoryWriter.addField(ProducerToken.class, "TOKEN");
+    tokenField.addModifiers(PRIVATE, STATIC, FINAL);
+    tokenField.setInitializer(
+        "%s.create(%s.class)", ClassName.fromClass(ProducerToken.class), factoryWriter.name());
+    Snippet tokenSnippet = Snippet.format("%s", tokenField.name());
+    String monitorProviderName = fields.get(binding.monitorRequest().get().bindingKey()).name();
+    boolean hasTimeout = binding.timeoutMillis() > 0;
+    if (hasTimeout) {
+      constructorWriter
+          .body()
+          .addSnippet(
+              "super(%s, %s, deadline, %sL);",
+              monitorProviderName,
+              tokenSnippet,
+              binding.timeoutMillis());
+    } else {
+      constructorWriter
+          .body()
+          .addSnippet("super(%s, %s);", monitorProviderName, tokenSnippet);
+    }
 
     if (!binding.bindingElement().getModifiers().contains(STATIC)) {
       factoryWriter.addField(binding.bindingTypeElement(), "module")
@@ -133,6 +151,11 @@ final class ProducerFactoryGenerator extends SourceFileGenerator<ProductionBindi
         .addSnippet("assert executor != null;")
         .addSnippet("this.executor = executor;");
 
+    if (hasTimeout) {
+      // only passed to the superclass, which applies the timeout to the computed future
+      constructorWriter.addParameter(Deadline.class, "deadline");
+    }
+
     factoryWriter.annotate(Generated.class).setValue(ComponentProcessor.class.getName());
     factoryWriter.addModifiers(PUBLIC);
     factoryWriter.addModifiers(FINAL);
@@ -187,34 +210,71 @@ final class ProducerFactoryGenerator extends SourceFileGenerator<ProductionBindi
                   : futureAccess);
     }
 
-    FutureTransform futureTransform = FutureTransform.create(fields, binding, asyncDependencies);
-    Snippet transformSnippet =
-        Snippet.format(
-            Joiner.on('\n')
-                .join(
-                    "new %1$s<%2$s, %3$s>() {",
-                    "  %4$s",
-                    "  @Override public %5$s apply(%2$s %6$s) %7$s {",
-                    "    %8$s",
-                    "  }",
-                    "}"),
-            ClassName.fromClass(AsyncFunction.class),
-            futureTransform.applyArgType(),
-            providedTypeName,
-            futureTransform.hasUncheckedCast()
-                ? "@SuppressWarnings(\"unchecked\")  // safe by specification"
-                : "",
-            futureTypeName,
-            futureTransform.applyArgName(),
-            getThrowsClause(binding.thrownTypes()),
-            getInvocationSnippet(!returnsFuture, binding, futureTransform.parameterSnippets()));
-    computeMethodWriter
-        .body()
-        .addSnippet(
-            "return %s.transform(%s, %s, executor);",
-            ClassName.fromClass(Futures.class),
-            futureTransform.futureSnippet(),
-            transformSnippet);
+    if (asyncDependencies.isEmpty() && binding.execution().equals(Produces.Execution.DIRECT)) {
+      // Nothing to wait for, so call the method inline rather than transforming a dummy future.
+      computeMethodWriter
+          .body()
+          .addSnippet(
+              getDirectInvocationSnippet(
+                  !returnsFuture,
+                  binding,
+                  providedTypeName,
+                  new NoArgFutureTransform(fields, binding).parameterSnippets()));
+    } else if (asyncDependencies.isEmpty() && !returnsFuture) {
+      // Nothing to wait for, so hand the method invocation to the executor as the task.
+      ClassWriter callableWriter = addTaskClass(
+          factoryWriter,
+          "Invocation",
+          ParameterizedTypeName.create(ClassName.fromClass(Callable.class), providedTypeName));
+      computeMethodWriter
+          .body()
+          .addSnippet(
+              "return %s.submitToExecutor(new %s(monitor), executor);",
+              ClassName.fromClass(Producers.class),
+              callableWriter.name());
+
+      MethodWriter callMethodWriter = callableWriter.addMethod(providedTypeName, "call");
+      callMethodWriter.annotate(Override.class);
+      callMethodWriter.addModifiers(PUBLIC);
+      callMethodWriter.addThrownTypes(getThrownTypeNames(binding.thrownTypes()));
+      callMethodWriter
+          .body()
+          .addSnippet(
+              getInvocationSnippet(
+                  false, binding, new NoArgFutureTransform(fields, binding).parameterSnippets()));
+    } else {
+      FutureTransform futureTransform = FutureTransform.create(fields, binding, asyncDependencies);
+      ClassWriter transformWriter = addTaskClass(
+          factoryWriter,
+          "Transform",
+          ParameterizedTypeName.create(
+              ClassName.fromClass(AsyncFunction.class),
+              futureTransform.applyArgType(),
+              providedTypeName));
+      computeMethodWriter
+          .body()
+          .addSnippet(
+              "return %s.transform(%s, new %s(monitor), %s);",
+              ClassName.fromClass(Futures.class),
+              futureTransform.futureSnippet(),
+              transformWriter.name(),
+              binding.execution().equals(Produces.Execution.DIRECT)
+                  ? Snippet.format("%s.directExecutor()", ClassName.fromClass(MoreExecutors.class))
+                  : Snippet.format("executor"));
+
+      MethodWriter applyMethodWriter = transformWriter.addMethod(futureTypeName, "apply");
+      if (futureTransform.hasUncheckedCast()) {
+        applyMethodWriter.annotate(SuppressWarnings.class).setValue("unchecked");
+      }
+      applyMethodWriter.annotate(Override.class);
+      applyMethodWriter.addModifiers(PUBLIC);
+      applyMethodWriter.addParameter(futureTransform.applyArgType(), futureTransform.applyArgName());
+      applyMethodWriter.addThrownTypes(getThrownTypeNames(binding.thrownTypes()));
+      applyMethodWriter
+          .body()
+          .addSnippet(
+              getInvocationSnippet(!returnsFuture, binding, futureTransform.parameterSnippets()));
+    }
 
     // TODO(gak): write a sensible toString
     return ImmutableSet.of(writer);
@@ -358,9 +418,8 @@ final class ProducerFactoryGenerator extends SourceFileGenerator<ProductionBindi
     @Override
     Snippet futureSnippet() {
       return Snippet.format(
-          "%s.<%s>allAsList(%s)",
-          ClassName.fromClass(Futures.class),
-          ClassName.fromClass(Object.class),
+          "%s.allAsArray(%s)",
+          ClassName.fromClass(Producers.class),
           makeParametersSnippet(
               FluentIterable.from(asyncDependencies)
                   .transform(DependencyRequest.BINDING_KEY_FUNCTION)
@@ -375,8 +434,7 @@ final class ProducerFactoryGenerator extends SourceFileGenerator<ProductionBindi
 
     @Override
     TypeName applyArgType() {
-      return ParameterizedTypeName.create(
-          ClassName.fromClass(List.class), ClassName.fromClass(Object.class));
+      return TypeNames.forClass(Object[].class);
     }
 
     @Override
@@ -420,15 +478,15 @@ final class ProducerFactoryGenerator extends SourceFileGenerator<ProductionBindi
   private static ImmutableList<Snippet> getParameterSnippets(
       ProductionBinding binding,
       ImmutableMap<BindingKey, FrameworkField> fields,
-      String listArgName) {
+      String arrayArgName) {
     int argIndex = 0;
     ImmutableList.Builder<Snippet> snippets = ImmutableList.builder();
     for (DependencyRequest dependency : binding.dependencies()) {
       if (isAsyncDependency(dependency)) {
         snippets.add(Snippet.format(
-            "(%s) %s.get(%s)",
+            "(%s) %s[%s]",
             asyncDependencyType(dependency),
-            listArgName,
+            arrayArgName,
             argIndex));
         argIndex++;
       } else {
@@ -450,6 +508,31 @@ final class ProducerFactoryGenerator extends SourceFileGenerator<ProductionBindi
    */
   private Snippet getInvocationSnippet(
       boolean wrapWithFuture, ProductionBinding binding, ImmutableList<Snippet> parameterSnippets) {
+    // NOTE(beder): We don't worry about catching exeptions from the monitor methods themselves
+    // because we'll wrap all monitoring in non-throwing monitors before we pass them to the
+    // factories.
+    return Snippet.format(
+        Joiner.on('\n')
+            .join(
+                "monitor.methodStarting();",
+                "try {",
+                "  return %s;",
+                "} finally {",
+                "  monitor.methodFinished();",
+                "}"),
+        getReturnSnippet(wrapWithFuture, binding, parameterSnippets));
+  }
+
+  /**
+   * Creates a snippet for the value returned by an invocation of the producer method.
+   *
+   * @param wrapWithFuture If true, wraps the result of the call to the producer method
+   *        in an immediate future.
+   * @param binding The binding to generate the invocation snippet for.
+   * @param parameterSnippets The snippets for all the parameters to the producer method.
+   */
+  private Snippet getReturnSnippet(
+      boolean wrapWithFuture, ProductionBinding binding, ImmutableList<Snippet> parameterSnippets) {
      Snippet moduleSnippet = Snippet.format("%s.%s(%s)",
         binding.bindingElement().getModifiers().contains(STATIC)
             ? ClassName.fromTypeElement(binding.bindingTypeElement())
@@ -457,12 +540,6 @@ final class ProducerFactoryGenerator extends SourceFileGenerator<ProductionBindi
         binding.bindingElement().getSimpleName(),
         makeParametersSnippet(parameterSnippets));
 
-    // NOTE(beder): We don't worry about catching exeptions from the monitor methods themselves
-    // because we'll wrap all monitoring in non-throwing monitors before we pass them to the
-    // factories.
-    ImmutableList.Builder<Snippet> snippets = ImmutableList.builder();
-    snippets.add(Snippet.format("monitor.methodStarting();"));
-
     final Snippet valueSnippet;
     if (binding.productionType().equals(Produces.Type.SET)) {
       if (binding.bindingKind().equals(ContributionBinding.Kind.FUTURE_PRODUCTION)) {
@@ -478,43 +555,71 @@ final class ProducerFactoryGenerator extends SourceFileGenerator<ProductionBindi
     } else {
       valueSnippet = moduleSnippet;
     }
-    Snippet returnSnippet =
-        wrapWithFuture
-            ? Snippet.format(
-                "%s.<%s>immediateFuture(%s)",
-                ClassName.fromClass(Futures.class),
-                TypeNames.forTypeMirror(binding.key().type()),
-                valueSnippet)
-            : valueSnippet;
+    return wrapWithFuture
+        ? Snippet.format(
+            "%s.<%s>immediateFuture(%s)",
+            ClassName.fromClass(Futures.class),
+            TypeNames.forTypeMirror(binding.key().type()),
+            valueSnippet)
+        : valueSnippet;
+  }
+
+  /**
+   * Creates a snippet that invokes the producer method on the calling thread and returns its
+   * result as a future. Exceptions thrown by the method are returned as a failed future, just as
+   * they would be by a transform.
+   *
+   * @param wrapWithFuture If true, wraps the result of the call to the producer method
+   *        in an immediate future.
+   * @param binding The binding to generate the invocation snippet for.
+   * @param providedTypeName The type of the value provided by the returned future.
+   * @param parameterSnippets The snippets for all the parameters to the producer method.
+   */
+  private Snippet getDirectInvocationSnippet(
+      boolean wrapWithFuture,
+      ProductionBinding binding,
+      TypeName providedTypeName,
+      ImmutableList<Snippet> parameterSnippets) {
     return Snippet.format(
         Joiner.on('\n')
             .join(
                 "monitor.methodStarting();",
                 "try {",
                 "  return %s;",
+                "} catch (%s t) {",
+                "  return %s.<%s>immediateFailedFuture(t);",
                 "} finally {",
                 "  monitor.methodFinished();",
                 "}"),
-        returnSnippet);
+        getReturnSnippet(wrapWithFuture, binding, parameterSnippets),
+        ClassName.fromClass(Throwable.class),
+        ClassName.fromClass(Futures.class),
+        providedTypeName);
   }
 
   /**
-   * Creates a Snippet for the throws clause.
-   *
-   * @param thrownTypes the list of thrown types.
+   * Adds a private inner class that runs the producer method for one computation. It reads the
+   * module and dependencies from the producer, and the monitor passed to {@code compute} from its
+   * own final field, so the monitor is safely published to whichever thread runs it.
    */
-  private Snippet getThrowsClause(List<? extends TypeMirror> thrownTypes) {
-    if (thrownTypes.isEmpty()) {
-      return Snippet.format("");
+  private static ClassWriter addTaskClass(
+      ClassWriter factoryWriter, String name, TypeName implementedType) {
+    ClassWriter taskWriter = factoryWriter.addNestedClass(name);
+    taskWriter.addModifiers(PRIVATE, FINAL);
+    taskWriter.addImplementedType(implementedType);
+    taskWriter.addField(ProducerMonitor.class, "monitor").addModifiers(PRIVATE, FINAL);
+    ConstructorWriter constructorWriter = taskWriter.addConstructor();
+    constructorWriter.addParameter(ProducerMonitor.class, "monitor");
+    constructorWriter.body().addSnippet("this.monitor = monitor;");
+    return taskWriter;
+  }
+
+  private static ImmutableList<TypeName> getThrownTypeNames(
+      List<? extends TypeMirror> thrownTypes) {
+    ImmutableList.Builder<TypeName> thrownTypeNames = ImmutableList.builder();
+    for (TypeMirror thrownType : thrownTypes) {
+      thrownTypeNames.add(TypeNames.forTypeMirror(thrownType));
     }
-    return Snippet.format("throws %s ",
-        Snippet.makeParametersSnippet(FluentIterable
-            .from(thrownTypes)
-            .transform(new Function<TypeMirror, Snippet>() {
-              @Override public Snippet apply(TypeMirror thrownType) {
-                return Snippet.format("%s", TypeNames.forTypeMirror(thrownType));
-              }
-            })
-            .toList()));
+    return thrownTypeNames.build();
   }
 }
@@ -22,6 +22,7 @@ import com.google.common.util.concurrent.ListenableFuture;
 import dagger.producers.ProducerModule;
 import dagger.producers.Produces;
 import java.util.Set;
+import java.util.concurrent.Executor;
 import javax.lang.model.element.AnnotationMirror;
 import javax.lang.model.element.Element;
 import javax.lang.model.element.ExecutableElement;
@@ -32,9 +33,11 @@ import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeMirror;
 import javax.lang.model.util.Elements;
 
+import static com.google.auto.common.MoreElements.getAnnotationMirror;
 import static com.google.auto.common.MoreElements.isAnnotationPresent;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
+import static dagger.internal.codegen.ConfigurationAnnotations.getProducesExecutor;
 import static dagger.internal.codegen.ErrorMessages.BINDING_METHOD_ABSTRACT;
 import static dagger.internal.codegen.ErrorMessages.BINDING_METHOD_MUST_RETURN_A_VALUE;
 import static dagger.internal.codegen.ErrorMessages.BINDING_METHOD_NOT_IN_MODULE;
@@ -44,10 +47,14 @@ import static dagger.internal.codegen.ErrorMessages.BINDING_METHOD_SET_VALUES_RA
 import static dagger.internal.codegen.ErrorMessages.BINDING_METHOD_TYPE_PARAMETER;
 import static dagger.internal.codegen.ErrorMessages.BINDING_METHOD_WITH_MULTIPLE_MAP_KEY;
 import static dagger.internal.codegen.ErrorMessages.BINDING_METHOD_WITH_NO_MAP_KEY;
+import static dagger.internal.codegen.ErrorMessages.PRODUCES_METHOD_CONCRETE_EXECUTOR;
+import static dagger.internal.codegen.ErrorMessages.PRODUCES_METHOD_DIRECT_EXECUTOR;
+import static dagger.internal.codegen.ErrorMessages.PRODUCES_METHOD_NEGATIVE_TIMEOUT;
 import static dagger.internal.codegen.ErrorMessages.PRODUCES_METHOD_RAW_FUTURE;
 import static dagger.internal.codegen.ErrorMessages.PRODUCES_METHOD_RETURN_TYPE;
 import static dagger.internal.codegen.ErrorMessages.PRODUCES_METHOD_SET_VALUES_RETURN_SET;
 import static dagger.internal.codegen.MapKeys.getMapKeys;
+import static javax.lang.model.element.ElementKind.INTERFACE;
 import static javax.lang.model.element.Modifier.ABSTRACT;
 import static javax.lang.model.element.Modifier.PRIVATE;
 import static javax.lang.model.type.TypeKind.ARRAY;
@@ -112,6 +119,24 @@ final class ProducesMethodValidator {
           formatErrorMessage(BINDING_METHOD_NOT_MAP_HAS_MAP_KEY), producesMethodElement);
     }
 
+    TypeMirror executorType =
+        getProducesExecutor(getAnnotationMirror(producesMethodElement, Produces.class).get());
+    if (!MoreTypes.isTypeOf(Executor.class, executorType)) {
+      if (producesAnnotation.execution().equals(Produces.Execution.DIRECT)) {
+        builder.addError(PRODUCES_METHOD_DIRECT_EXECUTOR, producesMethodElement);
+      }
+      // A concrete executor type could be silently instantiated by the component's builder.
+      TypeElement executorElement = MoreTypes.asTypeElement(executorType);
+      if (!executorElement.getKind().equals(INTERFACE)
+          && !executorElement.getModifiers().contains(ABSTRACT)) {
+        builder.addError(PRODUCES_METHOD_CONCRETE_EXECUTOR, producesMethodElement);
+      }
+    }
+
+    if (producesAnnotation.timeoutMillis() < 0) {
+      builder.addError(PRODUCES_METHOD_NEGATIVE_TIMEOUT, producesMethodElement);
+    }
+
     ProvidesMethodValidator.validateMethodQualifiers(builder, producesMethodElement);
 
     switch (producesAnnotation.type()) {
@@ -25,6 +25,7 @@ import com.google.common.util.concurrent.ListenableFuture;
 import dagger.Provides;
 import dagger.producers.Produces;
 import java.util.Set;
+import java.util.concurrent.Executor;
 import javax.lang.model.element.ExecutableElement;
 import javax.lang.model.element.TypeElement;
 import javax.lang.model.type.DeclaredType;
@@ -33,8 +34,10 @@ import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeMirror;
 import javax.lang.model.util.Types;
 
+import static com.google.auto.common.MoreElements.getAnnotationMirror;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
+import static dagger.internal.codegen.ConfigurationAnnotations.getProducesExecutor;
 import static javax.lang.model.element.ElementKind.METHOD;
 
 /**
@@ -70,6 +73,18 @@ abstract class ProductionBinding extends ContributionBinding {
   /** Returns provision type that was used to bind the key. */
   abstract Produces.Type productionType();
 
+  /** Returns how the method is run once its inputs are available. */
+  abstract Produces.Execution execution();
+
+  /**
+   * The subtype of {@link Executor} on which the method runs, or absent if it runs on the
+   * component's executor.
+   */
+  abstract Optional<TypeElement> executorType();
+
+  /** The number of milliseconds that the method may take, or zero for no limit. */
+  abstract long timeoutMillis();
+
   /** Returns the list of types in the throws clause of the method. */
   abstract ImmutableList<? extends TypeMirror> thrownTypes();
 
@@ -121,6 +136,8 @@ abstract class ProductionBinding extends ContributionBinding {
               resolvedMethod.getParameterTypes());
       DependencyRequest monitorRequest =
           dependencyRequestFactory.forProductionComponentMonitorProvider();
+      TypeMirror executorType =
+          getProducesExecutor(getAnnotationMirror(producesMethod, Produces.class).get());
       Kind kind = MoreTypes.isTypeOf(ListenableFuture.class, producesMethod.getReturnType())
           ? Kind.FUTURE_PRODUCTION
           : Kind.IMMEDIATE;
@@ -135,6 +152,11 @@ abstract class ProductionBinding extends ContributionBinding {
           Optional.<DependencyRequest>absent(),
           kind,
           producesAnnotation.type(),
+          producesAnnotation.execution(),
+          MoreTypes.isTypeOf(Executor.class, executorType)
+              ? Optional.<TypeElement>absent()
+              : Optional.of(MoreTypes.asTypeElement(executorType)),
+          producesAnnotation.timeoutMillis(),
           ImmutableList.copyOf(producesMethod.getThrownTypes()),
           Optional.of(monitorRequest));
     }
@@ -159,6 +181,9 @@ abstract class ProductionBinding extends ContributionBinding {
           Optional.<DependencyRequest>absent(),
           Kind.SYNTHETIC,
           Produces.Type.MAP,
+          Produces.Execution.EXECUTOR,
+          Optional.<TypeElement>absent(),
+          0L,
           ImmutableList.<TypeMirror>of(),
           Optional.<DependencyRequest>absent());
     }
@@ -179,6 +204,9 @@ abstract class ProductionBinding extends ContributionBinding {
           Optional.<DependencyRequest>absent(),
           Kind.COMPONENT_PRODUCTION,
           Produces.Type.UNIQUE,
+          Produces.Execution.EXECUTOR,
+          Optional.<TypeElement>absent(),
+          0L,
           ImmutableList.copyOf(componentMethod.getThrownTypes()),
           Optional.<DependencyRequest>absent());
     }
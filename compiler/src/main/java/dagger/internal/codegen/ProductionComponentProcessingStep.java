@@ -47,7 +47,9 @@ final class ProductionComponentProcessingStep extends AbstractComponentProcessin
       BindingGraphValidator bindingGraphValidator,
       ComponentDescriptor.Factory componentDescriptorFactory,
       BindingGraph.Factory bindingGraphFactory,
-      ComponentGenerator componentGenerator) {
+      ComponentGenerator componentGenerator,
+      ProcessorStats stats,
+      FeatureStatus parallelGeneration) {
     super(
         ProductionComponent.class,
         messager,
@@ -55,7 +57,9 @@ final class ProductionComponentProcessingStep extends AbstractComponentProcessin
         bindingGraphValidator,
         componentDescriptorFactory,
         bindingGraphFactory,
-        componentGenerator);
+        componentGenerator,
+        stats,
+        parallelGeneration);
     this.messager = messager;
     this.componentValidator = componentValidator;
     this.componentBuilderValidator = componentBuilderValidator;
@@ -19,6 +19,7 @@ import com.google.auto.common.AnnotationMirrors;
 import com.google.auto.common.MoreTypes;
 import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
+import dagger.Reusable;
 import javax.annotation.Nullable;
 import javax.inject.Singleton;
 import javax.lang.model.element.AnnotationMirror;
@@ -85,6 +86,14 @@ final class Scope {
         && isTypeOf(Singleton.class, annotationMirror.getAnnotationType());
   }
 
+  /**
+   * Returns true if the scope represents the {@link Reusable @Reusable} annotation.
+   */
+  public boolean isReusable() {
+    return annotationMirror != null
+        && isTypeOf(Reusable.class, annotationMirror.getAnnotationType());
+  }
+
   /**
    * Returns the readable source representation (name with @ prefix) of the annotation type.
    *
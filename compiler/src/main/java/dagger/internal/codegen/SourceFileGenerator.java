@@ -25,10 +25,15 @@ import dagger.internal.codegen.writer.ClassName;
 import dagger.internal.codegen.writer.JavaWriter;
 import dagger.internal.codegen.writer.TypeWriter;
 import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import javax.annotation.processing.Filer;
 import javax.lang.model.element.Element;
 
 import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.util.concurrent.Uninterruptibles.getUninterruptibly;
 
 /**
  * A template class that provides a framework for properly handling IO while generating source files
@@ -41,12 +46,23 @@ import static com.google.common.base.Preconditions.checkNotNull;
  */
 abstract class SourceFileGenerator<T> {
   private final Filer filer;
+  private final ProcessorStats stats;
 
-  SourceFileGenerator(Filer filer) {
+  SourceFileGenerator(Filer filer, ProcessorStats stats) {
     this.filer = checkNotNull(filer);
+    this.stats = checkNotNull(stats);
   }
 
   final void generate(T input) throws SourceFileGenerationException {
+    ProcessorStats.Timer timer = stats.start(getClass().getSimpleName() + ".generate");
+    try {
+      doGenerate(input);
+    } finally {
+      timer.stop();
+    }
+  }
+
+  private void doGenerate(T input) throws SourceFileGenerationException {
     ClassName generatedTypeName = nameGeneratedType(input);
     ImmutableSet<Element> originatingElements =
         ImmutableSet.<Element>copyOf(getOriginatingElements(input));
@@ -55,6 +71,7 @@ abstract class SourceFileGenerator<T> {
       for (JavaWriter javaWriter : writers) {
         try {
           javaWriter.file(filer, originatingElements);
+          stats.count(ProcessorStats.GENERATED_FILES, 1);
         } catch (IOException e) {
           throw new SourceFileGenerationException(getNamesForWriters(javaWriter.getTypeWriters()),
               e, getElementForErrorReporting(input));
@@ -69,6 +86,98 @@ abstract class SourceFileGenerator<T> {
     }
   }
 
+  /**
+   * Generates the source files for {@code input} like {@link #generate}, but formats them on
+   * {@code executor}. Only formatting happens there: the writers are built on the calling thread,
+   * and the files are written by {@link PendingSourceFiles#file()}, because neither the processing
+   * environment nor the {@link Filer} may be used from other threads.
+   */
+  final PendingSourceFiles generateAsync(T input, ExecutorService executor) {
+    ProcessorStats.Timer timer = stats.start(getClass().getSimpleName() + ".generate");
+    try {
+      ClassName generatedTypeName = nameGeneratedType(input);
+      ImmutableSet<Element> originatingElements =
+          ImmutableSet.<Element>copyOf(getOriginatingElements(input));
+      Optional<? extends Element> elementForErrorReporting = getElementForErrorReporting(input);
+      ImmutableList<JavaWriter> writers;
+      ImmutableList.Builder<Future<String>> formattedSources = ImmutableList.builder();
+      try {
+        writers = write(generatedTypeName, input).asList();
+        for (final JavaWriter javaWriter : writers) {
+          formattedSources.add(executor.submit(new Callable<String>() {
+            @Override public String call() {
+              return javaWriter.formattedSource();
+            }
+          }));
+        }
+      } catch (Exception e) {
+        return new PendingSourceFiles(originatingElements, elementForErrorReporting,
+            ImmutableList.<JavaWriter>of(), ImmutableList.<Future<String>>of(),
+            Optional.of(new SourceFileGenerationException(
+                ImmutableList.<ClassName>of(), e, elementForErrorReporting)));
+      }
+      return new PendingSourceFiles(originatingElements, elementForErrorReporting, writers,
+          formattedSources.build(), Optional.<SourceFileGenerationException>absent());
+    } finally {
+      timer.stop();
+    }
+  }
+
+  /** The source files for one input, which are being formatted but have not yet been written. */
+  final class PendingSourceFiles {
+    private final ImmutableSet<Element> originatingElements;
+    private final Optional<? extends Element> elementForErrorReporting;
+    private final ImmutableList<JavaWriter> writers;
+    private final ImmutableList<Future<String>> formattedSources;
+    private final Optional<SourceFileGenerationException> failure;
+
+    private PendingSourceFiles(
+        ImmutableSet<Element> originatingElements,
+        Optional<? extends Element> elementForErrorReporting,
+        ImmutableList<JavaWriter> writers,
+        ImmutableList<Future<String>> formattedSources,
+        Optional<SourceFileGenerationException> failure) {
+      this.originatingElements = originatingElements;
+      this.elementForErrorReporting = elementForErrorReporting;
+      this.writers = writers;
+      this.formattedSources = formattedSources;
+      this.failure = failure;
+    }
+
+    /**
+     * Waits for the files to be formatted and writes them. Must be called on the thread that
+     * created them.
+     */
+    void file() throws SourceFileGenerationException {
+      if (failure.isPresent()) {
+        throw failure.get();
+      }
+      ProcessorStats.Timer timer =
+          stats.start(SourceFileGenerator.this.getClass().getSimpleName() + ".file");
+      try {
+        for (int i = 0; i < writers.size(); i++) {
+          JavaWriter javaWriter = writers.get(i);
+          String formattedSource;
+          try {
+            formattedSource = getUninterruptibly(formattedSources.get(i));
+          } catch (ExecutionException e) {
+            throw new SourceFileGenerationException(ImmutableList.<ClassName>of(), e.getCause(),
+                elementForErrorReporting);
+          }
+          try {
+            javaWriter.fileFormattedSource(filer, formattedSource, originatingElements);
+            stats.count(ProcessorStats.GENERATED_FILES, 1);
+          } catch (IOException e) {
+            throw new SourceFileGenerationException(
+                getNamesForWriters(javaWriter.getTypeWriters()), e, elementForErrorReporting);
+          }
+        }
+      } finally {
+        timer.stop();
+      }
+    }
+  }
+
   private static Iterable<ClassName> getNamesForWriters(Iterable<TypeWriter> typeWriters) {
     return Iterables.transform(typeWriters, new Function<TypeWriter, ClassName>() {
       @Override public ClassName apply(TypeWriter input) {
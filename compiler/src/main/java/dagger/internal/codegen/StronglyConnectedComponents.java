@@ -0,0 +1,145 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.internal.codegen;
+
+import com.google.common.base.Function;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Partitions a directed graph into its strongly connected components using an iterative version of
+ * Tarjan's algorithm, so that deep graphs don't overflow the stack.
+ */
+final class StronglyConnectedComponents {
+  /**
+   * Returns the strongly connected components of the graph formed by {@code nodes} and the edges
+   * given by {@code successors}. Every component appears after all of the components that it can
+   * reach, so iterating the result visits dependencies before the nodes that depend on them.
+   *
+   * <p>Successors that are not in {@code nodes} are ignored.
+   */
+  static <N> ImmutableList<ImmutableSet<N>> compute(
+      Iterable<N> nodes, Function<? super N, ? extends Iterable<? extends N>> successors) {
+    return new Search<N>(ImmutableSet.copyOf(nodes), successors).run();
+  }
+
+  /**
+   * Returns {@code true} if {@code component} contains a cycle; that is, if it has more than one
+   * node or its only node is its own successor.
+   */
+  static <N> boolean isCyclic(
+      Set<N> component, Function<? super N, ? extends Iterable<? extends N>> successors) {
+    if (component.size() > 1) {
+      return true;
+    }
+    N node = component.iterator().next();
+    for (N successor : successors.apply(node)) {
+      if (successor.equals(node)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static final class Search<N> {
+    private final ImmutableSet<N> nodes;
+    private final Function<? super N, ? extends Iterable<? extends N>> successors;
+    private final Map<N, Integer> indices = new HashMap<>();
+    private final Map<N, Integer> lowLinks = new HashMap<>();
+    private final Deque<N> componentStack = new ArrayDeque<>();
+    private final Set<N> onComponentStack = new HashSet<>();
+    private final Deque<Frame<N>> callStack = new ArrayDeque<>();
+    private final ImmutableList.Builder<ImmutableSet<N>> components = ImmutableList.builder();
+
+    Search(ImmutableSet<N> nodes, Function<? super N, ? extends Iterable<? extends N>> successors) {
+      this.nodes = nodes;
+      this.successors = successors;
+    }
+
+    ImmutableList<ImmutableSet<N>> run() {
+      for (N root : nodes) {
+        if (indices.containsKey(root)) {
+          continue;
+        }
+        enter(root);
+        while (!callStack.isEmpty()) {
+          Frame<N> frame = callStack.peek();
+          if (frame.successors.hasNext()) {
+            N successor = frame.successors.next();
+            if (!nodes.contains(successor)) {
+              continue;
+            }
+            if (!indices.containsKey(successor)) {
+              enter(successor);
+            } else if (onComponentStack.contains(successor)) {
+              lowLinks.put(
+                  frame.node, Math.min(lowLinks.get(frame.node), indices.get(successor)));
+            }
+          } else {
+            callStack.pop();
+            if (lowLinks.get(frame.node).equals(indices.get(frame.node))) {
+              popComponent(frame.node);
+            }
+            if (!callStack.isEmpty()) {
+              N caller = callStack.peek().node;
+              lowLinks.put(caller, Math.min(lowLinks.get(caller), lowLinks.get(frame.node)));
+            }
+          }
+        }
+      }
+      return components.build();
+    }
+
+    private void enter(N node) {
+      int index = indices.size();
+      indices.put(node, index);
+      lowLinks.put(node, index);
+      componentStack.push(node);
+      onComponentStack.add(node);
+      callStack.push(new Frame<N>(node, successors.apply(node).iterator()));
+    }
+
+    private void popComponent(N root) {
+      ImmutableSet.Builder<N> component = ImmutableSet.builder();
+      N node;
+      do {
+        node = componentStack.pop();
+        onComponentStack.remove(node);
+        component.add(node);
+      } while (!node.equals(root));
+      components.add(component.build());
+    }
+  }
+
+  private static final class Frame<N> {
+    final N node;
+    final Iterator<? extends N> successors;
+
+    Frame(N node, Iterator<? extends N> successors) {
+      this.node = node;
+      this.successors = successors;
+    }
+  }
+
+  private StronglyConnectedComponents() {}
+}
@@ -61,6 +61,7 @@ class SubcomponentWriter extends AbstractComponentWriter {
         parent.elements,
         parent.keyFactory,
         parent.nullableValidationType,
+        parent.compilerOptions,
         parent.name.nestedClassNamed(subcomponentSimpleName(subgraph)),
         subgraph);
     this.parent = parent;
@@ -79,6 +80,11 @@ class SubcomponentWriter extends AbstractComponentWriter {
         : initializationState;
   }
 
+  @Override
+  protected boolean reserveMethodName(String methodName) {
+    return parent.reserveMethodName(methodName);
+  }
+
   @Override
   protected Optional<Snippet> getOrCreateComponentContributionFieldSnippet(
       TypeElement contributionType) {
@@ -92,6 +98,13 @@ class SubcomponentWriter extends AbstractComponentWriter {
     return memberSelect == null ? parent.getMemberSelect(key) : memberSelect;
   }
 
+  @Override
+  protected MemberSelect getDirectInstanceMethod(BindingKey bindingKey) {
+    return graph.resolvedBindings().get(bindingKey).ownedBindings().isEmpty()
+        ? parent.getDirectInstanceMethod(bindingKey)
+        : super.getDirectInstanceMethod(bindingKey);
+  }
+
   @Override
   protected Optional<MemberSelect> getMultibindingContributionSnippet(ContributionBinding binding) {
     return super.getMultibindingContributionSnippet(binding)
@@ -15,11 +15,15 @@
  */
 package dagger.internal.codegen.writer;
 
+import com.google.common.base.Joiner;
 import com.google.common.collect.FluentIterable;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import java.io.IOException;
+import java.util.List;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.SortedMap;
@@ -39,6 +43,10 @@ public final class AnnotationWriter implements Writable, HasClassReferences {
     setMember("value", value);
   }
 
+  public void setValue(String first, String second, String... rest) {
+    setMember("value", Lists.asList(first, second, rest));
+  }
+
   public void setMember(String name, int value) {
     memberMap.put(name, toStringWritable(value));
   }
@@ -47,6 +55,14 @@ public final class AnnotationWriter implements Writable, HasClassReferences {
     memberMap.put(name, toStringWritable(StringLiteral.forValue(value)));
   }
 
+  private void setMember(String name, List<String> values) {
+    ImmutableList.Builder<StringLiteral> literals = ImmutableList.builder();
+    for (String value : values) {
+      literals.add(StringLiteral.forValue(value));
+    }
+    memberMap.put(name, toStringWritable("{" + Joiner.on(", ").join(literals.build()) + "}"));
+  }
+
   public <T extends Enum<T>> void setMember(String name, T value) {
     Snippet snippet = Snippet.format("%s.%s", ClassName.fromClass(value.getClass()), value);
     memberMap.put(name, snippet);
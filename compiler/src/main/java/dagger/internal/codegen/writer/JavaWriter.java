@@ -26,8 +26,6 @@ import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Ordering;
 import com.google.common.collect.Sets;
-import com.google.common.io.CharSink;
-import com.google.common.io.CharSource;
 import com.google.googlejavaformat.java.Formatter;
 import com.google.googlejavaformat.java.FormatterException;
 import dagger.internal.codegen.writer.Writable.Context;
@@ -172,27 +170,45 @@ public final class JavaWriter {
 
   public void file(Filer filer, Iterable<? extends Element> originatingElements)
       throws IOException {
-    file(filer, Iterables.getOnlyElement(typeWriters).name.canonicalName(), originatingElements);
+    fileFormattedSource(filer, formattedSource(), originatingElements);
   }
 
   public void file(Filer filer, CharSequence name,  Iterable<? extends Element> originatingElements)
       throws IOException {
-    final JavaFileObject sourceFile = filer.createSourceFile(name,
-        Iterables.toArray(originatingElements, Element.class));
+    fileFormattedSource(filer, name, formattedSource(), originatingElements);
+  }
+
+  /**
+   * Returns the formatted source of this file, as {@link #file} would write it. This only reads
+   * this writer, so unlike {@link #file} it may be called from any thread.
+   */
+  public String formattedSource() {
     try {
-      new Formatter().formatSource(
-          CharSource.wrap(write(new StringBuilder())),
-          new CharSink() {
-            @Override public Writer openStream() throws IOException {
-              return sourceFile.openWriter();
-            }
-          });
+      return new Formatter().formatSource(write(new StringBuilder()).toString());
+    } catch (IOException e) {
+      throw new AssertionError(e); // StringBuilder doesn't throw
     } catch (FormatterException e) {
       throw new IllegalStateException(
           "The writer produced code that could not be parsed by the formatter", e);
     }
   }
 
+  /** Files source returned by {@link #formattedSource()}. */
+  public void fileFormattedSource(Filer filer, String formattedSource,
+      Iterable<? extends Element> originatingElements) throws IOException {
+    fileFormattedSource(filer, Iterables.getOnlyElement(typeWriters).name.canonicalName(),
+        formattedSource, originatingElements);
+  }
+
+  private void fileFormattedSource(Filer filer, CharSequence name, String formattedSource,
+      Iterable<? extends Element> originatingElements) throws IOException {
+    JavaFileObject sourceFile =
+        filer.createSourceFile(name, Iterables.toArray(originatingElements, Element.class));
+    try (Writer writer = sourceFile.openWriter()) {
+      writer.write(formattedSource);
+    }
+  }
+
   @Override
   public String toString() {
     try {
@@ -34,6 +34,7 @@ public final class MethodWriter extends Modifiable implements HasClassReferences
   private final String name;
   private final Map<String, VariableWriter> parameterWriters;
   private final List<TypeVariableName> typeParameters;
+  private final List<TypeName> thrownTypes;
   private Optional<BlockWriter> body;
 
   MethodWriter(TypeName returnType, String name) {
@@ -41,6 +42,7 @@ public final class MethodWriter extends Modifiable implements HasClassReferences
     this.name = name;
     this.parameterWriters = Maps.newLinkedHashMap();
     this.typeParameters = Lists.newArrayList();
+    this.thrownTypes = Lists.newArrayList();
     this.body = Optional.absent();
   }
 
@@ -79,6 +81,14 @@ public final class MethodWriter extends Modifiable implements HasClassReferences
     return parameterWriter;
   }
 
+  public void addThrownType(TypeName thrownType) {
+    thrownTypes.add(thrownType);
+  }
+
+  public void addThrownTypes(Iterable<? extends TypeName> thrownTypes) {
+    Iterables.addAll(this.thrownTypes, thrownTypes);
+  }
+
   public BlockWriter body() {
     if (body.isPresent()) {
       return body.get();
@@ -98,6 +108,7 @@ public final class MethodWriter extends Modifiable implements HasClassReferences
     appendable.append(' ').append(name).append('(');
     Writables.join(", ", parameterWriters.values(), appendable, context);
     appendable.append(")");
+    Writables.join(", ", thrownTypes, " throws ", "", appendable, context);
     if (body.isPresent()) {
       appendable.append(" {");
       body.get().write(new IndentingAppendable(appendable), context);
@@ -113,6 +124,7 @@ public final class MethodWriter extends Modifiable implements HasClassReferences
     return FluentIterable.from(ImmutableList.<HasClassReferences>of())
         .append(parameterWriters.values())
         .append(returnType)
+        .append(thrownTypes)
         .append(body.asSet())
         .append(annotations)
         .transformAndConcat(HasClassReferences.COMBINER)
@@ -43,6 +43,8 @@ import static javax.tools.StandardLocation.SOURCE_OUTPUT;
 public class ComponentProcessorTest {
   private static final StringLiteral NPE_LITERAL =
       StringLiteral.forValue(ErrorMessages.CANNOT_RETURN_NULL_FROM_NON_NULLABLE_COMPONENT_METHOD);
+  private static final StringLiteral NPE_PROVIDES_LITERAL =
+      StringLiteral.forValue(ErrorMessages.CANNOT_RETURN_NULL_FROM_NON_NULLABLE_PROVIDES_METHOD);
 
   @Test public void componentOnConcreteClass() {
     JavaFileObject componentFile = JavaFileObjects.forSourceLines("test.NotAComponent",
@@ -88,6 +90,23 @@ public class ComponentProcessorTest {
         .withErrorContaining("interface");
   }
 
+  @Test public void reusableComponent() {
+    JavaFileObject componentFile = JavaFileObjects.forSourceLines("test.TestComponent",
+        "package test;",
+        "",
+        "import dagger.Component;",
+        "import dagger.Reusable;",
+        "",
+        "@Reusable",
+        "@Component",
+        "interface TestComponent {}");
+    assertAbout(javaSource()).that(componentFile)
+        .processedWith(new ComponentProcessor())
+        .failsToCompile()
+        .withErrorContaining(ErrorMessages.REUSABLE_ON_COMPONENT)
+        .in(componentFile).onLine(6);
+  }
+
   @Test public void nonModuleModule() {
     JavaFileObject componentFile = JavaFileObjects.forSourceLines("test.NotAComponent",
         "package test;",
@@ -213,7 +232,7 @@ public class ComponentProcessorTest {
         "package test;",
         "",
         "import dagger.Lazy;",
-        "import dagger.internal.DoubleCheckLazy;",
+        "import dagger.internal.DoubleCheck;",
         "import javax.annotation.Generated;",
         "import javax.inject.Provider;",
         "",
@@ -243,7 +262,7 @@ public class ComponentProcessorTest {
         "",
         "  @Override",
         "  public Lazy<SomeInjectableType> lazySomeInjectableType() {",
-        "    return DoubleCheckLazy.create(SomeInjectableType_Factory.create());",
+        "    return DoubleCheck.lazy(SomeInjectableType_Factory.create());",
         "  }",
         "",
         "  @Override",
@@ -297,8 +316,7 @@ public class ComponentProcessorTest {
         "package test;",
         "",
         "import dagger.Lazy;",
-        "import dagger.internal.DoubleCheckLazy;",
-        "import dagger.internal.ScopedProvider;",
+        "import dagger.internal.DoubleCheck;",
         "import javax.annotation.Generated;",
         "import javax.inject.Provider;",
         "",
@@ -322,7 +340,7 @@ public class ComponentProcessorTest {
         "  @SuppressWarnings(\"unchecked\")",
         "  private void initialize(final Builder builder) {",
         "    this.someInjectableTypeProvider =",
-        "        ScopedProvider.create(SomeInjectableType_Factory.create());",
+        "        DoubleCheck.provider(SomeInjectableType_Factory.create());",
         "  }",
         "",
         "  @Override",
@@ -332,7 +350,7 @@ public class ComponentProcessorTest {
         "",
         "  @Override",
         "  public Lazy<SomeInjectableType> lazySomeInjectableType() {",
-        "    return DoubleCheckLazy.create(someInjectableTypeProvider);",
+        "    return DoubleCheck.lazy(someInjectableTypeProvider);",
         "  }",
         "",
         "  @Override",
@@ -355,6 +373,215 @@ public class ComponentProcessorTest {
         .and().generatesSources(generatedComponent);
   }
 
+  @Test
+  public void reusableBindings() {
+    JavaFileObject reusableTypeFile =
+        JavaFileObjects.forSourceLines(
+            "test.ReusableType",
+            "package test;",
+            "",
+            "import dagger.Reusable;",
+            "import javax.inject.Inject;",
+            "",
+            "@Reusable",
+            "final class ReusableType {",
+            "  @Inject ReusableType() {}",
+            "}");
+    JavaFileObject reusableWithSetFile =
+        JavaFileObjects.forSourceLines(
+            "test.ReusableWithSet",
+            "package test;",
+            "",
+            "import dagger.Reusable;",
+            "import java.util.Set;",
+            "import javax.inject.Inject;",
+            "",
+            "@Reusable",
+            "final class ReusableWithSet {",
+            "  @Inject ReusableWithSet(Set<Object> objects) {}",
+            "}");
+    JavaFileObject parentFile =
+        JavaFileObjects.forSourceLines(
+            "test.Parent",
+            "package test;",
+            "",
+            "import dagger.Component;",
+            "",
+            "@Component(modules = ParentModule.class)",
+            "interface Parent {",
+            "  ReusableType reusableType();",
+            "  ReusableWithSet reusableWithSet();",
+            "  Child child();",
+            "}");
+    JavaFileObject parentModuleFile =
+        JavaFileObjects.forSourceLines(
+            "test.ParentModule",
+            "package test;",
+            "",
+            "import dagger.Module;",
+            "import dagger.Provides;",
+            "",
+            "import static dagger.Provides.Type.SET;",
+            "",
+            "@Module",
+            "final class ParentModule {",
+            "  @Provides(type = SET) static Object parentObject() {",
+            "    return \"parent\";",
+            "  }",
+            "}");
+    JavaFileObject childFile =
+        JavaFileObjects.forSourceLines(
+            "test.Child",
+            "package test;",
+            "",
+            "import dagger.Subcomponent;",
+            "",
+            "@Subcomponent(modules = ChildModule.class)",
+            "interface Child {",
+            "  ReusableType reusableType();",
+            "  ReusableWithSet reusableWithSet();",
+            "}");
+    JavaFileObject childModuleFile =
+        JavaFileObjects.forSourceLines(
+            "test.ChildModule",
+            "package test;",
+            "",
+            "import dagger.Module;",
+            "import dagger.Provides;",
+            "",
+            "import static dagger.Provides.Type.SET;",
+            "",
+            "@Module",
+            "final class ChildModule {",
+            "  @Provides(type = SET) static Object childObject() {",
+            "    return \"child\";",
+            "  }",
+            "}");
+    JavaFileObject generatedComponent =
+        JavaFileObjects.forSourceLines(
+            "test.DaggerParent",
+            "package test;",
+            "",
+            "import dagger.internal.SetFactory;",
+            "import dagger.internal.SingleCheckProvider;",
+            "import java.util.Set;",
+            "import javax.annotation.Generated;",
+            "import javax.inject.Provider;",
+            "",
+            "@Generated(\"dagger.internal.codegen.ComponentProcessor\")",
+            "public final class DaggerParent implements Parent {",
+            "  private Provider<ReusableType> reusableTypeProvider;",
+            "  private Provider<Set<Object>> setOfObjectContribution1Provider;",
+            "  private Provider<Set<Object>> setOfObjectProvider;",
+            "  private Provider<ReusableWithSet> reusableWithSetProvider;",
+            "",
+            "  private DaggerParent(Builder builder) {",
+            "    assert builder != null;",
+            "    initialize(builder);",
+            "  }",
+            "",
+            "  public static Builder builder() {",
+            "    return new Builder();",
+            "  }",
+            "",
+            "  public static Parent create() {",
+            "    return builder().build();",
+            "  }",
+            "",
+            "  @SuppressWarnings(\"unchecked\")",
+            "  private void initialize(final Builder builder) {",
+            "    this.reusableTypeProvider =",
+            "        SingleCheckProvider.create(ReusableType_Factory.create());",
+            "    this.setOfObjectContribution1Provider =",
+            "        ParentModule_ParentObjectFactory.create();",
+            "    this.setOfObjectProvider = SetFactory.create(setOfObjectContribution1Provider);",
+            "    this.reusableWithSetProvider =",
+            "        SingleCheckProvider.create(",
+            "            ReusableWithSet_Factory.create(setOfObjectProvider));",
+            "  }",
+            "",
+            "  @Override",
+            "  public ReusableType reusableType() {",
+            "    return reusableTypeProvider.get();",
+            "  }",
+            "",
+            "  @Override",
+            "  public ReusableWithSet reusableWithSet() {",
+            "    return reusableWithSetProvider.get();",
+            "  }",
+            "",
+            "  @Override",
+            "  public Child child() {",
+            "    return new ChildImpl();",
+            "  }",
+            "",
+            "  public static final class Builder {",
+            "    private Builder() {",
+            "    }",
+            "",
+            "    public Parent build() {",
+            "      return new DaggerParent(this);",
+            "    }",
+            "",
+            "    @Deprecated",
+            "    public Builder parentModule(ParentModule parentModule) {",
+            "      if (parentModule == null) {",
+            "        throw new NullPointerException();",
+            "      }",
+            "      return this;",
+            "    }",
+            "  }",
+            "",
+            "  private final class ChildImpl implements Child {",
+            "    private Provider<Set<Object>> setOfObjectContribution1Provider;",
+            "    private Provider<Set<Object>> setOfObjectContribution2Provider;",
+            "    private Provider<Set<Object>> setOfObjectProvider;",
+            "    private Provider<ReusableWithSet> reusableWithSetProvider;",
+            "",
+            "    private ChildImpl() {",
+            "      initialize();",
+            "    }",
+            "",
+            "    @SuppressWarnings(\"unchecked\")",
+            "    private void initialize() {",
+            "      this.setOfObjectContribution1Provider =",
+            "          ParentModule_ParentObjectFactory.create();",
+            "      this.setOfObjectContribution2Provider =",
+            "          ChildModule_ChildObjectFactory.create();",
+            "      this.setOfObjectProvider =",
+            "          SetFactory.create(",
+            "              setOfObjectContribution1Provider, setOfObjectContribution2Provider);",
+            "      this.reusableWithSetProvider =",
+            "          SingleCheckProvider.create(",
+            "              ReusableWithSet_Factory.create(setOfObjectProvider));",
+            "    }",
+            "",
+            "    @Override",
+            "    public ReusableType reusableType() {",
+            "      return DaggerParent.this.reusableTypeProvider.get();",
+            "    }",
+            "",
+            "    @Override",
+            "    public ReusableWithSet reusableWithSet() {",
+            "      return reusableWithSetProvider.get();",
+            "    }",
+            "  }",
+            "}");
+    assertAbout(javaSources())
+        .that(
+            ImmutableList.of(
+                reusableTypeFile,
+                reusableWithSetFile,
+                parentFile,
+                parentModuleFile,
+                childFile,
+                childModuleFile))
+        .processedWith(new ComponentProcessor())
+        .compilesWithoutError()
+        .and()
+        .generatesSources(generatedComponent);
+  }
+
   @Test public void simpleComponentWithNesting() {
     JavaFileObject nestedTypesFile = JavaFileObjects.forSourceLines("test.OuterType",
         "package test;",
@@ -1089,6 +1316,111 @@ public class ComponentProcessorTest {
         .and().generatesSources(generatedComponent);
   }
 
+  @Test public void setBindings_allContributionsScoped() {
+    JavaFileObject setModuleFile = JavaFileObjects.forSourceLines("test.SetModule",
+        "package test;",
+        "",
+        "import static dagger.Provides.Type.SET;",
+        "import static dagger.Provides.Type.SET_VALUES;",
+        "",
+        "import dagger.Module;",
+        "import dagger.Provides;",
+        "import java.util.Collections;",
+        "import java.util.Set;",
+        "import javax.inject.Singleton;",
+        "",
+        "@Module",
+        "final class SetModule {",
+        "  @Provides(type = SET) @Singleton String string() { return \"\"; }",
+        "  @Provides(type = SET_VALUES) @Singleton Set<String> emptySet() {",
+        "    return Collections.emptySet();",
+        "  }",
+        "}");
+    JavaFileObject componentFile = JavaFileObjects.forSourceLines("test.TestComponent",
+        "package test;",
+        "",
+        "import dagger.Component;",
+        "import java.util.Set;",
+        "import javax.inject.Singleton;",
+        "",
+        "@Singleton",
+        "@Component(modules = SetModule.class)",
+        "interface TestComponent {",
+        "  Set<String> strings();",
+        "}");
+    JavaFileObject generatedComponent = JavaFileObjects.forSourceLines(
+        "test.DaggerTestComponent",
+        "package test;",
+        "",
+        "import dagger.internal.DoubleCheck;",
+        "import dagger.internal.SetFactory;",
+        "import java.util.Set;",
+        "import javax.annotation.Generated;",
+        "import javax.inject.Provider;",
+        "",
+        "@Generated(\"dagger.internal.codegen.ComponentProcessor\")",
+        "public final class DaggerTestComponent implements TestComponent {",
+        "  private Provider<Set<String>> setOfStringContribution1Provider;",
+        "  private Provider<Set<String>> setOfStringContribution2Provider;",
+        "  private Provider<Set<String>> setOfStringProvider;",
+        "",
+        "  private DaggerTestComponent(Builder builder) {",
+        "    assert builder != null;",
+        "    initialize(builder);",
+        "  }",
+        "",
+        "  public static Builder builder() {",
+        "    return new Builder();",
+        "  }",
+        "",
+        "  public static TestComponent create() {",
+        "    return builder().build();",
+        "  }",
+        "",
+        "  @SuppressWarnings(\"unchecked\")",
+        "  private void initialize(final Builder builder) {",
+        "    this.setOfStringContribution1Provider =",
+        "        DoubleCheck.provider(SetModule_StringFactory.create(builder.setModule));",
+        "    this.setOfStringContribution2Provider =",
+        "        DoubleCheck.provider(SetModule_EmptySetFactory.create(builder.setModule));",
+        "    this.setOfStringProvider = DoubleCheck.provider(SetFactory.create(",
+        "        setOfStringContribution1Provider, setOfStringContribution2Provider));",
+        "  }",
+        "",
+        "  @Override",
+        "  public Set<String> strings() {",
+        "    return setOfStringProvider.get();",
+        "  }",
+        "",
+        "  public static final class Builder {",
+        "    private SetModule setModule;",
+        "",
+        "    private Builder() {",
+        "    }",
+        "",
+        "    public TestComponent build() {",
+        "      if (setModule == null) {",
+        "        this.setModule = new SetModule();",
+        "      }",
+        "      return new DaggerTestComponent(this);",
+        "    }",
+        "",
+        "    public Builder setModule(SetModule setModule) {",
+        "      if (setModule == null) {",
+        "        throw new NullPointerException();",
+        "      }",
+        "      this.setModule = setModule;",
+        "      return this;",
+        "    }",
+        "  }",
+        "}");
+    assertAbout(javaSources())
+        .that(ImmutableList.of(setModuleFile, componentFile))
+        .processedWith(new ComponentProcessor())
+        .compilesWithoutError()
+        .and().generatesSources(generatedComponent);
+  }
+
   @Test public void membersInjection() {
     JavaFileObject injectableTypeFile = JavaFileObjects.forSourceLines("test.SomeInjectableType",
         "package test;",
@@ -2057,6 +2389,1143 @@ public class ComponentProcessorTest {
         .generatesFileNamed(SOURCE_OUTPUT, "test", "DaggerSimpleComponent.java");
   }
 
+  @Test
+  public void lazyInitialization_cycle() {
+    JavaFileObject aFile = JavaFileObjects.forSourceLines("test.A",
+        "package test;",
+        "",
+        "import javax.inject.Inject;",
+        "import javax.inject.Provider;",
+        "",
+        "final class A {",
+        "  @Inject A(Provider<B> bProvider) {}",
+        "}");
+    JavaFileObject bFile = JavaFileObjects.forSourceLines("test.B",
+        "package test;",
+        "",
+        "import javax.inject.Inject;",
+        "",
+        "final class B {",
+        "  @Inject B(A a) {}",
+        "}");
+    JavaFileObject moduleFile = JavaFileObjects.forSourceLines("test.TestModule",
+        "package test;",
+        "",
+        "import dagger.Module;",
+        "import dagger.Provides;",
+        "",
+        "import static dagger.Provides.Type.SET;",
+        "",
+        "@Module",
+        "final class TestModule {",
+        "  @Provides(type = SET) Object a(A a) {",
+        "    return a;",
+        "  }",
+        "",
+        "  @Provides(type = SET) Object string() {",
+        "    return \"string\";",
+        "  }",
+        "}");
+    JavaFileObject componentFile = JavaFileObjects.forSourceLines("test.TestComponent",
+        "package test;",
+        "",
+        "import dagger.Component;",
+        "import java.util.Set;",
+        "",
+        "@Component(modules = TestModule.class)",
+        "interface TestComponent {",
+        "  A a();",
+        "  B b();",
+        "  Set<Object> objects();",
+        "}");
+    JavaFileObject generatedComponent = JavaFileObjects.forSourceLines(
+        "test.DaggerTestComponent",
+        "package test;",
+        "",
+        "import dagger.internal.DelegateFactory;",
+        "import dagger.internal.SetFactory;",
+        "import java.util.Set;",
+        "import javax.annotation.Generated;",
+        "import javax.inject.Provider;",
+        "",
+        "@Generated(\"dagger.internal.codegen.ComponentProcessor\")",
+        "public final class DaggerTestComponent implements TestComponent {",
+        "  private Provider<B> bProvider;",
+        "  private Provider<A> aProvider;",
+        "  private volatile Provider<Set<Object>> setOfObjectContribution1Provider;",
+        "  private volatile Provider<Set<Object>> setOfObjectContribution2Provider;",
+        "  private volatile Provider<Set<Object>> setOfObjectProvider;",
+        "  private volatile boolean bProviderCycleInitialized;",
+        "  private final TestModule testModule;",
+        "",
+        "  private DaggerTestComponent(Builder builder) {",
+        "    assert builder != null;",
+        "    this.testModule = builder.testModule;",
+        "  }",
+        "",
+        "  public static Builder builder() {",
+        "    return new Builder();",
+        "  }",
+        "",
+        "  public static TestComponent create() {",
+        "    return builder().build();",
+        "  }",
+        "",
+        "  @SuppressWarnings(\"unchecked\")",
+        "  private void initializeBProviderCycle() {",
+        "    this.aProvider = new DelegateFactory();",
+        "    this.bProvider = B_Factory.create(aProvider);",
+        "",
+        "    DelegateFactory aProviderDelegate = (DelegateFactory) aProvider;",
+        "    this.aProvider = A_Factory.create(bProvider);",
+        "    aProviderDelegate.setDelegatedProvider(aProvider);",
+        "    bProviderCycleInitialized = true;",
+        "  }",
+        "",
+        "  @SuppressWarnings(\"unchecked\")",
+        "  private Provider<B> bProvider() {",
+        "    if (!bProviderCycleInitialized) {",
+        "      synchronized (this) {",
+        "        if (!bProviderCycleInitialized) {",
+        "          initializeBProviderCycle();",
+        "        }",
+        "      }",
+        "    }",
+        "    return bProvider;",
+        "  }",
+        "",
+        "  @SuppressWarnings(\"unchecked\")",
+        "  private Provider<A> aProvider() {",
+        "    if (!bProviderCycleInitialized) {",
+        "      synchronized (this) {",
+        "        if (!bProviderCycleInitialized) {",
+        "          initializeBProviderCycle();",
+        "        }",
+        "      }",
+        "    }",
+        "    return aProvider;",
+        "  }",
+        "",
+        "  @SuppressWarnings(\"unchecked\")",
+        "  private Provider<Set<Object>> setOfObjectContribution1Provider() {",
+        "    Provider<Set<Object>> result = setOfObjectContribution1Provider;",
+        "    if (result == null) {",
+        "      synchronized (this) {",
+        "        result = setOfObjectContribution1Provider;",
+        "        if (result == null) {",
+        "          this.setOfObjectContribution1Provider =",
+        "              TestModule_AFactory.create(testModule, aProvider());",
+        "          result = setOfObjectContribution1Provider;",
+        "        }",
+        "      }",
+        "    }",
+        "    return result;",
+        "  }",
+        "",
+        "  @SuppressWarnings(\"unchecked\")",
+        "  private Provider<Set<Object>> setOfObjectContribution2Provider() {",
+        "    Provider<Set<Object>> result = setOfObjectContribution2Provider;",
+        "    if (result == null) {",
+        "      synchronized (this) {",
+        "        result = setOfObjectContribution2Provider;",
+        "        if (result == null) {",
+        "          this.setOfObjectContribution2Provider =",
+        "              TestModule_StringFactory.create(testModule);",
+        "          result = setOfObjectContribution2Provider;",
+        "        }",
+        "      }",
+        "    }",
+        "    return result;",
+        "  }",
+        "",
+        "  @SuppressWarnings(\"unchecked\")",
+        "  private Provider<Set<Object>> setOfObjectProvider() {",
+        "    Provider<Set<Object>> result = setOfObjectProvider;",
+        "    if (result == null) {",
+        "      synchronized (this) {",
+        "        result = setOfObjectProvider;",
+        "        if (result == null) {",
+        "          this.setOfObjectProvider =",
+        "              SetFactory.create(",
+        "                  setOfObjectContribution1Provider(",
+        "                      ), setOfObjectContribution2Provider());",
+        "          result = setOfObjectProvider;",
+        "        }",
+        "      }",
+        "    }",
+        "    return result;",
+        "  }",
+        "",
+        "  @Override",
+        "  public A a() {",
+        "    return aProvider().get();",
+        "  }",
+        "",
+        "  @Override",
+        "  public B b() {",
+        "    return bProvider().get();",
+        "  }",
+        "",
+        "  @Override",
+        "  public Set<Object> objects() {",
+        "    return setOfObjectProvider().get();",
+        "  }",
+        "",
+        "  public static final class Builder {",
+        "    private TestModule testModule;",
+        "",
+        "    private Builder() {",
+        "    }",
+        "",
+        "    public TestComponent build() {",
+        "      if (testModule == null) {",
+        "        this.testModule = new TestModule();",
+        "      }",
+        "      return new DaggerTestComponent(this);",
+        "    }",
+        "",
+        "    public Builder testModule(TestModule testModule) {",
+        "      if (testModule == null) {",
+        "        throw new NullPointerException();",
+        "      }",
+        "      this.testModule = testModule;",
+        "      return this;",
+        "    }",
+        "  }",
+        "}");
+    assertAbout(javaSources())
+        .that(ImmutableList.of(aFile, bFile, moduleFile, componentFile))
+        .withCompilerOptions("-Adagger.lazyInitialization=ENABLED")
+        .processedWith(new ComponentProcessor())
+        .compilesWithoutError()
+        .and()
+        .generatesSources(generatedComponent);
+  }
+
+  @Test
+  public void lazyInitialization_scopedBinding() {
+    JavaFileObject fooFile = JavaFileObjects.forSourceLines("test.Foo",
+        "package test;",
+        "",
+        "import javax.inject.Inject;",
+        "import javax.inject.Singleton;",
+        "",
+        "@Singleton",
+        "final class Foo {",
+        "  @Inject Foo() {}",
+        "}");
+    JavaFileObject barFile = JavaFileObjects.forSourceLines("test.Bar",
+        "package test;",
+        "",
+        "import javax.inject.Inject;",
+        "",
+        "final class Bar {",
+        "  @Inject Bar(Foo foo) {}",
+        "}");
+    JavaFileObject componentFile = JavaFileObjects.forSourceLines("test.TestComponent",
+        "package test;",
+        "",
+        "import dagger.Component;",
+        "import javax.inject.Singleton;",
+        "",
+        "@Singleton",
+        "@Component",
+        "interface TestComponent {",
+        "  Foo foo();",
+        "  Bar bar();",
+        "}");
+    JavaFileObject generatedComponent = JavaFileObjects.forSourceLines(
+        "test.DaggerTestComponent",
+        "package test;",
+        "",
+        "import dagger.internal.DoubleCheck;",
+        "import javax.annotation.Generated;",
+        "import javax.inject.Provider;",
+        "",
+        "@Generated(\"dagger.internal.codegen.ComponentProcessor\")",
+        "public final class DaggerTestComponent implements TestComponent {",
+        "  private volatile Provider<Foo> fooProvider;",
+        "  private volatile Provider<Bar> barProvider;",
+        "",
+        "  private DaggerTestComponent(Builder builder) {",
+        "    assert builder != null;",
+        "  }",
+        "",
+        "  public static Builder builder() {",
+        "    return new Builder();",
+        "  }",
+        "",
+        "  public static TestComponent create() {",
+        "    return builder().build();",
+        "  }",
+        "",
+        "  @SuppressWarnings(\"unchecked\")",
+        "  private Provider<Foo> fooProvider() {",
+        "    Provider<Foo> result = fooProvider;",
+        "    if (result == null) {",
+        "      synchronized (this) {",
+        "        result = fooProvider;",
+        "        if (result == null) {",
+        "          this.fooProvider = DoubleCheck.provider(Foo_Factory.create());",
+        "          result = fooProvider;",
+        "        }",
+        "      }",
+        "    }",
+        "    return result;",
+        "  }",
+        "",
+        "  @SuppressWarnings(\"unchecked\")",
+        "  private Provider<Bar> barProvider() {",
+        "    Provider<Bar> result = barProvider;",
+        "    if (result == null) {",
+        "      synchronized (this) {",
+        "        result = barProvider;",
+        "        if (result == null) {",
+        "          this.barProvider = Bar_Factory.create(fooProvider());",
+        "          result = barProvider;",
+        "        }",
+        "      }",
+        "    }",
+        "    return result;",
+        "  }",
+        "",
+        "  @Override",
+        "  public Foo foo() {",
+        "    return fooProvider().get();",
+        "  }",
+        "",
+        "  @Override",
+        "  public Bar bar() {",
+        "    return barProvider().get();",
+        "  }",
+        "",
+        "  public static final class Builder {",
+        "    private Builder() {",
+        "    }",
+        "",
+        "    public TestComponent build() {",
+        "      return new DaggerTestComponent(this);",
+        "    }",
+        "  }",
+        "}");
+    assertAbout(javaSources())
+        .that(ImmutableList.of(fooFile, barFile, componentFile))
+        .withCompilerOptions("-Adagger.lazyInitialization=ENABLED")
+        .processedWith(new ComponentProcessor())
+        .compilesWithoutError()
+        .and()
+        .generatesSources(generatedComponent);
+  }
+
+  @Test
+  public void lazyInitialization_subcomponent() {
+    JavaFileObject parentModuleFile = JavaFileObjects.forSourceLines("test.ParentModule",
+        "package test;",
+        "",
+        "import dagger.Module;",
+        "import dagger.Provides;",
+        "",
+        "@Module",
+        "final class ParentModule {",
+        "  @Provides String string() {",
+        "    return \"parent\";",
+        "  }",
+        "}");
+    JavaFileObject childModuleFile = JavaFileObjects.forSourceLines("test.ChildModule",
+        "package test;",
+        "",
+        "import dagger.Module;",
+        "import dagger.Provides;",
+        "",
+        "@Module",
+        "final class ChildModule {",
+        "  @Provides Integer number(String string) {",
+        "    return string.length();",
+        "  }",
+        "}");
+    JavaFileObject parentComponentFile = JavaFileObjects.forSourceLines("test.ParentComponent",
+        "package test;",
+        "",
+        "import dagger.Component;",
+        "",
+        "@Component(modules = ParentModule.class)",
+        "interface ParentComponent {",
+        "  ChildComponent child();",
+        "}");
+    JavaFileObject childComponentFile = JavaFileObjects.forSourceLines("test.ChildComponent",
+        "package test;",
+        "",
+        "import dagger.Subcomponent;",
+        "",
+        "@Subcomponent(modules = ChildModule.class)",
+        "interface ChildComponent {",
+        "  Integer number();",
+        "}");
+    JavaFileObject generatedComponent = JavaFileObjects.forSourceLines(
+        "test.DaggerParentComponent",
+        "package test;",
+        "",
+        "import javax.annotation.Generated;",
+        "import javax.inject.Provider;",
+        "",
+        "@Generated(\"dagger.internal.codegen.ComponentProcessor\")",
+        "public final class DaggerParentComponent implements ParentComponent {",
+        "  private volatile Provider<String> stringProvider;",
+        "  private final ParentModule parentModule;",
+        "",
+        "  private DaggerParentComponent(Builder builder) {",
+        "    assert builder != null;",
+        "    this.parentModule = builder.parentModule;",
+        "  }",
+        "",
+        "  public static Builder builder() {",
+        "    return new Builder();",
+        "  }",
+        "",
+        "  public static ParentComponent create() {",
+        "    return builder().build();",
+        "  }",
+        "",
+        "  @SuppressWarnings(\"unchecked\")",
+        "  private Provider<String> stringProvider() {",
+        "    Provider<String> result = stringProvider;",
+        "    if (result == null) {",
+        "      synchronized (this) {",
+        "        result = stringProvider;",
+        "        if (result == null) {",
+        "          this.stringProvider = ParentModule_StringFactory.create(parentModule);",
+        "          result = stringProvider;",
+        "        }",
+        "      }",
+        "    }",
+        "    return result;",
+        "  }",
+        "",
+        "  @Override",
+        "  public ChildComponent child() {",
+        "    return new ChildComponentImpl();",
+        "  }",
+        "",
+        "  public static final class Builder {",
+        "    private ParentModule parentModule;",
+        "",
+        "    private Builder() {",
+        "    }",
+        "",
+        "    public ParentComponent build() {",
+        "      if (parentModule == null) {",
+        "        this.parentModule = new ParentModule();",
+        "      }",
+        "      return new DaggerParentComponent(this);",
+        "    }",
+        "",
+        "    public Builder parentModule(ParentModule parentModule) {",
+        "      if (parentModule == null) {",
+        "        throw new NullPointerException();",
+        "      }",
+        "      this.parentModule = parentModule;",
+        "      return this;",
+        "    }",
+        "  }",
+        "",
+        "  private final class ChildComponentImpl implements ChildComponent {",
+        "    private final ChildModule childModule;",
+        "    private volatile Provider<Integer> numberProvider;",
+        "",
+        "    private ChildComponentImpl() {",
+        "      this.childModule = new ChildModule();",
+        "    }",
+        "",
+        "    @SuppressWarnings(\"unchecked\")",
+        "    private Provider<Integer> numberProvider() {",
+        "      Provider<Integer> result = numberProvider;",
+        "      if (result == null) {",
+        "        synchronized (this) {",
+        "          result = numberProvider;",
+        "          if (result == null) {",
+        "            this.numberProvider =",
+        "                ChildModule_NumberFactory.create(",
+        "                    childModule, DaggerParentComponent.this.stringProvider());",
+        "            result = numberProvider;",
+        "          }",
+        "        }",
+        "      }",
+        "      return result;",
+        "    }",
+        "",
+        "    @Override",
+        "    public Integer number() {",
+        "      return numberProvider().get();",
+        "    }",
+        "  }",
+        "}");
+    assertAbout(javaSources())
+        .that(ImmutableList.of(
+            parentModuleFile, childModuleFile, parentComponentFile, childComponentFile))
+        .withCompilerOptions("-Adagger.lazyInitialization=ENABLED")
+        .processedWith(new ComponentProcessor())
+        .compilesWithoutError()
+        .and()
+        .generatesSources(generatedComponent);
+  }
+
+  @Test
+  public void lazyInitialization_componentDependencyAndModuleInstance() {
+    JavaFileObject depFile = JavaFileObjects.forSourceLines("test.Dep",
+        "package test;",
+        "",
+        "interface Dep {",
+        "  String string();",
+        "}");
+    JavaFileObject moduleFile = JavaFileObjects.forSourceLines("test.TestModule",
+        "package test;",
+        "",
+        "import dagger.Module;",
+        "import dagger.Provides;",
+        "",
+        "@Module",
+        "final class TestModule {",
+        "  private final int number;",
+        "",
+        "  TestModule(int number) {",
+        "    this.number = number;",
+        "  }",
+        "",
+        "  @Provides Integer number() {",
+        "    return number;",
+        "  }",
+        "",
+        "  @Provides Object object(String string, Integer number) {",
+        "    return string + number;",
+        "  }",
+        "}");
+    JavaFileObject componentFile = JavaFileObjects.forSourceLines("test.TestComponent",
+        "package test;",
+        "",
+        "import dagger.Component;",
+        "",
+        "@Component(dependencies = Dep.class, modules = TestModule.class)",
+        "interface TestComponent {",
+        "  Object object();",
+        "}");
+    JavaFileObject generatedComponent = JavaFileObjects.forSourceLines(
+        "test.DaggerTestComponent",
+        "package test;",
+        "",
+        "import dagger.internal.Factory;",
+        "import javax.annotation.Generated;",
+        "import javax.inject.Provider;",
+        "",
+        "@Generated(\"dagger.internal.codegen.ComponentProcessor\")",
+        "public final class DaggerTestComponent implements TestComponent {",
+        "  private volatile Provider<String> stringProvider;",
+        "  private volatile Provider<Integer> numberProvider;",
+        "  private volatile Provider<Object> objectProvider;",
+        "  private final Dep dep;",
+        "  private final TestModule testModule;",
+        "",
+        "  private DaggerTestComponent(Builder builder) {",
+        "    assert builder != null;",
+        "    this.dep = builder.dep;",
+        "    this.testModule = builder.testModule;",
+        "  }",
+        "",
+        "  public static Builder builder() {",
+        "    return new Builder();",
+        "  }",
+        "",
+        "  @SuppressWarnings(\"unchecked\")",
+        "  private Provider<String> stringProvider() {",
+        "    Provider<String> result = stringProvider;",
+        "    if (result == null) {",
+        "      synchronized (this) {",
+        "        result = stringProvider;",
+        "        if (result == null) {",
+        "          this.stringProvider = new Factory<String>() {",
+        "            private final Dep dep = DaggerTestComponent.this.dep;",
+        "            @Override public String get() {",
+        "              String provided = dep.string();",
+        "              if (provided == null) {",
+        "                throw new NullPointerException(" + NPE_LITERAL + ");",
+        "              }",
+        "              return provided;",
+        "            }",
+        "          };",
+        "          result = stringProvider;",
+        "        }",
+        "      }",
+        "    }",
+        "    return result;",
+        "  }",
+        "",
+        "  @SuppressWarnings(\"unchecked\")",
+        "  private Provider<Integer> numberProvider() {",
+        "    Provider<Integer> result = numberProvider;",
+        "    if (result == null) {",
+        "      synchronized (this) {",
+        "        result = numberProvider;",
+        "        if (result == null) {",
+        "          this.numberProvider = TestModule_NumberFactory.create(testModule);",
+        "          result = numberProvider;",
+        "        }",
+        "      }",
+        "    }",
+        "    return result;",
+        "  }",
+        "",
+        "  @SuppressWarnings(\"unchecked\")",
+        "  private Provider<Object> objectProvider() {",
+        "    Provider<Object> result = objectProvider;",
+        "    if (result == null) {",
+        "      synchronized (this) {",
+        "        result = objectProvider;",
+        "        if (result == null) {",
+        "          this.objectProvider =",
+        "              TestModule_ObjectFactory.create(",
+        "                  testModule, stringProvider(), numberProvider());",
+        "          result = objectProvider;",
+        "        }",
+        "      }",
+        "    }",
+        "    return result;",
+        "  }",
+        "",
+        "  @Override",
+        "  public Object object() {",
+        "    return objectProvider().get();",
+        "  }",
+        "",
+        "  public static final class Builder {",
+        "    private TestModule testModule;",
+        "    private Dep dep;",
+        "",
+        "    private Builder() {",
+        "    }",
+        "",
+        "    public TestComponent build() {",
+        "      if (testModule == null) {",
+        "        throw new IllegalStateException(",
+        "            TestModule.class.getCanonicalName() + \" must be set\");",
+        "      }",
+        "      if (dep == null) {",
+        "        throw new IllegalStateException(",
+        "            Dep.class.getCanonicalName() + \" must be set\");",
+        "      }",
+        "      return new DaggerTestComponent(this);",
+        "    }",
+        "",
+        "    public Builder testModule(TestModule testModule) {",
+        "      if (testModule == null) {",
+        "        throw new NullPointerException();",
+        "      }",
+        "      this.testModule = testModule;",
+        "      return this;",
+        "    }",
+        "",
+        "    public Builder dep(Dep dep) {",
+        "      if (dep == null) {",
+        "        throw new NullPointerException();",
+        "      }",
+        "      this.dep = dep;",
+        "      return this;",
+        "    }",
+        "  }",
+        "}");
+    assertAbout(javaSources())
+        .that(ImmutableList.of(depFile, moduleFile, componentFile))
+        .withCompilerOptions("-Adagger.lazyInitialization=ENABLED")
+        .processedWith(new ComponentProcessor())
+        .compilesWithoutError()
+        .and()
+        .generatesSources(generatedComponent);
+  }
+
+  @Test
+  public void parallelGeneration() {
+    JavaFileObject aFile = JavaFileObjects.forSourceLines("test.A",
+        "package test;",
+        "",
+        "import javax.inject.Inject;",
+        "import javax.inject.Singleton;",
+        "",
+        "@Singleton",
+        "final class A {",
+        "  @Inject A(String string) {}",
+        "}");
+    JavaFileObject moduleFile = JavaFileObjects.forSourceLines("test.TestModule",
+        "package test;",
+        "",
+        "import dagger.Module;",
+        "import dagger.Provides;",
+        "",
+        "import static dagger.Provides.Type.SET;",
+        "",
+        "@Module",
+        "final class TestModule {",
+        "  @Provides String string() {",
+        "    return \"string\";",
+        "  }",
+        "",
+        "  @Provides(type = SET) Integer one() {",
+        "    return 1;",
+        "  }",
+        "}");
+    JavaFileObject firstComponentFile = JavaFileObjects.forSourceLines("test.FirstComponent",
+        "package test;",
+        "",
+        "import dagger.Component;",
+        "import java.util.Set;",
+        "import javax.inject.Provider;",
+        "import javax.inject.Singleton;",
+        "",
+        "@Singleton",
+        "@Component(modules = TestModule.class)",
+        "interface FirstComponent {",
+        "  A a();",
+        "  Provider<A> aProvider();",
+        "  Set<Integer> integers();",
+        "}");
+    JavaFileObject secondComponentFile = JavaFileObjects.forSourceLines("test.SecondComponent",
+        "package test;",
+        "",
+        "import dagger.Component;",
+        "",
+        "@Component(modules = TestModule.class)",
+        "interface SecondComponent {",
+        "  String string();",
+        "",
+        "  final class Main {",
+        "    static A a() {",
+        "      return DaggerFirstComponent.create().a();",
+        "    }",
+        "  }",
+        "}");
+    JavaFileObject generatedFirstComponent = JavaFileObjects.forSourceLines(
+        "test.DaggerFirstComponent",
+        "package test;",
+        "",
+        "import dagger.internal.DoubleCheck;",
+        "import dagger.internal.SetFactory;",
+        "import java.util.Set;",
+        "import javax.annotation.Generated;",
+        "import javax.inject.Provider;",
+        "",
+        "@Generated(\"dagger.internal.codegen.ComponentProcessor\")",
+        "public final class DaggerFirstComponent implements FirstComponent {",
+        "  private Provider<String> stringProvider;",
+        "  private Provider<A> aProvider;",
+        "  private Provider<Set<Integer>> setOfIntegerContribution1Provider;",
+        "  private Provider<Set<Integer>> setOfIntegerProvider;",
+        "",
+        "  private DaggerFirstComponent(Builder builder) {",
+        "    assert builder != null;",
+        "    initialize(builder);",
+        "  }",
+        "",
+        "  public static Builder builder() {",
+        "    return new Builder();",
+        "  }",
+        "",
+        "  public static FirstComponent create() {",
+        "    return builder().build();",
+        "  }",
+        "",
+        "  @SuppressWarnings(\"unchecked\")",
+        "  private void initialize(final Builder builder) {",
+        "    this.stringProvider = TestModule_StringFactory.create(builder.testModule);",
+        "",
+        "    this.aProvider = DoubleCheck.provider(A_Factory.create(stringProvider));",
+        "    this.setOfIntegerContribution1Provider =",
+        "        TestModule_OneFactory.create(builder.testModule);",
+        "    this.setOfIntegerProvider =",
+        "        SetFactory.create(setOfIntegerContribution1Provider);",
+        "  }",
+        "",
+        "  @Override",
+        "  public A a() {",
+        "    return aProvider.get();",
+        "  }",
+        "",
+        "  @Override",
+        "  public Provider<A> aProvider() {",
+        "    return aProvider;",
+        "  }",
+        "",
+        "  @Override",
+        "  public Set<Integer> integers() {",
+        "    return setOfIntegerProvider.get();",
+        "  }",
+        "",
+        "  public static final class Builder {",
+        "    private TestModule testModule;",
+        "",
+        "    private Builder() {",
+        "    }",
+        "",
+        "    public FirstComponent build() {",
+        "      if (testModule == null) {",
+        "        this.testModule = new TestModule();",
+        "      }",
+        "      return new DaggerFirstComponent(this);",
+        "    }",
+        "",
+        "    public Builder testModule(TestModule testModule) {",
+        "      if (testModule == null) {",
+        "        throw new NullPointerException();",
+        "      }",
+        "      this.testModule = testModule;",
+        "      return this;",
+        "    }",
+        "  }",
+        "}");
+    JavaFileObject generatedSecondComponent = JavaFileObjects.forSourceLines(
+        "test.DaggerSecondComponent",
+        "package test;",
+        "",
+        "import javax.annotation.Generated;",
+        "import javax.inject.Provider;",
+        "",
+        "@Generated(\"dagger.internal.codegen.ComponentProcessor\")",
+        "public final class DaggerSecondComponent implements SecondComponent {",
+        "  private Provider<String> stringProvider;",
+        "",
+        "  private DaggerSecondComponent(Builder builder) {",
+        "    assert builder != null;",
+        "    initialize(builder);",
+        "  }",
+        "",
+        "  public static Builder builder() {",
+        "    return new Builder();",
+        "  }",
+        "",
+        "  public static SecondComponent create() {",
+        "    return builder().build();",
+        "  }",
+        "",
+        "  @SuppressWarnings(\"unchecked\")",
+        "  private void initialize(final Builder builder) {",
+        "    this.stringProvider = TestModule_StringFactory.create(builder.testModule);",
+        "  }",
+        "",
+        "  @Override",
+        "  public String string() {",
+        "    return stringProvider.get();",
+        "  }",
+        "",
+        "  public static final class Builder {",
+        "    private TestModule testModule;",
+        "",
+        "    private Builder() {",
+        "    }",
+        "",
+        "    public SecondComponent build() {",
+        "      if (testModule == null) {",
+        "        this.testModule = new TestModule();",
+        "      }",
+        "      return new DaggerSecondComponent(this);",
+        "    }",
+        "",
+        "    public Builder testModule(TestModule testModule) {",
+        "      if (testModule == null) {",
+        "        throw new NullPointerException();",
+        "      }",
+        "      this.testModule = testModule;",
+        "      return this;",
+        "    }",
+        "  }",
+        "}");
+    for (String parallelGeneration : ImmutableList.of("DISABLED", "ENABLED")) {
+      assertAbout(javaSources())
+          .that(ImmutableList.of(aFile, moduleFile, firstComponentFile, secondComponentFile))
+          .withCompilerOptions("-Adagger.parallelGeneration=" + parallelGeneration)
+          .processedWith(new ComponentProcessor())
+          .compilesWithoutError()
+          .and()
+          .generatesSources(generatedFirstComponent, generatedSecondComponent);
+    }
+  }
+
+  @Test
+  public void parallelGeneration_failedComponent() {
+    JavaFileObject badComponentFile = JavaFileObjects.forSourceLines("test.BadComponent",
+        "package test;",
+        "",
+        "import dagger.Component;",
+        "",
+        "@Component",
+        "interface BadComponent {}");
+    JavaFileObject existingFile = JavaFileObjects.forSourceLines("test.DaggerBadComponent",
+        "package test;",
+        "",
+        "final class DaggerBadComponent {}");
+    JavaFileObject goodComponentFile = JavaFileObjects.forSourceLines("test.GoodComponent",
+        "package test;",
+        "",
+        "import dagger.Component;",
+        "",
+        "@Component",
+        "interface GoodComponent {",
+        "  final class Main {",
+        "    static GoodComponent create() {",
+        "      return DaggerGoodComponent.create();",
+        "    }",
+        "  }",
+        "}");
+    assertAbout(javaSources())
+        .that(ImmutableList.of(badComponentFile, existingFile, goodComponentFile))
+        .withCompilerOptions("-Adagger.parallelGeneration=ENABLED")
+        .processedWith(new ComponentProcessor())
+        .failsToCompile()
+        .withErrorContaining("Could not generate [test.DaggerBadComponent]")
+        .in(badComponentFile).onLine(6)
+        .and()
+        .withErrorCount(1);
+  }
+
+  @Test
+  public void directInstanceBindings() {
+    JavaFileObject leafFile = JavaFileObjects.forSourceLines("test.Leaf",
+        "package test;",
+        "",
+        "import javax.inject.Inject;",
+        "",
+        "final class Leaf {",
+        "  @Inject Leaf() {}",
+        "}");
+    JavaFileObject midFile = JavaFileObjects.forSourceLines("test.Mid",
+        "package test;",
+        "",
+        "import javax.inject.Inject;",
+        "import javax.inject.Provider;",
+        "",
+        "final class Mid {",
+        "  @Inject Mid(Leaf leaf, Provider<Leaf> leafProvider) {}",
+        "}");
+    JavaFileObject moduleFile = JavaFileObjects.forSourceLines("test.TestModule",
+        "package test;",
+        "",
+        "import dagger.Module;",
+        "import dagger.Provides;",
+        "",
+        "@Module",
+        "final class TestModule {",
+        "  @Provides String string(Mid mid) {",
+        "    return mid.toString();",
+        "  }",
+        "}");
+    JavaFileObject componentFile = JavaFileObjects.forSourceLines("test.TestComponent",
+        "package test;",
+        "",
+        "import dagger.Component;",
+        "import javax.inject.Provider;",
+        "",
+        "@Component(modules = TestModule.class)",
+        "interface TestComponent {",
+        "  String string();",
+        "  Provider<Mid> midProvider();",
+        "}");
+    JavaFileObject generatedComponent = JavaFileObjects.forSourceLines(
+        "test.DaggerTestComponent",
+        "package test;",
+        "",
+        "import javax.annotation.Generated;",
+        "import javax.inject.Provider;",
+        "",
+        "@Generated(\"dagger.internal.codegen.ComponentProcessor\")",
+        "public final class DaggerTestComponent implements TestComponent {",
+        "  private Provider<Mid> midProvider;",
+        "  private final TestModule testModule;",
+        "",
+        "  private DaggerTestComponent(Builder builder) {",
+        "    assert builder != null;",
+        "    initialize(builder);",
+        "    this.testModule = builder.testModule;",
+        "  }",
+        "",
+        "  public static Builder builder() {",
+        "    return new Builder();",
+        "  }",
+        "",
+        "  public static TestComponent create() {",
+        "    return builder().build();",
+        "  }",
+        "",
+        "  @SuppressWarnings(\"unchecked\")",
+        "  private void initialize(final Builder builder) {",
+        "    this.midProvider = Mid_Factory.create(Leaf_Factory.create());",
+        "  }",
+        "",
+        "  @Override",
+        "  public String string() {",
+        "    return getString();",
+        "  }",
+        "",
+        "  private String getString() {",
+        "    String provided = testModule.string(getMid());",
+        "    if (provided == null) {",
+        "      throw new NullPointerException(" + NPE_PROVIDES_LITERAL + ");",
+        "    }",
+        "    return provided;",
+        "  }",
+        "",
+        "  private Mid getMid() {",
+        "    return new Mid(getLeaf(), Leaf_Factory.create());",
+        "  }",
+        "",
+        "  private Leaf getLeaf() {",
+        "    return new Leaf();",
+        "  }",
+        "",
+        "  @Override",
+        "  public Provider<Mid> midProvider() {",
+        "    return midProvider;",
+        "  }",
+        "",
+        "  public static final class Builder {",
+        "    private TestModule testModule;",
+        "",
+        "    private Builder() {",
+        "    }",
+        "",
+        "    public TestComponent build() {",
+        "      if (testModule == null) {",
+        "        this.testModule = new TestModule();",
+        "      }",
+        "      return new DaggerTestComponent(this);",
+        "    }",
+        "",
+        "    public Builder testModule(TestModule testModule) {",
+        "      if (testModule == null) {",
+        "        throw new NullPointerException();",
+        "      }",
+        "      this.testModule = testModule;",
+        "      return this;",
+        "    }",
+        "  }",
+        "}");
+    assertAbout(javaSources())
+        .that(ImmutableList.of(leafFile, midFile, moduleFile, componentFile))
+        .withCompilerOptions("-Adagger.directInstanceBindings=ENABLED")
+        .processedWith(new ComponentProcessor())
+        .compilesWithoutError()
+        .and()
+        .generatesSources(generatedComponent);
+  }
+
+  @Test
+  public void directInstanceBindings_inheritedProvidesMethod() {
+    JavaFileObject leafFile = JavaFileObjects.forSourceLines("test.Leaf",
+        "package test;",
+        "",
+        "import javax.inject.Inject;",
+        "",
+        "final class Leaf {",
+        "  @Inject Leaf() {}",
+        "}");
+    JavaFileObject parentModuleFile = JavaFileObjects.forSourceLines("test.ParentModule",
+        "package test;",
+        "",
+        "import dagger.Module;",
+        "import dagger.Provides;",
+        "",
+        "@Module",
+        "class ParentModule {",
+        "  @Provides String string(Leaf leaf) {",
+        "    return leaf.toString();",
+        "  }",
+        "}");
+    JavaFileObject moduleFile = JavaFileObjects.forSourceLines("test.TestModule",
+        "package test;",
+        "",
+        "import dagger.Module;",
+        "",
+        "@Module",
+        "final class TestModule extends ParentModule {}");
+    JavaFileObject componentFile = JavaFileObjects.forSourceLines("test.TestComponent",
+        "package test;",
+        "",
+        "import dagger.Component;",
+        "",
+        "@Component(modules = TestModule.class)",
+        "interface TestComponent {",
+        "  String string();",
+        "}");
+    JavaFileObject generatedComponent = JavaFileObjects.forSourceLines(
+        "test.DaggerTestComponent",
+        "package test;",
+        "",
+        "import javax.annotation.Generated;",
+        "",
+        "@Generated(\"dagger.internal.codegen.ComponentProcessor\")",
+        "public final class DaggerTestComponent implements TestComponent {",
+        "  private final TestModule testModule;",
+        "",
+        "  private DaggerTestComponent(Builder builder) {",
+        "    assert builder != null;",
+        "    initialize(builder);",
+        "    this.testModule = builder.testModule;",
+        "  }",
+        "",
+        "  public static Builder builder() {",
+        "    return new Builder();",
+        "  }",
+        "",
+        "  public static TestComponent create() {",
+        "    return builder().build();",
+        "  }",
+        "",
+        "  @SuppressWarnings(\"unchecked\")",
+        "  private void initialize(final Builder builder) {",
+        "  }",
+        "",
+        "  @Override",
+        "  public String string() {",
+        "    return getString();",
+        "  }",
+        "",
+        "  private String getString() {",
+        "    String provided = testModule.string(getLeaf());",
+        "    if (provided == null) {",
+        "      throw new NullPointerException(" + NPE_PROVIDES_LITERAL + ");",
+        "    }",
+        "    return provided;",
+        "  }",
+        "",
+        "  private Leaf getLeaf() {",
+        "    return new Leaf();",
+        "  }",
+        "",
+        "  public static final class Builder {",
+        "    private TestModule testModule;",
+        "",
+        "    private Builder() {",
+        "    }",
+        "",
+        "    public TestComponent build() {",
+        "      if (testModule == null) {",
+        "        this.testModule = new TestModule();",
+        "      }",
+        "      return new DaggerTestComponent(this);",
+        "    }",
+        "",
+        "    public Builder testModule(TestModule testModule) {",
+        "      if (testModule == null) {",
+        "        throw new NullPointerException();",
+        "      }",
+        "      this.testModule = testModule;",
+        "      return this;",
+        "    }",
+        "  }",
+        "}");
+    assertAbout(javaSources())
+        .that(ImmutableList.of(leafFile, parentModuleFile, moduleFile, componentFile))
+        .withCompilerOptions("-Adagger.directInstanceBindings=ENABLED")
+        .processedWith(new ComponentProcessor())
+        .compilesWithoutError()
+        .and()
+        .generatesSources(generatedComponent);
+  }
+
   @Test
   @Ignore // modify this test as necessary while debugging for your situation.
   @SuppressWarnings("unused")
@@ -70,6 +70,55 @@ public class GraphValidationScopingTest {
         .withErrorContaining(errorMessage);
   }
 
+  @Test public void componentsWithAnyScopeMayIncludeReusableBindings() {
+    JavaFileObject componentFile = JavaFileObjects.forSourceLines("test.MyComponent",
+        "package test;",
+        "",
+        "import dagger.Component;",
+        "",
+        "@Component(modules = ReusableModule.class)",
+        "interface MyComponent {",
+        "  ReusableType reusableType();",
+        "}");
+    JavaFileObject singletonComponentFile =
+        JavaFileObjects.forSourceLines("test.MySingletonComponent",
+            "package test;",
+            "",
+            "import dagger.Component;",
+            "import javax.inject.Singleton;",
+            "",
+            "@Singleton",
+            "@Component(modules = ReusableModule.class)",
+            "interface MySingletonComponent {",
+            "  ReusableType reusableType();",
+            "}");
+    JavaFileObject typeFile = JavaFileObjects.forSourceLines("test.ReusableType",
+        "package test;",
+        "",
+        "import dagger.Reusable;",
+        "import javax.inject.Inject;",
+        "",
+        "@Reusable",
+        "class ReusableType {",
+        "  @Inject ReusableType(String s) {}",
+        "}");
+    JavaFileObject moduleFile = JavaFileObjects.forSourceLines("test.ReusableModule",
+        "package test;",
+        "",
+        "import dagger.Module;",
+        "import dagger.Provides;",
+        "import dagger.Reusable;",
+        "",
+        "@Module",
+        "class ReusableModule {",
+        "  @Provides @Reusable String string() { return \"a string\"; }",
+        "}");
+    assert_().about(javaSources())
+        .that(asList(componentFile, singletonComponentFile, typeFile, moduleFile))
+        .processedWith(new ComponentProcessor())
+        .compilesWithoutError();
+  }
+
   @Test public void componentWithScopeIncludesIncompatiblyScopedBindings_Fail() {
     JavaFileObject componentFile = JavaFileObjects.forSourceLines("test.MyComponent",
         "package test;",
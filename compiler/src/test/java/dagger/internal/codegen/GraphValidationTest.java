@@ -256,6 +256,93 @@ public class GraphValidationTest {
         .onLine(27);
   }
 
+  @Test public void cyclicDependencyReportedForEachEntryPoint() {
+    JavaFileObject component = JavaFileObjects.forSourceLines("test.Outer",
+        "package test;",
+        "",
+        "import dagger.Component;",
+        "import javax.inject.Inject;",
+        "",
+        "final class Outer {",
+        "  static class A {",
+        "    @Inject A(C cParam) {}",
+        "  }",
+        "",
+        "  static class B {",
+        "    @Inject B(A aParam) {}",
+        "  }",
+        "",
+        "  static class C {",
+        "    @Inject C(B bParam) {}",
+        "  }",
+        "",
+        "  @Component()",
+        "  interface CComponent {",
+        "    A getA();",
+        "    C getC();",
+        "  }",
+        "}");
+
+    String firstError = "test.Outer.CComponent.getA() contains a dependency cycle:\n"
+        + "      test.Outer.A.<init>(test.Outer.C cParam)\n"
+        + "          [parameter: test.Outer.C cParam]\n"
+        + "      test.Outer.C.<init>(test.Outer.B bParam)\n"
+        + "          [parameter: test.Outer.B bParam]\n"
+        + "      test.Outer.B.<init>(test.Outer.A aParam)\n"
+        + "          [parameter: test.Outer.A aParam]";
+    String secondError = "test.Outer.CComponent.getC() contains a dependency cycle:\n"
+        + "      test.Outer.C.<init>(test.Outer.B bParam)\n"
+        + "          [parameter: test.Outer.B bParam]\n"
+        + "      test.Outer.B.<init>(test.Outer.A aParam)\n"
+        + "          [parameter: test.Outer.A aParam]\n"
+        + "      test.Outer.A.<init>(test.Outer.C cParam)\n"
+        + "          [parameter: test.Outer.C cParam]";
+
+    assertAbout(javaSource()).that(component)
+        .processedWith(new ComponentProcessor())
+        .failsToCompile()
+        .withErrorContaining(firstError).in(component).onLine(21)
+        .and().withErrorContaining(secondError).in(component).onLine(22);
+  }
+
+  @Test public void cyclicDependencyThroughAlreadyTraversedBinding() {
+    JavaFileObject component = JavaFileObjects.forSourceLines("test.Outer",
+        "package test;",
+        "",
+        "import dagger.Component;",
+        "import javax.inject.Inject;",
+        "",
+        "final class Outer {",
+        "  static class A {",
+        "    @Inject A(B bParam, C cParam) {}",
+        "  }",
+        "",
+        "  static class B {",
+        "    @Inject B(C cParam) {}",
+        "  }",
+        "",
+        "  static class C {",
+        "    @Inject C(A aParam) {}",
+        "  }",
+        "",
+        "  @Component()",
+        "  interface AComponent {",
+        "    A getA();",
+        "  }",
+        "}");
+
+    String expectedError = "test.Outer.AComponent.getA() contains a dependency cycle:\n"
+        + "      test.Outer.A.<init>(test.Outer.B bParam, test.Outer.C cParam)\n"
+        + "          [parameter: test.Outer.C cParam]\n"
+        + "      test.Outer.C.<init>(test.Outer.A aParam)\n"
+        + "          [parameter: test.Outer.A aParam]";
+
+    assertAbout(javaSource()).that(component)
+        .processedWith(new ComponentProcessor())
+        .failsToCompile()
+        .withErrorContaining(expectedError).in(component).onLine(21);
+  }
+
   @Test
   public void cyclicDependencyNotBrokenByMapBinding() {
     JavaFileObject component =
@@ -796,6 +796,123 @@ public class MapBindingComponentProcessorTest {
         .and().generatesSources(generatedComponent);
   }
 
+  @Test
+  public void mapBindings_lazyMapValues() {
+    JavaFileObject module =
+        JavaFileObjects.forSourceLines(
+            "test.MapModule",
+            "package test;",
+            "",
+            "import dagger.Module;",
+            "import dagger.Provides;",
+            "import dagger.mapkeys.StringKey;",
+            "",
+            "import static dagger.Provides.Type.MAP;",
+            "",
+            "@Module",
+            "final class MapModule {",
+            "  @Provides(type = MAP) @StringKey(\"AKey\") String provideStringForAKey() {",
+            "    return \"one\";",
+            "  }",
+            "",
+            "  @Provides(type = MAP) @StringKey(\"BKey\") String provideStringForBKey() {",
+            "    return \"two\";",
+            "  }",
+            "}");
+    JavaFileObject componentFile =
+        JavaFileObjects.forSourceLines(
+            "test.TestComponent",
+            "package test;",
+            "",
+            "import dagger.Component;",
+            "import java.util.Map;",
+            "",
+            "@Component(modules = MapModule.class)",
+            "interface TestComponent {",
+            "  Map<String, String> strings();",
+            "}");
+    JavaFileObject generatedComponent =
+        JavaFileObjects.forSourceLines(
+            "test.DaggerTestComponent",
+            "package test;",
+            "",
+            "import dagger.internal.LazyMapFactory;",
+            "import dagger.internal.MapProviderFactory;",
+            "import java.util.Map;",
+            "import javax.annotation.Generated;",
+            "import javax.inject.Provider;",
+            "",
+            "@Generated(\"dagger.internal.codegen.ComponentProcessor\")",
+            "public final class DaggerTestComponent implements TestComponent {",
+            "  private Provider<String> mapOfStringAndProviderOfStringContribution1;",
+            "  private Provider<String> mapOfStringAndProviderOfStringContribution2;",
+            "  private Provider<Map<String, Provider<String>>>",
+            "      mapOfStringAndProviderOfStringProvider;",
+            "  private Provider<Map<String, String>> mapOfStringAndStringProvider;",
+            "",
+            "  private DaggerTestComponent(Builder builder) {",
+            "    assert builder != null;",
+            "    initialize(builder);",
+            "  }",
+            "",
+            "  public static Builder builder() {",
+            "    return new Builder();",
+            "  }",
+            "",
+            "  public static TestComponent create() {",
+            "    return builder().build();",
+            "  }",
+            "",
+            "  @SuppressWarnings(\"unchecked\")",
+            "  private void initialize(final Builder builder) {",
+            "    this.mapOfStringAndProviderOfStringContribution1 =",
+            "        MapModule_ProvideStringForAKeyFactory.create(builder.mapModule);",
+            "    this.mapOfStringAndProviderOfStringContribution2 =",
+            "        MapModule_ProvideStringForBKeyFactory.create(builder.mapModule);",
+            "    this.mapOfStringAndProviderOfStringProvider =",
+            "        MapProviderFactory.<String, String>builder(2)",
+            "            .put(\"AKey\", mapOfStringAndProviderOfStringContribution1)",
+            "            .put(\"BKey\", mapOfStringAndProviderOfStringContribution2)",
+            "            .build();",
+            "    this.mapOfStringAndStringProvider =",
+            "        LazyMapFactory.create(mapOfStringAndProviderOfStringProvider);",
+            "  }",
+            "",
+            "  @Override",
+            "  public Map<String, String> strings() {",
+            "    return mapOfStringAndStringProvider.get();",
+            "  }",
+            "",
+            "  public static final class Builder {",
+            "    private MapModule mapModule;",
+            "",
+            "    private Builder() {",
+            "    }",
+            "",
+            "    public TestComponent build() {",
+            "      if (mapModule == null) {",
+            "        this.mapModule = new MapModule();",
+            "      }",
+            "      return new DaggerTestComponent(this);",
+            "    }",
+            "",
+            "    public Builder mapModule(MapModule mapModule) {",
+            "      if (mapModule == null) {",
+            "        throw new NullPointerException();",
+            "      }",
+            "      this.mapModule = mapModule;",
+            "      return this;",
+            "    }",
+            "  }",
+            "}");
+    assertAbout(javaSources())
+        .that(ImmutableList.of(module, componentFile))
+        .withCompilerOptions("-Adagger.lazyMapValues=ENABLED")
+        .processedWith(new ComponentProcessor())
+        .compilesWithoutError()
+        .and().generatesSources(generatedComponent);
+  }
+
   @Test
   public void mapBindingsWithDuplicateKeys() {
     JavaFileObject module =
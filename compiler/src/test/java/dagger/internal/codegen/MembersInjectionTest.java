@@ -387,7 +387,7 @@ public class MembersInjectionTest {
         "package test;",
         "",
         "import dagger.MembersInjector;",
-        "import dagger.internal.DoubleCheckLazy;",
+        "import dagger.internal.DoubleCheck;",
         "import javax.annotation.Generated;",
         "import javax.inject.Provider;",
         "",
@@ -407,7 +407,7 @@ public class MembersInjectionTest {
         "      throw new NullPointerException(\"Cannot inject members into a null reference\");",
         "    }",
         "    instance.string = stringProvider.get();",
-        "    instance.lazyString = DoubleCheckLazy.create(stringProvider);",
+        "    instance.lazyString = DoubleCheck.lazy(stringProvider);",
         "    instance.stringProvider = stringProvider;",
         "  }",
         "",
@@ -422,7 +422,7 @@ public class MembersInjectionTest {
         "",
         "  public static void injectLazyString(",
         "      FieldInjection instance, Provider<String> lazyStringProvider) {",
-        "    instance.lazyString = DoubleCheckLazy.create(lazyStringProvider);",
+        "    instance.lazyString = DoubleCheck.lazy(lazyStringProvider);",
         "  }",
         "",
         "  public static void injectStringProvider(",
@@ -457,7 +457,7 @@ public class MembersInjectionTest {
         "package test;",
         "",
         "import dagger.MembersInjector;",
-        "import dagger.internal.DoubleCheckLazy;",
+        "import dagger.internal.DoubleCheck;",
         "import javax.annotation.Generated;",
         "import javax.inject.Provider;",
         "",
@@ -479,7 +479,7 @@ public class MembersInjectionTest {
         "    }",
         "    instance.noArgs();",
         "    instance.oneArg(stringProvider.get());",
-        "    instance.manyArgs(stringProvider.get(), DoubleCheckLazy.create(stringProvider),",
+        "    instance.manyArgs(stringProvider.get(), DoubleCheck.lazy(stringProvider),",
         "        stringProvider);",
         "  }",
         "",
@@ -504,7 +504,7 @@ public class MembersInjectionTest {
         "      Provider<String> stringProvider2) {",
         "    instance.manyArgs(",
         "        stringProvider.get(),",
-        "        DoubleCheckLazy.create(lazyStringProvider),",
+        "        DoubleCheck.lazy(lazyStringProvider),",
         "        stringProvider2);",
         "  }",
         "}");
@@ -0,0 +1,54 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.internal.codegen;
+
+import com.google.common.testing.FakeTicker;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import static com.google.common.truth.Truth.assertThat;
+
+@RunWith(JUnit4.class)
+public class ProcessorStatsTest {
+  @Test public void disabled_recordsNothing() {
+    ProcessorStats stats = ProcessorStats.disabled();
+    stats.start("phase").stop();
+    stats.count(ProcessorStats.KEYS, 3);
+    assertThat(stats.isEnabled()).isFalse();
+    assertThat(stats.toJson()).isEqualTo("{\n  \"phases\": {},\n  \"counters\": {}\n}\n");
+  }
+
+  @Test public void enabled_recordsPhasesAndCounters() {
+    FakeTicker ticker = new FakeTicker();
+    ProcessorStats stats = ProcessorStats.enabled(ticker);
+    ProcessorStats.Timer outer = stats.start("outer");
+    ticker.advance(2);
+    ProcessorStats.Timer inner = stats.start("inner");
+    ticker.advance(3);
+    inner.stop();
+    outer.stop();
+    stats.start("inner").stop();
+    stats.count(ProcessorStats.KEYS, 3);
+    stats.count(ProcessorStats.KEYS, 4);
+    stats.count(ProcessorStats.GENERATED_FILES, 1);
+
+    String json = stats.toJson();
+    assertThat(json).contains("\"outer\": {\"count\": 1, \"wallNanos\": 5, \"allocatedBytes\": ");
+    assertThat(json).contains("\"inner\": {\"count\": 2, \"wallNanos\": 3, \"allocatedBytes\": ");
+    assertThat(json).contains("\"counters\": {\n    \"keys\": 7,\n    \"generatedFiles\": 1\n  }");
+  }
+}
@@ -33,6 +33,9 @@ import static dagger.internal.codegen.ErrorMessages.BINDING_METHOD_PRIVATE;
 import static dagger.internal.codegen.ErrorMessages.BINDING_METHOD_SET_VALUES_RAW_SET;
 import static dagger.internal.codegen.ErrorMessages.BINDING_METHOD_TYPE_PARAMETER;
 import static dagger.internal.codegen.ErrorMessages.BINDING_METHOD_WITH_SAME_NAME;
+import static dagger.internal.codegen.ErrorMessages.PRODUCES_METHOD_CONCRETE_EXECUTOR;
+import static dagger.internal.codegen.ErrorMessages.PRODUCES_METHOD_DIRECT_EXECUTOR;
+import static dagger.internal.codegen.ErrorMessages.PRODUCES_METHOD_NEGATIVE_TIMEOUT;
 import static dagger.internal.codegen.ErrorMessages.PRODUCES_METHOD_RAW_FUTURE;
 import static dagger.internal.codegen.ErrorMessages.PRODUCES_METHOD_RETURN_TYPE;
 import static dagger.internal.codegen.ErrorMessages.PRODUCES_METHOD_SET_VALUES_RETURN_SET;
@@ -136,6 +139,78 @@ public class ProducerModuleFactoryGeneratorTest {
         .withErrorContaining(PRODUCES_METHOD_RAW_FUTURE);
   }
 
+  @Test public void producesMethodDirectWithExecutor() {
+    JavaFileObject moduleFile = JavaFileObjects.forSourceLines("test.TestModule",
+        "package test;",
+        "",
+        "import dagger.producers.ProducerModule;",
+        "import dagger.producers.Produces;",
+        "import java.util.concurrent.Executor;",
+        "",
+        "import static dagger.producers.Produces.Execution.DIRECT;",
+        "",
+        "@ProducerModule",
+        "final class TestModule {",
+        "  interface BlockingExecutor extends Executor {}",
+        "",
+        "  @Produces(execution = DIRECT, executor = BlockingExecutor.class)",
+        "  String produceString() {",
+        "    return \"\";",
+        "  }",
+        "}");
+    assertAbout(javaSource()).that(moduleFile)
+        .processedWith(new ComponentProcessor())
+        .failsToCompile()
+        .withErrorContaining(PRODUCES_METHOD_DIRECT_EXECUTOR);
+  }
+
+  @Test public void producesMethodConcreteExecutor() {
+    JavaFileObject moduleFile = JavaFileObjects.forSourceLines("test.TestModule",
+        "package test;",
+        "",
+        "import dagger.producers.ProducerModule;",
+        "import dagger.producers.Produces;",
+        "import java.util.concurrent.Executor;",
+        "",
+        "@ProducerModule",
+        "final class TestModule {",
+        "  static final class BlockingExecutor implements Executor {",
+        "    @Override public void execute(Runnable runnable) {",
+        "      new Thread(runnable).start();",
+        "    }",
+        "  }",
+        "",
+        "  @Produces(executor = BlockingExecutor.class)",
+        "  String produceString() {",
+        "    return \"\";",
+        "  }",
+        "}");
+    assertAbout(javaSource()).that(moduleFile)
+        .processedWith(new ComponentProcessor())
+        .failsToCompile()
+        .withErrorContaining(PRODUCES_METHOD_CONCRETE_EXECUTOR).in(moduleFile).onLine(16);
+  }
+
+  @Test public void producesMethodNegativeTimeout() {
+    JavaFileObject moduleFile = JavaFileObjects.forSourceLines("test.TestModule",
+        "package test;",
+        "",
+        "import dagger.producers.ProducerModule;",
+        "import dagger.producers.Produces;",
+        "",
+        "@ProducerModule",
+        "final class TestModule {",
+        "  @Produces(timeoutMillis = -1)",
+        "  String produceString() {",
+        "    return \"\";",
+        "  }",
+        "}");
+    assertAbout(javaSource()).that(moduleFile)
+        .processedWith(new ComponentProcessor())
+        .failsToCompile()
+        .withErrorContaining(PRODUCES_METHOD_NEGATIVE_TIMEOUT);
+  }
+
   @Test public void producesMethodReturnWildcardFuture() {
     JavaFileObject moduleFile = JavaFileObjects.forSourceLines("test.TestModule",
         "package test;",
@@ -484,6 +559,174 @@ public class ProducerModuleFactoryGeneratorTest {
             "",
             "@Generated(\"dagger.internal.codegen.ComponentProcessor\")",
             "public final class TestModule_ProduceStringFactory extends AbstractProducer<String> {",
+            "  private static final ProducerToken TOKEN =",
+            "      ProducerToken.create(TestModule_ProduceStringFactory.class);",
+            "  private final TestModule module;",
+            "  private final Executor executor;",
+            "  private final Provider<ProductionComponentMonitor> monitorProvider;",
+            "",
+            "  public TestModule_ProduceStringFactory(",
+            "      TestModule module,",
+            "      Executor executor,",
+            "      Provider<ProductionComponentMonitor> monitorProvider) {",
+            "    super(monitorProvider, TOKEN);",
+            "    assert module != null;",
+            "    this.module = module;",
+            "    assert executor != null;",
+            "    this.executor = executor;",
+            "    assert monitorProvider != null;",
+            "    this.monitorProvider = monitorProvider;",
+            "  }",
+            "",
+            "  @Override protected ListenableFuture<String> compute(",
+            "      final ProducerMonitor monitor) {",
+            "    return Futures.transform(",
+            "        Futures.<Void>immediateFuture(null), new Transform(monitor), executor);",
+            "  }",
+            "",
+            "  private final class Transform implements AsyncFunction<Void, String> {",
+            "    private final ProducerMonitor monitor;",
+            "",
+            "    Transform(ProducerMonitor monitor) {",
+            "      this.monitor = monitor;",
+            "    }",
+            "",
+            "    @Override public ListenableFuture<String> apply(Void ignoredVoidArg) {",
+            "      monitor.methodStarting();",
+            "      try {",
+            "        return module.produceString();",
+            "      } finally {",
+            "        monitor.methodFinished();",
+            "      }",
+            "    }",
+            "  }",
+            "}");
+    assertAbout(javaSource())
+        .that(moduleFile)
+        .processedWith(new ComponentProcessor())
+        .compilesWithoutError()
+        .and()
+        .generatesSources(factoryFile);
+  }
+
+  @Test public void singleProducesMethodTimeout() {
+    JavaFileObject moduleFile = JavaFileObjects.forSourceLines("test.TestModule",
+        "package test;",
+        "",
+        "import com.google.common.util.concurrent.ListenableFuture;",
+        "import dagger.producers.ProducerModule;",
+        "import dagger.producers.Produces;",
+        "",
+        "@ProducerModule",
+        "final class TestModule {",
+        "  @Produces(timeoutMillis = 500) ListenableFuture<String> produceString() {",
+        "    return null;",
+        "  }",
+        "}");
+    JavaFileObject factoryFile =
+        JavaFileObjects.forSourceLines(
+            "TestModule_ProduceStringFactory",
+            "package test;",
+            "",
+            "import com.google.common.util.concurrent.AsyncFunction;",
+            "import com.google.common.util.concurrent.Futures;",
+            "import com.google.common.util.concurrent.ListenableFuture;",
+            "import dagger.producers.Deadline;",
+            "import dagger.producers.internal.AbstractProducer;",
+            "import dagger.producers.monitoring.ProducerMonitor;",
+            "import dagger.producers.monitoring.ProducerToken;",
+            "import dagger.producers.monitoring.ProductionComponentMonitor;",
+            "import java.util.concurrent.Executor;",
+            "import javax.annotation.Generated;",
+            "import javax.inject.Provider;",
+            "",
+            "@Generated(\"dagger.internal.codegen.ComponentProcessor\")",
+            "public final class TestModule_ProduceStringFactory extends AbstractProducer<String> {",
+            "  private static final ProducerToken TOKEN =",
+            "      ProducerToken.create(TestModule_ProduceStringFactory.class);",
+            "  private final TestModule module;",
+            "  private final Executor executor;",
+            "  private final Provider<ProductionComponentMonitor> monitorProvider;",
+            "",
+            "  public TestModule_ProduceStringFactory(",
+            "      TestModule module,",
+            "      Executor executor,",
+            "      Deadline deadline,",
+            "      Provider<ProductionComponentMonitor> monitorProvider) {",
+            "    super(monitorProvider, TOKEN, deadline, 500L);",
+            "    assert module != null;",
+            "    this.module = module;",
+            "    assert executor != null;",
+            "    this.executor = executor;",
+            "    assert monitorProvider != null;",
+            "    this.monitorProvider = monitorProvider;",
+            "  }",
+            "",
+            "  @Override protected ListenableFuture<String> compute(",
+            "      final ProducerMonitor monitor) {",
+            "    return Futures.transform(",
+            "        Futures.<Void>immediateFuture(null), new Transform(monitor), executor);",
+            "  }",
+            "",
+            "  private final class Transform implements AsyncFunction<Void, String> {",
+            "    private final ProducerMonitor monitor;",
+            "",
+            "    Transform(ProducerMonitor monitor) {",
+            "      this.monitor = monitor;",
+            "    }",
+            "",
+            "    @Override public ListenableFuture<String> apply(Void ignoredVoidArg) {",
+            "      monitor.methodStarting();",
+            "      try {",
+            "        return module.produceString();",
+            "      } finally {",
+            "        monitor.methodFinished();",
+            "      }",
+            "    }",
+            "  }",
+            "}");
+    assertAbout(javaSource())
+        .that(moduleFile)
+        .processedWith(new ComponentProcessor())
+        .compilesWithoutError()
+        .and()
+        .generatesSources(factoryFile);
+  }
+
+  @Test public void singleProducesMethodDirectExecution() {
+    JavaFileObject moduleFile = JavaFileObjects.forSourceLines("test.TestModule",
+        "package test;",
+        "",
+        "import dagger.producers.ProducerModule;",
+        "import dagger.producers.Produces;",
+        "",
+        "import static dagger.producers.Produces.Execution.DIRECT;",
+        "",
+        "@ProducerModule",
+        "final class TestModule {",
+        "  @Produces(execution = DIRECT) String produceString() {",
+        "    return \"\";",
+        "  }",
+        "}");
+    JavaFileObject factoryFile =
+        JavaFileObjects.forSourceLines(
+            "TestModule_ProduceStringFactory",
+            "package test;",
+            "",
+            "import com.google.common.util.concurrent.Futures;",
+            "import com.google.common.util.concurrent.ListenableFuture;",
+            "import dagger.producers.internal.AbstractProducer;",
+            "import dagger.producers.monitoring.ProducerMonitor;",
+            "import dagger.producers.monitoring.ProducerToken;",
+            "import dagger.producers.monitoring.ProductionComponentMonitor;",
+            "import java.util.concurrent.Executor;",
+            "import javax.annotation.Generated;",
+            "import javax.inject.Provider;",
+            "",
+            "@Generated(\"dagger.internal.codegen.ComponentProcessor\")",
+            "public final class TestModule_ProduceStringFactory extends AbstractProducer<String> {",
+            "  private static final ProducerToken TOKEN =",
+            "      ProducerToken.create(TestModule_ProduceStringFactory.class);",
             "  private final TestModule module;",
             "  private final Executor executor;",
             "  private final Provider<ProductionComponentMonitor> monitorProvider;",
@@ -492,9 +735,7 @@ public class ProducerModuleFactoryGeneratorTest {
             "      TestModule module,",
             "      Executor executor,",
             "      Provider<ProductionComponentMonitor> monitorProvider) {",
-            "    super(",
-            "        monitorProvider,",
-            "        ProducerToken.create(TestModule_ProduceStringFactory.class));",
+            "    super(monitorProvider, TOKEN);",
             "    assert module != null;",
             "    this.module = module;",
             "    assert executor != null;",
@@ -505,18 +746,194 @@ public class ProducerModuleFactoryGeneratorTest {
             "",
             "  @Override protected ListenableFuture<String> compute(",
             "      final ProducerMonitor monitor) {",
+            "    monitor.methodStarting();",
+            "    try {",
+            "      return Futures.<String>immediateFuture(module.produceString());",
+            "    } catch (Throwable t) {",
+            "      return Futures.<String>immediateFailedFuture(t);",
+            "    } finally {",
+            "      monitor.methodFinished();",
+            "    }",
+            "  }",
+            "}");
+    assertAbout(javaSource())
+        .that(moduleFile)
+        .processedWith(new ComponentProcessor())
+        .compilesWithoutError()
+        .and()
+        .generatesSources(factoryFile);
+  }
+
+  @Test public void singleProducesMethodNoArgsImmediate() {
+    JavaFileObject moduleFile = JavaFileObjects.forSourceLines("test.TestModule",
+        "package test;",
+        "",
+        "import dagger.producers.ProducerModule;",
+        "import dagger.producers.Produces;",
+        "",
+        "@ProducerModule",
+        "final class TestModule {",
+        "  @Produces String produceString() {",
+        "    return \"\";",
+        "  }",
+        "}");
+    JavaFileObject factoryFile =
+        JavaFileObjects.forSourceLines(
+            "TestModule_ProduceStringFactory",
+            "package test;",
+            "",
+            "import com.google.common.util.concurrent.ListenableFuture;",
+            "import dagger.producers.internal.AbstractProducer;",
+            "import dagger.producers.internal.Producers;",
+            "import dagger.producers.monitoring.ProducerMonitor;",
+            "import dagger.producers.monitoring.ProducerToken;",
+            "import dagger.producers.monitoring.ProductionComponentMonitor;",
+            "import java.util.concurrent.Callable;",
+            "import java.util.concurrent.Executor;",
+            "import javax.annotation.Generated;",
+            "import javax.inject.Provider;",
+            "",
+            "@Generated(\"dagger.internal.codegen.ComponentProcessor\")",
+            "public final class TestModule_ProduceStringFactory extends AbstractProducer<String> {",
+            "  private static final ProducerToken TOKEN =",
+            "      ProducerToken.create(TestModule_ProduceStringFactory.class);",
+            "  private final TestModule module;",
+            "  private final Executor executor;",
+            "  private final Provider<ProductionComponentMonitor> monitorProvider;",
+            "",
+            "  public TestModule_ProduceStringFactory(",
+            "      TestModule module,",
+            "      Executor executor,",
+            "      Provider<ProductionComponentMonitor> monitorProvider) {",
+            "    super(monitorProvider, TOKEN);",
+            "    assert module != null;",
+            "    this.module = module;",
+            "    assert executor != null;",
+            "    this.executor = executor;",
+            "    assert monitorProvider != null;",
+            "    this.monitorProvider = monitorProvider;",
+            "  }",
+            "",
+            "  @Override protected ListenableFuture<String> compute(",
+            "      final ProducerMonitor monitor) {",
+            "    return Producers.submitToExecutor(new Invocation(monitor), executor);",
+            "  }",
+            "",
+            "  private final class Invocation implements Callable<String> {",
+            "    private final ProducerMonitor monitor;",
+            "",
+            "    Invocation(ProducerMonitor monitor) {",
+            "      this.monitor = monitor;",
+            "    }",
+            "",
+            "    @Override public String call() {",
+            "      monitor.methodStarting();",
+            "      try {",
+            "        return module.produceString();",
+            "      } finally {",
+            "        monitor.methodFinished();",
+            "      }",
+            "    }",
+            "  }",
+            "}");
+    assertAbout(javaSource())
+        .that(moduleFile)
+        .processedWith(new ComponentProcessor())
+        .compilesWithoutError()
+        .and()
+        .generatesSources(factoryFile);
+  }
+
+  @Test public void singleProducesMethodMultipleArgs() {
+    JavaFileObject moduleFile = JavaFileObjects.forSourceLines("test.TestModule",
+        "package test;",
+        "",
+        "import dagger.producers.Produced;",
+        "import dagger.producers.ProducerModule;",
+        "import dagger.producers.Produces;",
+        "",
+        "@ProducerModule",
+        "final class TestModule {",
+        "  @Produces String produceString(int i, Produced<Long> l) {",
+        "    return \"\";",
+        "  }",
+        "}");
+    JavaFileObject factoryFile =
+        JavaFileObjects.forSourceLines(
+            "TestModule_ProduceStringFactory",
+            "package test;",
+            "",
+            "import com.google.common.util.concurrent.AsyncFunction;",
+            "import com.google.common.util.concurrent.Futures;",
+            "import com.google.common.util.concurrent.ListenableFuture;",
+            "import dagger.producers.Produced;",
+            "import dagger.producers.Producer;",
+            "import dagger.producers.internal.AbstractProducer;",
+            "import dagger.producers.internal.Producers;",
+            "import dagger.producers.monitoring.ProducerMonitor;",
+            "import dagger.producers.monitoring.ProducerToken;",
+            "import dagger.producers.monitoring.ProductionComponentMonitor;",
+            "import java.util.concurrent.Executor;",
+            "import javax.annotation.Generated;",
+            "import javax.inject.Provider;",
+            "",
+            "@Generated(\"dagger.internal.codegen.ComponentProcessor\")",
+            "public final class TestModule_ProduceStringFactory extends AbstractProducer<String> {",
+            "  private static final ProducerToken TOKEN =",
+            "      ProducerToken.create(TestModule_ProduceStringFactory.class);",
+            "  private final TestModule module;",
+            "  private final Executor executor;",
+            "  private final Provider<ProductionComponentMonitor> monitorProvider;",
+            "  private final Producer<Integer> iProducer;",
+            "  private final Producer<Long> lProducer;",
+            "",
+            "  public TestModule_ProduceStringFactory(",
+            "      TestModule module,",
+            "      Executor executor,",
+            "      Provider<ProductionComponentMonitor> monitorProvider,",
+            "      Producer<Integer> iProducer,",
+            "      Producer<Long> lProducer) {",
+            "    super(monitorProvider, TOKEN);",
+            "    assert module != null;",
+            "    this.module = module;",
+            "    assert executor != null;",
+            "    this.executor = executor;",
+            "    assert monitorProvider != null;",
+            "    this.monitorProvider = monitorProvider;",
+            "    assert iProducer != null;",
+            "    this.iProducer = iProducer;",
+            "    assert lProducer != null;",
+            "    this.lProducer = lProducer;",
+            "  }",
+            "",
+            "  @Override protected ListenableFuture<String> compute(",
+            "      final ProducerMonitor monitor) {",
+            "    ListenableFuture<Integer> iProducerFuture = iProducer.get();",
+            "    ListenableFuture<Produced<Long>> lProducerFuture =",
+            "        Producers.createFutureProduced(lProducer.get());",
             "    return Futures.transform(",
-            "      Futures.<Void>immediateFuture(null),",
-            "      new AsyncFunction<Void, String>() {",
-            "        @Override public ListenableFuture<String> apply(Void ignoredVoidArg) {",
-            "          monitor.methodStarting();",
-            "          try {",
-            "            return module.produceString();",
-            "          } finally {",
-            "            monitor.methodFinished();",
-            "          }",
-            "        }",
-            "      }, executor);",
+            "        Producers.allAsArray(iProducerFuture, lProducerFuture),",
+            "        new Transform(monitor),",
+            "        executor);",
+            "  }",
+            "",
+            "  private final class Transform implements AsyncFunction<Object[], String> {",
+            "    private final ProducerMonitor monitor;",
+            "",
+            "    Transform(ProducerMonitor monitor) {",
+            "      this.monitor = monitor;",
+            "    }",
+            "",
+            "    @SuppressWarnings(\"unchecked\")",
+            "    @Override public ListenableFuture<String> apply(Object[] args) {",
+            "      monitor.methodStarting();",
+            "      try {",
+            "        return Futures.<String>immediateFuture(",
+            "            module.produceString((Integer) args[0], (Produced<Long>) args[1]));",
+            "      } finally {",
+            "        monitor.methodFinished();",
+            "      }",
+            "    }",
             "  }",
             "}");
     assertAbout(javaSource())
@@ -131,6 +131,7 @@ public class ProductionComponentProcessorTest {
             "import com.google.common.util.concurrent.ListenableFuture;",
             "import dagger.internal.InstanceFactory;",
             "import dagger.internal.SetFactory;",
+            "import dagger.producers.Deadline;",
             "import dagger.producers.Producer;",
             "import dagger.producers.internal.Producers;",
             "import dagger.producers.monitoring.ProductionComponentMonitor;",
@@ -153,10 +154,12 @@ public class ProductionComponentProcessorTest {
             "  private Provider<ProductionComponentMonitor> monitorProvider;",
             "  private Provider<B> bProvider;",
             "  private Producer<A> aProducer;",
+            "  private final Deadline deadline;",
             "",
             "  private DaggerTestClass_SimpleComponent(Builder builder) {",
             "    assert builder != null;",
             "    initialize(builder);",
+            "    this.deadline = builder.deadline;",
             "  }",
             "",
             "  public static Builder builder() {",
@@ -186,7 +189,7 @@ public class ProductionComponentProcessorTest {
             "",
             "  @Override",
             "  public ListenableFuture<A> a() {",
-            "    return aProducer.get();",
+            "    return Producers.withDeadline(aProducer.get(), deadline);",
             "  }",
             "",
             "  public static final class Builder {",
@@ -195,6 +198,7 @@ public class ProductionComponentProcessorTest {
             "    private BModule bModule;",
             "    private AModule aModule;",
             "    private Executor executor;",
+            "    private Deadline deadline;",
             "",
             "    private Builder() {",
             "    }",
@@ -214,6 +218,9 @@ public class ProductionComponentProcessorTest {
             "        throw new IllegalStateException(Executor.class.getCanonicalName()",
             "            + \" must be set\");",
             "      }",
+            "      if (deadline == null) {",
+            "        this.deadline = new Deadline();",
+            "      }",
             "      return new DaggerTestClass_SimpleComponent(this);",
             "    }",
             "",
@@ -251,6 +258,14 @@ public class ProductionComponentProcessorTest {
             "      this.executor = executor;",
             "      return this;",
             "    }",
+            "",
+            "    public Builder deadline(Deadline deadline) {",
+            "      if (deadline == null) {",
+            "        throw new NullPointerException();",
+            "      }",
+            "      this.deadline = deadline;",
+            "      return this;",
+            "    }",
             "  }",
             "}");
     assertAbout(javaSource()).that(component)
@@ -258,4 +273,45 @@ public class ProductionComponentProcessorTest {
         .compilesWithoutError()
         .and().generatesSources(generatedComponent);
   }
+
+  @Test public void producesMethodExecutor() {
+    JavaFileObject component = JavaFileObjects.forSourceLines("test.TestClass",
+        "package test;",
+        "",
+        "import com.google.common.util.concurrent.ListenableFuture;",
+        "import dagger.producers.ProducerModule;",
+        "import dagger.producers.Produces;",
+        "import dagger.producers.ProductionComponent;",
+        "import java.util.concurrent.Executor;",
+        "",
+        "final class TestClass {",
+        "  interface BlockingExecutor extends Executor {}",
+        "",
+        "  @ProducerModule",
+        "  static final class AModule {",
+        "    @Produces(executor = BlockingExecutor.class) static String blocking() {",
+        "      return \"\";",
+        "    }",
+        "",
+        "    @Produces static Integer cheap(String s) {",
+        "      return s.length();",
+        "    }",
+        "  }",
+        "",
+        "  @ProductionComponent(modules = AModule.class)",
+        "  interface SimpleComponent {",
+        "    ListenableFuture<Integer> cheap();",
+        "  }",
+        "",
+        "  static SimpleComponent create(Executor executor, BlockingExecutor blockingExecutor) {",
+        "    return DaggerTestClass_SimpleComponent.builder()",
+        "        .executor(executor)",
+        "        .blockingExecutor(blockingExecutor)",
+        "        .build();",
+        "  }",
+        "}");
+    assertAbout(javaSource()).that(component)
+        .processedWith(new ComponentProcessor())
+        .compilesWithoutError();
+  }
 }
@@ -446,4 +446,30 @@ public final class SubcomponentValidationTest {
         .and()
         .generatesSources(componentGeneratedFile);
   }
+
+  @Test public void reusableSubcomponent() {
+    JavaFileObject componentFile = JavaFileObjects.forSourceLines("test.TestComponent",
+        "package test;",
+        "",
+        "import dagger.Component;",
+        "",
+        "@Component",
+        "interface TestComponent {",
+        "  ChildComponent newChildComponent();",
+        "}");
+    JavaFileObject childComponentFile = JavaFileObjects.forSourceLines("test.ChildComponent",
+        "package test;",
+        "",
+        "import dagger.Reusable;",
+        "import dagger.Subcomponent;",
+        "",
+        "@Reusable",
+        "@Subcomponent",
+        "interface ChildComponent {}");
+    assertAbout(javaSources()).that(ImmutableList.of(componentFile, childComponentFile))
+        .processedWith(new ComponentProcessor())
+        .failsToCompile()
+        .withErrorContaining(ErrorMessages.REUSABLE_ON_COMPONENT)
+        .in(childComponentFile).onLine(6);
+  }
 }
@@ -0,0 +1,144 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.internal;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import static dagger.internal.Collections.addToHashIndex;
+import static dagger.internal.Collections.indexOf;
+import static dagger.internal.Collections.newHashIndex;
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.singletonMap;
+
+/**
+ * An immutable {@link Map} that stores its keys and values, in insertion order, in parallel arrays.
+ * Maps with more than {@link Collections#MAX_LINEAR_SEARCH_SIZE} entries also keep an
+ * open-addressed hash index of key positions, so a map costs a few words per entry rather than an
+ * entry object per entry as {@link java.util.LinkedHashMap} does. Entry objects are only created
+ * while iterating over {@link #entrySet}.
+ *
+ * @since 2.1
+ */
+final class ArrayBackedMap<K, V> extends AbstractMap<K, V> {
+  /**
+   * Returns an immutable map of {@code keys[i]} to {@code values[i]}, in array order. The arrays
+   * are reused for storage, so callers must not modify them after invoking this method. Keys must
+   * be non-null and distinct; values may be null.
+   */
+  static <K, V> Map<K, V> copyOf(Object[] keys, Object[] values) {
+    return create(keys, newKeyIndex(keys), values);
+  }
+
+  /**
+   * Returns a hash index for the given keys that may be shared by every map created by
+   * {@link #create} for those keys. Keys must be non-null and distinct.
+   */
+  static int[] newKeyIndex(Object[] keys) {
+    int[] index = newHashIndex(keys.length);
+    for (int i = 0; i < keys.length; i++) {
+      boolean added = addToHashIndex(keys, i, index);
+      assert added : "Duplicate key: " + keys[i];
+    }
+    return index;
+  }
+
+  /**
+   * Returns an immutable map of {@code keys[i]} to {@code values[i]} that shares the given keys and
+   * their {@linkplain #newKeyIndex index}. The arrays are reused for storage, so callers must not
+   * modify them after invoking this method.
+   */
+  @SuppressWarnings("unchecked") // the arrays only contain keys of type K and values of type V
+  static <K, V> Map<K, V> create(Object[] keys, int[] index, Object[] values) {
+    assert keys.length == values.length;
+    switch (keys.length) {
+      case 0:
+        return emptyMap();
+      case 1:
+        return singletonMap((K) keys[0], (V) values[0]);
+      default:
+        return new ArrayBackedMap<K, V>(keys, index, values);
+    }
+  }
+
+  private final Object[] keys;
+  private final int[] index;
+  private final Object[] values;
+
+  private ArrayBackedMap(Object[] keys, int[] index, Object[] values) {
+    this.keys = keys;
+    this.index = index;
+    this.values = values;
+  }
+
+  @Override
+  public int size() {
+    return keys.length;
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return indexOf(keys, index, key) >= 0;
+  }
+
+  @SuppressWarnings("unchecked") // the array only contains values of type V
+  @Override
+  public V get(Object key) {
+    int position = indexOf(keys, index, key);
+    return position < 0 ? null : (V) values[position];
+  }
+
+  @Override
+  public Set<Entry<K, V>> entrySet() {
+    return new AbstractSet<Entry<K, V>>() {
+      @Override
+      public int size() {
+        return keys.length;
+      }
+
+      @Override
+      public Iterator<Entry<K, V>> iterator() {
+        return new Iterator<Entry<K, V>>() {
+          private int next = 0;
+
+          @Override
+          public boolean hasNext() {
+            return next < keys.length;
+          }
+
+          @SuppressWarnings("unchecked") // the arrays only contain keys of type K and values of V
+          @Override
+          public Entry<K, V> next() {
+            if (!hasNext()) {
+              throw new NoSuchElementException();
+            }
+            int position = next++;
+            return new SimpleImmutableEntry<K, V>((K) keys[position], (V) values[position]);
+          }
+
+          @Override
+          public void remove() {
+            throw new UnsupportedOperationException();
+          }
+        };
+      }
+    };
+  }
+}
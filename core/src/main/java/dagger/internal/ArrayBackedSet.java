@@ -0,0 +1,118 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.internal;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import static dagger.internal.Collections.addToHashIndex;
+import static dagger.internal.Collections.indexOf;
+import static dagger.internal.Collections.newHashIndex;
+import static java.util.Collections.emptySet;
+import static java.util.Collections.singleton;
+
+/**
+ * An immutable {@link Set} that stores its elements, in insertion order, in a single array. Sets
+ * with more than {@link Collections#MAX_LINEAR_SEARCH_SIZE} elements also keep an open-addressed
+ * hash index of array positions, so a set costs a few words per element rather than an entry
+ * object per element as {@link java.util.LinkedHashSet} does.
+ *
+ * @since 2.1
+ */
+final class ArrayBackedSet<E> extends AbstractSet<E> {
+  /**
+   * Returns an immutable set of the distinct elements of {@code elements}, in the order in which
+   * they first appear. The array is reused for storage, so callers must not modify it after
+   * invoking this method. Elements must be non-null.
+   */
+  @SuppressWarnings("unchecked") // the array only contains elements of type E
+  static <E> Set<E> copyOf(Object[] elements) {
+    switch (elements.length) {
+      case 0:
+        return emptySet();
+      case 1:
+        return singleton((E) elements[0]);
+      default:
+        int[] index = newHashIndex(elements.length);
+        int size = 0;
+        for (int i = 0; i < elements.length; i++) {
+          elements[size] = elements[i];
+          if (addToHashIndex(elements, size, index)) {
+            size++;
+          }
+        }
+        if (size == 1) {
+          return singleton((E) elements[0]);
+        }
+        if (size < elements.length) {
+          elements = Arrays.copyOf(elements, size);
+        }
+        return new ArrayBackedSet<E>(elements, index);
+    }
+  }
+
+  private final Object[] elements;
+  private final int[] index;
+
+  private ArrayBackedSet(Object[] elements, int[] index) {
+    this.elements = elements;
+    this.index = index;
+  }
+
+  @Override
+  public int size() {
+    return elements.length;
+  }
+
+  @Override
+  public boolean contains(Object o) {
+    return indexOf(elements, index, o) >= 0;
+  }
+
+  @Override
+  public Iterator<E> iterator() {
+    return new Iterator<E>() {
+      private int next = 0;
+
+      @Override
+      public boolean hasNext() {
+        return next < elements.length;
+      }
+
+      @SuppressWarnings("unchecked") // the array only contains elements of type E
+      @Override
+      public E next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        return (E) elements[next++];
+      }
+
+      @Override
+      public void remove() {
+        throw new UnsupportedOperationException();
+      }
+    };
+  }
+
+  @Override
+  public Object[] toArray() {
+    return elements.clone();
+  }
+}
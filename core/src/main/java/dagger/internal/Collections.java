@@ -16,7 +16,6 @@
 package dagger.internal;
 
 import java.util.LinkedHashMap;
-import java.util.LinkedHashSet;
 
 final class Collections {
   /**
@@ -24,15 +23,16 @@ final class Collections {
    */
   private static final int MAX_POWER_OF_TWO = 1 << (Integer.SIZE - 2);
 
-  private Collections() {
-  }
-
   /**
-   * Creates a {@link LinkedHashSet} instance, with a high enough "initial capacity" that it
-   * <em>should</em> hold {@code expectedSize} elements without growth.
+   * The largest number of elements in an array-backed collection that are searched linearly rather
+   * than through a hash index.
    */
-  static <E> LinkedHashSet<E> newLinkedHashSetWithExpectedSize(int expectedSize) {
-    return new LinkedHashSet<E>(calculateInitialCapacity(expectedSize));
+  static final int MAX_LINEAR_SEARCH_SIZE = 2;
+
+  private static final int C1 = 0xcc9e2d51;
+  private static final int C2 = 0x1b873593;
+
+  private Collections() {
   }
 
   /**
@@ -43,6 +43,81 @@ final class Collections {
     return new LinkedHashMap<K, V>(calculateInitialCapacity(expectedSize));
   }
 
+  /**
+   * Returns a new, empty hash index for an array of {@code size} elements, or {@code null} if the
+   * array is small enough to be searched linearly. The index is a power of two in length and at
+   * most half full so that probe sequences stay short.
+   */
+  static int[] newHashIndex(int size) {
+    if (size <= MAX_LINEAR_SEARCH_SIZE) {
+      return null;
+    }
+    return new int[Integer.highestOneBit(size * 2 - 1) << 1];
+  }
+
+  /**
+   * Adds {@code elements[size]} to the given hash index unless an equal element is already present
+   * in the first {@code size} entries of {@code elements}.
+   *
+   * @return {@code true} if the element was not already present
+   */
+  static boolean addToHashIndex(Object[] elements, int size, int[] index) {
+    Object element = elements[size];
+    if (index == null) {
+      for (int i = 0; i < size; i++) {
+        if (element.equals(elements[i])) {
+          return false;
+        }
+      }
+      return true;
+    }
+    int mask = index.length - 1;
+    for (int slot = smear(element.hashCode()) & mask; ; slot = (slot + 1) & mask) {
+      int position = index[slot] - 1;
+      if (position < 0) {
+        index[slot] = size + 1;
+        return true;
+      }
+      if (element.equals(elements[position])) {
+        return false;
+      }
+    }
+  }
+
+  /**
+   * Returns the position of {@code element} in {@code elements} using the given hash index (see
+   * {@link #newHashIndex}), or {@code -1} if it is not present.
+   */
+  static int indexOf(Object[] elements, int[] index, Object element) {
+    if (element == null) {
+      return -1;
+    }
+    if (index == null) {
+      for (int i = 0; i < elements.length; i++) {
+        if (element.equals(elements[i])) {
+          return i;
+        }
+      }
+      return -1;
+    }
+    int mask = index.length - 1;
+    for (int slot = smear(element.hashCode()) & mask; ; slot = (slot + 1) & mask) {
+      int position = index[slot] - 1;
+      if (position < 0 || element.equals(elements[position])) {
+        return position;
+      }
+    }
+  }
+
+  /**
+   * Spreads the bits of a hash code so that keys with poorly distributed hash codes don't collide
+   * in a power-of-two sized table. This is the same mixing step used by Guava's hash-based
+   * immutable collections.
+   */
+  private static int smear(int hashCode) {
+    return C2 * Integer.rotateLeft(hashCode * C1, 15);
+  }
+
   private static int calculateInitialCapacity(int expectedSize) {
     if (expectedSize < 3) {
       return expectedSize + 1;
@@ -24,49 +24,14 @@ import javax.inject.Provider;
  *
  * @author Gregory Kick
  * @since 2.0
+ * @deprecated Use {@link DoubleCheck#lazy(Provider)}. This class is kept so that components
+ *     generated by earlier versions of Dagger continue to link.
  */
-// TODO(gak): Unify the duplicated code between this and ScopedProvider.
-public final class DoubleCheckLazy<T> implements Lazy<T> {
-  private static final Object UNINITIALIZED = new Object();
-
-  private final Provider<T> provider;
-  private volatile Object instance = UNINITIALIZED;
-
-  private DoubleCheckLazy(Provider<T> provider) {
-    assert provider != null;
-    this.provider = provider;
-  }
-
-  @SuppressWarnings("unchecked") // cast only happens when result comes from the factory
-  @Override
-  public T get() {
-    // to suppress it.
-    Object result = instance;
-    if (result == UNINITIALIZED) {
-      synchronized (this) {
-        result = instance;
-        if (result == UNINITIALIZED) {
-          instance = result = provider.get();
-        }
-      }
-    }
-    return (T) result;
-  }
-
+@Deprecated
+public final class DoubleCheckLazy {
   public static <T> Lazy<T> create(Provider<T> provider) {
-    if (provider == null) {
-      throw new NullPointerException();
-    }
-    if (provider instanceof Lazy) {
-      @SuppressWarnings("unchecked")
-      final Lazy<T> lazy = (Lazy<T>) provider;
-      // Avoids memoizing a value that is already memoized.
-      // NOTE: There is a pathological case where Provider<P> may implement Lazy<L>, but P and L
-      // are different types using covariant return on get(). Right now this is used with
-      // ScopedProvider<T> exclusively, which is implemented such that P and L are always the same
-      // so it will be fine for that case.
-      return lazy;
-    }
-    return new DoubleCheckLazy<T>(provider);
+    return DoubleCheck.lazy(provider);
   }
+
+  private DoubleCheckLazy() {}
 }
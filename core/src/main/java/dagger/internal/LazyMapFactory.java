@@ -0,0 +1,215 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.internal;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import javax.inject.Provider;
+
+import static dagger.internal.Collections.indexOf;
+import static java.util.Collections.emptyMap;
+
+/**
+ * A {@link Factory} implementation used to implement {@link Map} bindings whose values are only
+ * provided when they are looked up. Like {@link MapFactory}, this factory returns a new
+ * {@code Map<K, V>} for each call to {@link #get}, but the value providers are not invoked until
+ * the corresponding entry is first read through {@link Map#get}, iteration, or any other method
+ * that needs the value. Each value is then kept by that map, so repeated reads of an entry return
+ * the same value.
+ *
+ * <p>Since values are provided lazily, exceptions thrown by a value provider surface when the
+ * entry is read rather than when the map is injected.
+ *
+ * @since 2.1
+ */
+public final class LazyMapFactory<K, V> implements Factory<Map<K, V>> {
+  private final Object[] keys;
+  private final int[] keyIndex;
+  private final Object[] providers;
+
+  private LazyMapFactory(Object[] keys, int[] keyIndex, Object[] providers) {
+    this.keys = keys;
+    this.keyIndex = keyIndex;
+    this.providers = providers;
+  }
+
+  /**
+   * Returns a new LazyMapFactory.
+   */
+  public static <K, V> LazyMapFactory<K, V> create(
+      Provider<Map<K, Provider<V>>> mapProviderFactory) {
+    if (mapProviderFactory instanceof MapProviderFactory) {
+      // Share the frozen keys, index and providers rather than copying them.
+      @SuppressWarnings("unchecked") // a MapProviderFactory is only ever a Factory of its own type
+      MapProviderFactory<K, V> factory = (MapProviderFactory<K, V>) mapProviderFactory;
+      return new LazyMapFactory<K, V>(factory.keys(), factory.keyIndex(), factory.providers());
+    }
+    Map<K, Provider<V>> map = mapProviderFactory.get();
+    Object[] keys = map.keySet().toArray();
+    return new LazyMapFactory<K, V>(
+        keys, ArrayBackedMap.newKeyIndex(keys), map.values().toArray());
+  }
+
+  /**
+   * Returns a {@code Map<K, V>} whose iteration order is that of the elements given by each of the
+   * providers, which are invoked the first time their entry is read.
+   */
+  @Override
+  public Map<K, V> get() {
+    if (keys.length == 0) {
+      return emptyMap();
+    }
+    return new LazyValueMap<K, V>(keys, keyIndex, providers);
+  }
+
+  /**
+   * An immutable map that shares the frozen keys of its factory and provides each value on first
+   * read. Values are published with a compare-and-set so that every reader of a given map sees the
+   * same value for an entry, even if its provider was invoked by more than one thread.
+   */
+  private static final class LazyValueMap<K, V> extends AbstractMap<K, V> {
+    private static final Object UNINITIALIZED = null;
+
+    private final Object[] keys;
+    private final int[] keyIndex;
+    private final Object[] providers;
+    private final AtomicReferenceArray<Object> values;
+
+    LazyValueMap(Object[] keys, int[] keyIndex, Object[] providers) {
+      this.keys = keys;
+      this.keyIndex = keyIndex;
+      this.providers = providers;
+      this.values = new AtomicReferenceArray<Object>(keys.length);
+    }
+
+    @SuppressWarnings("unchecked") // the arrays only contain values and providers of type V
+    private V valueAt(int position) {
+      Object value = values.get(position);
+      if (value == UNINITIALIZED) {
+        Object provided = ((Provider<V>) providers[position]).get();
+        // null values are wrapped so that they can be told apart from unread entries
+        value = provided == null ? NullValue.INSTANCE : provided;
+        if (!values.compareAndSet(position, UNINITIALIZED, value)) {
+          value = values.get(position);
+        }
+      }
+      return value == NullValue.INSTANCE ? null : (V) value;
+    }
+
+    @Override
+    public int size() {
+      return keys.length;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+      return indexOf(keys, keyIndex, key) >= 0;
+    }
+
+    @Override
+    public V get(Object key) {
+      int position = indexOf(keys, keyIndex, key);
+      return position < 0 ? null : valueAt(position);
+    }
+
+    @Override
+    public Set<K> keySet() {
+      return new AbstractSet<K>() {
+        @Override
+        public int size() {
+          return keys.length;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+          return containsKey(o);
+        }
+
+        @Override
+        public Iterator<K> iterator() {
+          return new PositionIterator<K>(keys.length) {
+            @SuppressWarnings("unchecked") // the array only contains keys of type K
+            @Override
+            K at(int position) {
+              return (K) keys[position];
+            }
+          };
+        }
+      };
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+      return new AbstractSet<Entry<K, V>>() {
+        @Override
+        public int size() {
+          return keys.length;
+        }
+
+        @Override
+        public Iterator<Entry<K, V>> iterator() {
+          return new PositionIterator<Entry<K, V>>(keys.length) {
+            @SuppressWarnings("unchecked") // the array only contains keys of type K
+            @Override
+            Entry<K, V> at(int position) {
+              return new SimpleImmutableEntry<K, V>((K) keys[position], valueAt(position));
+            }
+          };
+        }
+      };
+    }
+  }
+
+  /** An unmodifiable iterator over the positions {@code [0, size)}. */
+  private abstract static class PositionIterator<T> implements Iterator<T> {
+    private final int size;
+    private int next = 0;
+
+    PositionIterator(int size) {
+      this.size = size;
+    }
+
+    abstract T at(int position);
+
+    @Override
+    public boolean hasNext() {
+      return next < size;
+    }
+
+    @Override
+    public T next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      return at(next++);
+    }
+
+    @Override
+    public void remove() {
+      throw new UnsupportedOperationException();
+    }
+  }
+
+  /** Marks an entry whose provider returned {@code null}. */
+  private enum NullValue {
+    INSTANCE
+  }
+}
@@ -16,12 +16,8 @@
 package dagger.internal;
 
 import java.util.Map;
-import java.util.Map.Entry;
 import javax.inject.Provider;
 
-import static dagger.internal.Collections.newLinkedHashMapWithExpectedSize;
-import static java.util.Collections.unmodifiableMap;
-
 /**
  * A {@link Factory} implementation used to implement {@link Map} bindings. This factory returns a
  * {@code Map<K, V>} when calling {@link #get} (as specified by {@link Factory}).
@@ -31,30 +27,42 @@ import static java.util.Collections.unmodifiableMap;
  *
  */
 public final class MapFactory<K, V> implements Factory<Map<K, V>> {
-  private final Map<K, Provider<V>> contributingMap;
+  private final Object[] keys;
+  private final int[] keyIndex;
+  private final Object[] providers;
 
-  private MapFactory(Map<K, Provider<V>> map) {
-    this.contributingMap = unmodifiableMap(map);
+  private MapFactory(Object[] keys, int[] keyIndex, Object[] providers) {
+    this.keys = keys;
+    this.keyIndex = keyIndex;
+    this.providers = providers;
   }
 
   /**
    * Returns a new MapFactory.
    */
   public static <K, V> MapFactory<K, V> create(Provider<Map<K, Provider<V>>> mapProviderFactory) {
+    if (mapProviderFactory instanceof MapProviderFactory) {
+      // Share the frozen keys, index and providers rather than copying them.
+      @SuppressWarnings("unchecked") // a MapProviderFactory is only ever a Factory of its own type
+      MapProviderFactory<K, V> factory = (MapProviderFactory<K, V>) mapProviderFactory;
+      return new MapFactory<K, V>(factory.keys(), factory.keyIndex(), factory.providers());
+    }
     Map<K, Provider<V>> map = mapProviderFactory.get();
-    return new MapFactory<K, V>(map);
+    Object[] keys = map.keySet().toArray();
+    return new MapFactory<K, V>(keys, ArrayBackedMap.newKeyIndex(keys), map.values().toArray());
   }
 
   /**
    * Returns a {@code Map<K, V>} whose iteration order is that of the elements
    * given by each of the providers, which are invoked in the order given at creation.
    */
+  @SuppressWarnings("unchecked") // the array only contains providers of V
   @Override
   public Map<K, V> get() {
-    Map<K, V> result = newLinkedHashMapWithExpectedSize(contributingMap.size());
-    for (Entry<K, Provider<V>> entry: contributingMap.entrySet()) {
-      result.put(entry.getKey(), entry.getValue().get());
+    Object[] values = new Object[providers.length];
+    for (int i = 0; i < providers.length; i++) {
+      values[i] = ((Provider<V>) providers[i]).get();
     }
-    return unmodifiableMap(result);
+    return ArrayBackedMap.create(keys, keyIndex, values);
   }
 }
@@ -20,7 +20,6 @@ import java.util.Map;
 import javax.inject.Provider;
 
 import static dagger.internal.Collections.newLinkedHashMapWithExpectedSize;
-import static java.util.Collections.unmodifiableMap;
 
 /**
  * A {@link Factory} implementation used to implement {@link Map} bindings. This factory returns a
@@ -31,6 +30,9 @@ import static java.util.Collections.unmodifiableMap;
  *
  */
 public final class MapProviderFactory<K, V> implements Factory<Map<K, Provider<V>>> {
+  private final Object[] keys;
+  private final int[] keyIndex;
+  private final Object[] providers;
   private final Map<K, Provider<V>> contributingMap;
 
   /**
@@ -41,7 +43,10 @@ public final class MapProviderFactory<K, V> implements Factory<Map<K, Provider<V
   }
 
   private MapProviderFactory(LinkedHashMap<K, Provider<V>> contributingMap) {
-    this.contributingMap = unmodifiableMap(contributingMap);
+    this.keys = contributingMap.keySet().toArray();
+    this.keyIndex = ArrayBackedMap.newKeyIndex(keys);
+    this.providers = contributingMap.values().toArray();
+    this.contributingMap = ArrayBackedMap.create(keys, keyIndex, providers);
   }
 
   /**
@@ -54,6 +59,24 @@ public final class MapProviderFactory<K, V> implements Factory<Map<K, Provider<V
     return this.contributingMap;
   }
 
+  /** The keys of this map, in iteration order. Callers must not modify the returned array. */
+  Object[] keys() {
+    return keys;
+  }
+
+  /** The {@linkplain ArrayBackedMap#newKeyIndex hash index} of {@link #keys}. */
+  int[] keyIndex() {
+    return keyIndex;
+  }
+
+  /**
+   * The providers of this map, parallel to {@link #keys}. Callers must not modify the returned
+   * array.
+   */
+  Object[] providers() {
+    return providers;
+  }
+
   /**
    * A builder to help build the {@link MapProviderFactory}
    */
@@ -22,13 +22,11 @@ import java.util.List;
 import java.util.Set;
 import javax.inject.Provider;
 
-import static dagger.internal.Collections.newLinkedHashSetWithExpectedSize;
-import static java.util.Collections.unmodifiableSet;
-
 /**
- * A {@link Factory} implementation used to implement {@link Set} bindings. This factory always
- * returns a new {@link Set} instance for each call to {@link #get} (as required by {@link Factory})
- * whose elements are populated by subsequent calls to their {@link Provider#get} methods.
+ * A {@link Factory} implementation used to implement {@link Set} bindings. This factory returns a
+ * new {@link Set} instance for each non-empty result of {@link #get} (as required by
+ * {@link Factory}) whose elements are populated by subsequent calls to their {@link Provider#get}
+ * methods. Results are immutable and array-backed to keep the per-element footprint small.
  *
  * @author Gregory Kick
  * @since 2.0
@@ -108,15 +106,16 @@ public final class SetFactory<T> implements Factory<Set<T>> {
       size += providedSet.size();
     }
 
-    Set<T> result = newLinkedHashSetWithExpectedSize(size);
+    Object[] elements = new Object[size];
+    int position = 0;
     for (int i = 0, c = providedSets.size(); i < c; i++) {
       for (T element : providedSets.get(i)) {
         if (element == null) {
           throw new NullPointerException("a null element was provided");
         }
-        result.add(element);
+        elements[position++] = element;
       }
     }
-    return unmodifiableSet(result);
+    return ArrayBackedSet.copyOf(elements);
   }
 }
@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.internal;
+
+import dagger.Lazy;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import javax.inject.Provider;
+
+/**
+ * A {@link Provider} implementation that memoizes the result of a {@link Factory} instance without
+ * locking. The first instance is published with a single compare-and-set, so concurrent callers
+ * never block, but the factory may be called more than once while the instance is unpublished.
+ * Every caller returns the instance that was published.
+ *
+ * <p>The factory is released once an instance has been published so that it, and any factories it
+ * retains, may be garbage collected.
+ *
+ * @since 2.1
+ */
+public final class SingleCheckProvider<T> implements Provider<T>, Lazy<T> {
+  private static final Object UNINITIALIZED = new Object();
+
+  @SuppressWarnings("rawtypes")
+  private static final AtomicReferenceFieldUpdater<SingleCheckProvider, Object> INSTANCE_UPDATER =
+      AtomicReferenceFieldUpdater.newUpdater(SingleCheckProvider.class, Object.class, "instance");
+
+  private volatile Factory<T> factory;
+  private volatile Object instance = UNINITIALIZED;
+
+  private SingleCheckProvider(Factory<T> factory) {
+    assert factory != null;
+    this.factory = factory;
+  }
+
+  @SuppressWarnings("unchecked") // cast only happens when result comes from the factory
+  @Override
+  public T get() {
+    Object result = instance;
+    if (result == UNINITIALIZED) {
+      Factory<T> factoryReference = factory;
+      if (factoryReference == null) {
+        // the factory is only released after an instance has been published
+        result = instance;
+      } else {
+        result = factoryReference.get();
+        if (INSTANCE_UPDATER.compareAndSet(this, UNINITIALIZED, result)) {
+          factory = null;
+        } else {
+          // another thread published first; use its instance so that all callers agree
+          result = instance;
+        }
+      }
+    }
+    return (T) result;
+  }
+
+  /** Returns a new single-check provider for the given factory. */
+  public static <T> Provider<T> create(Factory<T> factory) {
+    if (factory == null) {
+      throw new NullPointerException();
+    }
+    return new SingleCheckProvider<T>(factory);
+  }
+}
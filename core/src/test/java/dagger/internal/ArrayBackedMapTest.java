@@ -0,0 +1,94 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.internal;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import static com.google.common.truth.Truth.assert_;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests {@link ArrayBackedMap}.
+ */
+@RunWith(JUnit4.class)
+public class ArrayBackedMapTest {
+  @Test public void empty() {
+    Map<Object, Object> map = ArrayBackedMap.copyOf(new Object[0], new Object[0]);
+    assert_().that(map).isEmpty();
+  }
+
+  @Test public void singleEntry() {
+    Map<Object, Object> map = ArrayBackedMap.copyOf(new Object[] {"a"}, new Object[] {1});
+    assert_().that(map).isEqualTo(singleEntryMap("a", 1));
+  }
+
+  @Test public void linearlySearchedMap() {
+    Map<Object, Object> map =
+        ArrayBackedMap.copyOf(new Object[] {"b", "a"}, new Object[] {2, null});
+    assert_().that(map.keySet()).containsExactly("b", "a").inOrder();
+    assert_().that(map.get("b")).isEqualTo(2);
+    assert_().that(map.get("a")).isNull();
+    assert_().that(map.containsKey("a")).isTrue();
+    assert_().that(map.containsKey("c")).isFalse();
+    assert_().that(map.get(null)).isNull();
+  }
+
+  @Test public void hashedMap_matchesLinkedHashMap() {
+    Object[] keys = new Object[100];
+    Object[] values = new Object[keys.length];
+    Map<Object, Object> expected = new LinkedHashMap<Object, Object>();
+    for (int i = 0; i < keys.length; i++) {
+      keys[i] = "key" + ((i * 37) % 100);
+      values[i] = i;
+      expected.put(keys[i], values[i]);
+    }
+    Map<Object, Object> map = ArrayBackedMap.copyOf(keys, values);
+    assert_().that(map.entrySet()).containsExactlyElementsIn(expected.entrySet()).inOrder();
+    assert_().that(map).isEqualTo(expected);
+    assert_().that(map.hashCode()).isEqualTo(expected.hashCode());
+    for (int i = 0; i < 110; i++) {
+      assert_().that(map.get("key" + i)).isEqualTo(expected.get("key" + i));
+      assert_().that(map.containsKey("key" + i)).isEqualTo(expected.containsKey("key" + i));
+    }
+  }
+
+  @Test public void immutable() {
+    Map<Object, Object> map =
+        ArrayBackedMap.copyOf(new Object[] {"a", "b", "c"}, new Object[] {1, 2, 3});
+    try {
+      map.put("d", 4);
+      fail();
+    } catch (UnsupportedOperationException expected) {}
+    try {
+      map.remove("a");
+      fail();
+    } catch (UnsupportedOperationException expected) {}
+    try {
+      map.entrySet().iterator().next().setValue(5);
+      fail();
+    } catch (UnsupportedOperationException expected) {}
+  }
+
+  private static Map<Object, Object> singleEntryMap(Object key, Object value) {
+    Map<Object, Object> map = new LinkedHashMap<Object, Object>();
+    map.put(key, value);
+    return map;
+  }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.internal;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import static com.google.common.truth.Truth.assert_;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests {@link ArrayBackedSet}.
+ */
+@RunWith(JUnit4.class)
+public class ArrayBackedSetTest {
+  @Test public void empty() {
+    Set<Object> set = ArrayBackedSet.copyOf(new Object[0]);
+    assert_().that(set).isEmpty();
+  }
+
+  @Test public void singleElement() {
+    Set<Object> set = ArrayBackedSet.copyOf(new Object[] {"a"});
+    assert_().that(set).containsExactly("a");
+  }
+
+  @Test public void duplicatesCollapseToSingleElement() {
+    Set<Object> set = ArrayBackedSet.copyOf(new Object[] {"a", "a", "a"});
+    assert_().that(set).containsExactly("a");
+  }
+
+  @Test public void linearlySearchedSet() {
+    Set<Object> set = ArrayBackedSet.copyOf(new Object[] {"b", "a"});
+    assert_().that(set).containsExactly("b", "a").inOrder();
+    assert_().that(set.contains("a")).isTrue();
+    assert_().that(set.contains("c")).isFalse();
+    assert_().that(set.contains(null)).isFalse();
+  }
+
+  @Test public void hashedSet_matchesLinkedHashSet() {
+    Object[] elements = new Object[100];
+    Set<Object> expected = new LinkedHashSet<Object>();
+    for (int i = 0; i < elements.length; i++) {
+      elements[i] = (i * 37) % 50;
+      expected.add(elements[i]);
+    }
+    Set<Object> set = ArrayBackedSet.copyOf(elements);
+    assert_().that(set).containsExactlyElementsIn(expected).inOrder();
+    assert_().that(set).isEqualTo(expected);
+    assert_().that(set.hashCode()).isEqualTo(expected.hashCode());
+    for (int i = -10; i < 60; i++) {
+      assert_().that(set.contains(i)).isEqualTo(expected.contains(i));
+    }
+    assert_().that(set.contains(null)).isFalse();
+  }
+
+  @Test public void immutable() {
+    Set<Object> set = ArrayBackedSet.copyOf(new Object[] {"a", "b", "c"});
+    try {
+      set.add("d");
+      fail();
+    } catch (UnsupportedOperationException expected) {}
+    try {
+      set.iterator().remove();
+      fail();
+    } catch (UnsupportedOperationException expected) {}
+    try {
+      set.removeAll(Arrays.asList("a"));
+      fail();
+    } catch (UnsupportedOperationException expected) {}
+  }
+}
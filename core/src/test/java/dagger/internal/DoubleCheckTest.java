@@ -0,0 +1,175 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.internal;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import com.google.common.testing.GcFinalization;
+import com.google.common.util.concurrent.Uninterruptibles;
+import dagger.Lazy;
+import java.lang.ref.WeakReference;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.inject.Provider;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import static com.google.common.truth.Truth.assert_;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests {@link DoubleCheck}.
+ */
+@RunWith(JUnit4.class)
+public class DoubleCheckTest {
+  @Test public void provider_nullPointerException() {
+    try {
+      DoubleCheck.provider(null);
+      fail();
+    } catch (NullPointerException expected) { }
+  }
+
+  @Test public void lazy_nullPointerException() {
+    try {
+      DoubleCheck.lazy(null);
+      fail();
+    } catch (NullPointerException expected) { }
+  }
+
+  @Test public void doubleWrapping_provider() {
+    Provider<Object> provider = DoubleCheck.provider(new Factory<Object>() {
+      @Override public Object get() {
+        return new Object();
+      }
+    });
+    assert_().that(DoubleCheck.provider(provider)).isSameAs(provider);
+  }
+
+  @Test public void doubleWrapping_lazy() {
+    Provider<Object> provider = DoubleCheck.provider(new Factory<Object>() {
+      @Override public Object get() {
+        return new Object();
+      }
+    });
+    assert_().that(DoubleCheck.lazy(provider)).isSameAs(provider);
+  }
+
+  @Test public void get() throws Exception {
+    int numThreads = 10;
+    ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+
+    final CountDownLatch latch = new CountDownLatch(numThreads);
+    LatchedProvider provider = new LatchedProvider(latch);
+    final Lazy<Object> lazy = DoubleCheck.lazy(provider);
+
+    List<Callable<Object>> tasks = Lists.newArrayListWithCapacity(numThreads);
+    for (int i = 0; i < numThreads; i++) {
+      tasks.add(new Callable<Object>() {
+        @Override public Object call() throws Exception {
+          latch.countDown();
+          return lazy.get();
+        }
+      });
+    }
+
+    List<Future<Object>> futures = executor.invokeAll(tasks);
+
+    assert_().that(provider.provisions.get()).isEqualTo(1);
+    Set<Object> results = Sets.newIdentityHashSet();
+    for (Future<Object> future : futures) {
+      results.add(future.get());
+    }
+    assert_().that(results.size()).isEqualTo(1);
+  }
+
+  @Test public void reentranceReturningSameInstance() {
+    final Object instance = new Object();
+    final AtomicInteger calls = new AtomicInteger();
+    final Provider<Object>[] reentrantProvider = newProviderArray();
+    reentrantProvider[0] = DoubleCheck.provider(new Factory<Object>() {
+      @Override public Object get() {
+        if (calls.incrementAndGet() == 1) {
+          reentrantProvider[0].get();
+        }
+        return instance;
+      }
+    });
+    assert_().that(reentrantProvider[0].get()).isSameAs(instance);
+    assert_().that(calls.get()).isEqualTo(2);
+  }
+
+  @Test public void reentranceReturningDifferentInstances_throwsIllegalStateException() {
+    final AtomicInteger calls = new AtomicInteger();
+    final Provider<Object>[] reentrantProvider = newProviderArray();
+    reentrantProvider[0] = DoubleCheck.provider(new Factory<Object>() {
+      @Override public Object get() {
+        if (calls.incrementAndGet() == 1) {
+          reentrantProvider[0].get();
+        }
+        return new Object();
+      }
+    });
+    try {
+      reentrantProvider[0].get();
+      fail();
+    } catch (IllegalStateException expected) {}
+  }
+
+  @Test public void releasesProviderAfterGet() {
+    Factory<Object> factory = new Factory<Object>() {
+      @Override public Object get() {
+        return new Object();
+      }
+    };
+    WeakReference<Factory<Object>> factoryReference = new WeakReference<Factory<Object>>(factory);
+    Provider<Object> provider = DoubleCheck.provider(factory);
+    factory = null;
+    Object instance = provider.get();
+    GcFinalization.awaitClear(factoryReference);
+    assert_().that(provider.get()).isSameAs(instance);
+  }
+
+  @SuppressWarnings({"unchecked", "rawtypes"}) // generic array creation
+  private static Provider<Object>[] newProviderArray() {
+    return new Provider[1];
+  }
+
+  private static class LatchedProvider implements Provider<Object> {
+    final AtomicInteger provisions;
+    final CountDownLatch latch;
+
+    LatchedProvider(CountDownLatch latch) {
+      this.latch = latch;
+      this.provisions = new AtomicInteger();
+    }
+
+    @Override
+    public Object get() {
+      if (latch != null) {
+        Uninterruptibles.awaitUninterruptibly(latch);
+      }
+      provisions.incrementAndGet();
+      return new Object();
+    }
+  }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.internal;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.inject.Provider;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import static com.google.common.truth.Truth.assert_;
+import static org.junit.Assert.fail;
+
+@RunWith(JUnit4.class)
+public class LazyMapFactoryTest {
+  @Test
+  public void onlyProvidesValuesThatAreRead() {
+    AtomicInteger provisions = new AtomicInteger();
+    Factory<Map<String, Integer>> factory = LazyMapFactory.create(
+        MapProviderFactory.<String, Integer>builder(3)
+            .put("one", countingProvider(1, provisions))
+            .put("two", countingProvider(2, provisions))
+            .put("three", countingProvider(3, provisions))
+            .build());
+    Map<String, Integer> map = factory.get();
+    assert_().that(provisions.get()).isEqualTo(0);
+    assert_().that(map.size()).isEqualTo(3);
+    assert_().that(map.containsKey("two")).isTrue();
+    assert_().that(map.keySet()).containsExactly("one", "two", "three").inOrder();
+    assert_().that(provisions.get()).isEqualTo(0);
+    assert_().that(map.get("two")).isEqualTo(2);
+    assert_().that(provisions.get()).isEqualTo(1);
+    assert_().that(map.get("four")).isNull();
+    assert_().that(provisions.get()).isEqualTo(1);
+  }
+
+  @Test
+  public void valuesAreKeptByEachMap() {
+    Factory<Map<String, Object>> factory = LazyMapFactory.create(
+        MapProviderFactory.<String, Object>builder(1)
+            .put("key", new Provider<Object>() {
+              @Override
+              public Object get() {
+                return new Object();
+              }
+            })
+            .build());
+    Map<String, Object> map = factory.get();
+    assert_().that(map.get("key")).isSameAs(map.get("key"));
+    assert_().that(factory.get().get("key")).isNotSameAs(map.get("key"));
+  }
+
+  @Test
+  public void iterationProvidesAllValuesInOrder() {
+    AtomicInteger provisions = new AtomicInteger();
+    Factory<Map<String, Integer>> factory = LazyMapFactory.create(
+        MapProviderFactory.<String, Integer>builder(3)
+            .put("two", countingProvider(2, provisions))
+            .put("one", countingProvider(1, provisions))
+            .put("three", countingProvider(3, provisions))
+            .build());
+    Map<String, Integer> expectedMap = new LinkedHashMap<String, Integer>();
+    expectedMap.put("two", 2);
+    expectedMap.put("one", 1);
+    expectedMap.put("three", 3);
+    Map<String, Integer> map = factory.get();
+    assert_().that(map.entrySet())
+        .containsExactlyElementsIn(expectedMap.entrySet())
+        .inOrder();
+    assert_().that(map).isEqualTo(expectedMap);
+    assert_().that(provisions.get()).isEqualTo(3);
+  }
+
+  @Test
+  public void nullValues() {
+    AtomicInteger provisions = new AtomicInteger();
+    Factory<Map<String, Integer>> factory = LazyMapFactory.create(
+        MapProviderFactory.<String, Integer>builder(1)
+            .put("null", countingProvider(null, provisions))
+            .build());
+    Map<String, Integer> map = factory.get();
+    assert_().that(map.get("null")).isNull();
+    assert_().that(map.get("null")).isNull();
+    assert_().that(map.containsKey("null")).isTrue();
+    assert_().that(provisions.get()).isEqualTo(1);
+  }
+
+  @Test
+  public void immutable() {
+    Map<String, Integer> map = LazyMapFactory.create(
+        MapProviderFactory.<String, Integer>builder(1)
+            .put("one", countingProvider(1, new AtomicInteger()))
+            .build())
+        .get();
+    try {
+      map.put("two", 2);
+      fail();
+    } catch (UnsupportedOperationException expected) {}
+    try {
+      map.keySet().iterator().remove();
+      fail();
+    } catch (UnsupportedOperationException expected) {}
+  }
+
+  private static Provider<Integer> countingProvider(
+      final Integer value, final AtomicInteger provisions) {
+    return new Provider<Integer>() {
+      @Override
+      public Integer get() {
+        provisions.incrementAndGet();
+        return value;
+      }
+    };
+  }
+}
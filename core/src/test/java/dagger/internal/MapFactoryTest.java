@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.internal;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.inject.Provider;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import static com.google.common.truth.Truth.assert_;
+
+@RunWith(JUnit4.class)
+public class MapFactoryTest {
+  @Test
+  public void invokesProvidersEveryTime() {
+    Factory<Map<String, Integer>> factory = MapFactory.create(
+        MapProviderFactory.<String, Integer>builder(3)
+            .put("one", incrementingIntegerProvider(10))
+            .put("two", incrementingIntegerProvider(20))
+            .put("three", incrementingIntegerProvider(30))
+            .build());
+    Map<String, Integer> expectedMap = new LinkedHashMap<String, Integer>();
+    expectedMap.put("one", 10);
+    expectedMap.put("two", 20);
+    expectedMap.put("three", 30);
+    assert_().that(factory.get().entrySet())
+        .containsExactlyElementsIn(expectedMap.entrySet())
+        .inOrder();
+    expectedMap.put("one", 11);
+    expectedMap.put("two", 21);
+    expectedMap.put("three", 31);
+    assert_().that(factory.get().entrySet())
+        .containsExactlyElementsIn(expectedMap.entrySet())
+        .inOrder();
+  }
+
+  @Test
+  public void createFromArbitraryProvider() {
+    final Map<String, Provider<Integer>> providerMap =
+        new LinkedHashMap<String, Provider<Integer>>();
+    providerMap.put("b", incrementingIntegerProvider(2));
+    providerMap.put("a", incrementingIntegerProvider(1));
+    providerMap.put("c", incrementingIntegerProvider(3));
+    Factory<Map<String, Integer>> factory =
+        MapFactory.create(new Provider<Map<String, Provider<Integer>>>() {
+          @Override
+          public Map<String, Provider<Integer>> get() {
+            return providerMap;
+          }
+        });
+    Map<String, Integer> map = factory.get();
+    assert_().that(map.keySet()).containsExactly("b", "a", "c").inOrder();
+    assert_().that(map.get("a")).isEqualTo(1);
+    assert_().that(map.get("c")).isEqualTo(3);
+    assert_().that(map.get("d")).isNull();
+  }
+
+  private static Provider<Integer> incrementingIntegerProvider(int seed) {
+    final AtomicInteger value = new AtomicInteger(seed);
+    return new Provider<Integer>() {
+      @Override
+      public Integer get() {
+        return value.getAndIncrement();
+      }
+    };
+  }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.internal;
+
+import com.google.common.testing.GcFinalization;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.inject.Provider;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import static com.google.common.truth.Truth.assert_;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests {@link SingleCheckProvider}.
+ */
+@RunWith(JUnit4.class)
+public class SingleCheckProviderTest {
+  @Test public void create_nullPointerException() {
+    try {
+      SingleCheckProvider.create(null);
+      fail();
+    } catch (NullPointerException expected) { }
+  }
+
+  @Test public void get() {
+    Provider<Integer> provider = SingleCheckProvider.create(new Factory<Integer>() {
+      int i = 0;
+
+      @Override public Integer get() {
+        return i++;
+      }
+    });
+    assert_().that(provider.get()).isEqualTo(0);
+    assert_().that(provider.get()).isEqualTo(0);
+    assert_().that(provider.get()).isEqualTo(0);
+  }
+
+  @Test public void releasesFactoryAfterGet() {
+    Factory<Object> factory = new Factory<Object>() {
+      @Override public Object get() {
+        return new Object();
+      }
+    };
+    WeakReference<Factory<Object>> factoryReference = new WeakReference<Factory<Object>>(factory);
+    Provider<Object> provider = SingleCheckProvider.create(factory);
+    factory = null;
+    Object instance = provider.get();
+    GcFinalization.awaitClear(factoryReference);
+    assert_().that(provider.get()).isSameAs(instance);
+  }
+
+  @Test public void get_contended() throws Exception {
+    final int numThreads = 8;
+    final CountDownLatch latch = new CountDownLatch(numThreads);
+    final AtomicInteger calls = new AtomicInteger();
+    final Provider<Object> provider = SingleCheckProvider.create(new Factory<Object>() {
+      @Override public Object get() {
+        calls.incrementAndGet();
+        return new Object();
+      }
+    });
+    ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+    try {
+      Callable<Object> task = new Callable<Object>() {
+        @Override public Object call() throws Exception {
+          latch.countDown();
+          latch.await();
+          return provider.get();
+        }
+      };
+      Future<?>[] futures = new Future<?>[numThreads];
+      for (int i = 0; i < numThreads; i++) {
+        futures[i] = executor.submit(task);
+      }
+      Object published = provider.get();
+      for (Future<?> future : futures) {
+        assert_().that(future.get()).isSameAs(published);
+      }
+      assert_().that(calls.get() >= 1).isTrue();
+    } finally {
+      executor.shutdown();
+    }
+  }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.producers;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import dagger.internal.Beta;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import javax.annotation.Nullable;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * The point in time by which a {@linkplain ProductionComponent production component} must finish
+ * its work. Every production component accepts a deadline through its builder, and a component
+ * that isn't given one has none.
+ *
+ * <p>Once the deadline passes, any future returned by a component method that is still pending
+ * fails with a {@link TimeoutException}, and the work on its behalf is cancelled. The deadline
+ * also bounds the {@linkplain Produces#timeoutMillis timeouts} of individual producer methods, so a
+ * method that times out because of the deadline fails in the same way, where its
+ * {@link Produced} consumers can handle the failure.
+ *
+ * <p>Timeouts are scheduled on a single shared daemon thread, unless a different scheduler is
+ * given with {@link #withScheduler}.
+ *
+ * @since 2.1
+ */
+@Beta
+public final class Deadline {
+  @Nullable private final ScheduledExecutorService scheduler;
+  /** Whether this deadline ever passes. */
+  private final boolean passes;
+  /** The {@link System#nanoTime} at which this deadline passes, if it {@linkplain #passes does}. */
+  private final long deadlineNanos;
+
+  /** Creates a deadline that never passes. */
+  public Deadline() {
+    this(null, false, 0);
+  }
+
+  private Deadline(
+      @Nullable ScheduledExecutorService scheduler, boolean passes, long deadlineNanos) {
+    this.scheduler = scheduler;
+    this.passes = passes;
+    this.deadlineNanos = deadlineNanos;
+  }
+
+  /** Returns a deadline that passes once the given duration has elapsed from now. */
+  public static Deadline after(long duration, TimeUnit unit) {
+    return after(duration, unit, System.nanoTime());
+  }
+
+  static Deadline after(long duration, TimeUnit unit, long nowNanos) {
+    long nanos = unit.toNanos(duration);
+    long deadlineNanos = nowNanos + nanos;
+    // saturate rather than overflow for durations too long to matter
+    if (nanos > 0 && deadlineNanos < nowNanos) {
+      deadlineNanos = Long.MAX_VALUE;
+    }
+    return new Deadline(null, true, deadlineNanos);
+  }
+
+  /** Returns a copy of this deadline whose timeouts are scheduled on the given scheduler. */
+  public Deadline withScheduler(ScheduledExecutorService scheduler) {
+    return new Deadline(checkNotNull(scheduler), passes, deadlineNanos);
+  }
+
+  /**
+   * Returns the time remaining until this deadline passes, which is zero or negative if it has
+   * passed, or {@link Long#MAX_VALUE} if it never passes.
+   */
+  public long timeRemaining(TimeUnit unit) {
+    return timeRemaining(unit, System.nanoTime());
+  }
+
+  long timeRemaining(TimeUnit unit, long nowNanos) {
+    if (!passes) {
+      return Long.MAX_VALUE;
+    }
+    // nanoTime values may only be compared by subtraction
+    return unit.convert(deadlineNanos - nowNanos, NANOSECONDS);
+  }
+
+  /** Returns the scheduler on which timeouts are scheduled. */
+  public ScheduledExecutorService scheduler() {
+    return scheduler == null ? SharedScheduler.INSTANCE : scheduler;
+  }
+
+  /** Holds the shared scheduler so that it is only started once a timeout is scheduled. */
+  private static final class SharedScheduler {
+    static final ScheduledExecutorService INSTANCE = create();
+
+    private static ScheduledExecutorService create() {
+      ScheduledThreadPoolExecutor scheduler =
+          new ScheduledThreadPoolExecutor(
+              1,
+              new ThreadFactoryBuilder()
+                  .setDaemon(true)
+                  .setNameFormat("dagger-producers-timeout-%d")
+                  .build());
+      // most timeouts are cancelled because the work finished in time
+      scheduler.setRemoveOnCancelPolicy(true);
+      return scheduler;
+    }
+  }
+}
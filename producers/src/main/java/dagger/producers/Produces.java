@@ -19,6 +19,7 @@ import dagger.internal.Beta;
 import com.google.common.util.concurrent.ListenableFuture;
 import java.lang.annotation.Documented;
 import java.lang.annotation.Target;
+import java.util.concurrent.Executor;
 
 import static java.lang.annotation.ElementType.METHOD;
 
@@ -67,4 +68,46 @@ public @interface Produces {
   }
 
   Type type() default Type.UNIQUE;
+
+  /** How the annotated method is run once its inputs are available. */
+  enum Execution {
+    /**
+     * The method is run on the production component's executor. This is the default behavior.
+     */
+    EXECUTOR,
+
+    /**
+     * The method is run directly on the thread that completes its last asynchronous input, or on
+     * the requesting thread if it has none, avoiding a hand-off to the component's executor. This
+     * is only appropriate for cheap methods that never block, such as extracting a field from an
+     * input, since the method holds up whichever thread happens to run it.
+     */
+    DIRECT;
+  }
+
+  Execution execution() default Execution.EXECUTOR;
+
+  /**
+   * The executor on which the annotated method is run. By default, this is the production
+   * component's {@link Executor}. Naming a subtype of {@code Executor} instead, such as a
+   * {@code BlockingExecutor} interface, runs the method on an instance of that type, which the
+   * component requires just like its {@code Executor}. This keeps methods that block, for example
+   * on I/O, from starving cheaper methods of threads.
+   *
+   * <p>The named type must be an interface or abstract class, so that the component never creates
+   * an executor of its own. An executor may not be named for methods whose
+   * {@linkplain #execution execution} is {@link Execution#DIRECT DIRECT}.
+   */
+  Class<? extends Executor> executor() default Executor.class;
+
+  /**
+   * The number of milliseconds that the annotated method may take to produce its value, measured
+   * from when its value is first requested, or zero for no limit. If the limit passes before the
+   * value is produced, the method's future fails with a
+   * {@link java.util.concurrent.TimeoutException TimeoutException} and the method, and any inputs
+   * it is waiting on, are cancelled. Like any other failure, the timeout can be handled by
+   * consumers that request a {@link Produced} value. A timeout never extends beyond the
+   * component's {@link Deadline}.
+   */
+  long timeoutMillis() default 0;
 }
@@ -97,6 +97,8 @@ public @interface ProductionComponent {
    *      doesn't have a visible no-args constructor) <b>must</b> have an abstract setter method.
    *      Other module dependencies (ones that Dagger can instantiate) are allowed, but not
    *      required.
+   * <li> There <b>may</b> be an abstract method whose parameter is {@link Deadline}. If it isn't
+   *      called, the component has no deadline.
    * <li> Non-abstract methods are allowed, but ignored as far as validation and builder generation
    *      are concerned.
    * </ul>
@@ -15,12 +15,20 @@
  */
 package dagger.producers.internal;
 
+import com.google.common.util.concurrent.AbstractFuture;
 import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.Uninterruptibles;
+import dagger.producers.Deadline;
 import dagger.producers.Producer;
 import dagger.producers.monitoring.ProducerMonitor;
 import dagger.producers.monitoring.ProducerToken;
 import dagger.producers.monitoring.ProductionComponentMonitor;
 import dagger.producers.monitoring.internal.Monitors;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
@@ -30,13 +38,37 @@ import javax.inject.Provider;
 /**
  * An abstract {@link Producer} implementation that memoizes the result of its compute method.
  *
+ * <p>The memoized future is published without locking: the first caller of {@link #get} installs
+ * a placeholder future with a single compare-and-set and then computes, while any concurrent
+ * callers receive the placeholder immediately instead of blocking.
+ *
+ * <p>Cancellation is reference counted: the computation is cancelled, with or without
+ * interruption, once every caller that is still waiting for it has cancelled its future. The
+ * abandoned computation is then forgotten, so a later call to {@link #get} computes again.
+ *
  * @author Jesse Beder
  * @since 2.0
  */
 public abstract class AbstractProducer<T> implements Producer<T> {
+  @SuppressWarnings("rawtypes")
+  private static final AtomicReferenceFieldUpdater<AbstractProducer, ProducerFuture>
+      INSTANCE_UPDATER =
+          AtomicReferenceFieldUpdater.newUpdater(
+              AbstractProducer.class, ProducerFuture.class, "instance");
+
+  /**
+   * The monitor of the producer that is computing on this thread, to which the inputs that it
+   * requests are reported. Null while a producer without a token or with a no-op monitor computes,
+   * so that its inputs aren't attributed to a monitored producer further up the stack.
+   */
+  private static final ThreadLocal<ProducerMonitor> REQUESTING_MONITOR =
+      new ThreadLocal<ProducerMonitor>();
+
   private final Provider<ProductionComponentMonitor> monitorProvider;
   @Nullable private final ProducerToken token;
-  private volatile ListenableFuture<T> instance = null;
+  @Nullable private final Deadline deadline;
+  private final long timeoutMillis;
+  private volatile ProducerFuture<T> instance = null;
 
   protected AbstractProducer() {
     this(Monitors.noOpProductionComponentMonitorProvider(), null);
@@ -46,28 +78,213 @@ public abstract class AbstractProducer<T> implements Producer<T> {
       Provider<ProductionComponentMonitor> monitorProvider, @Nullable ProducerToken token) {
     this.monitorProvider = checkNotNull(monitorProvider);
     this.token = token;
+    this.deadline = null;
+    this.timeoutMillis = 0;
+  }
+
+  /**
+   * Creates a producer whose computed future fails with a
+   * {@link java.util.concurrent.TimeoutException} if it doesn't complete within the given number of
+   * milliseconds of being computed, or by the deadline, whichever comes first.
+   */
+  protected AbstractProducer(
+      Provider<ProductionComponentMonitor> monitorProvider,
+      @Nullable ProducerToken token,
+      Deadline deadline,
+      long timeoutMillis) {
+    this.monitorProvider = checkNotNull(monitorProvider);
+    this.token = token;
+    this.deadline = checkNotNull(deadline);
+    this.timeoutMillis = timeoutMillis;
   }
 
   /** Computes this producer's future, which is then cached in {@link #get}. */
   protected abstract ListenableFuture<T> compute(ProducerMonitor monitor);
 
+  /**
+   * Returns a future of this producer's value. Until the value is available, each call returns a
+   * separate future for its caller, and the underlying computation is only cancelled once every one
+   * of those futures has been cancelled. This lets a consumer abandon the value without cancelling
+   * it for other consumers, while a graph that every consumer has abandoned stops computing. A
+   * caller that arrives after that computes the value again.
+   */
   @Override
   public final ListenableFuture<T> get() {
-    // double-check idiom from EJ2: Item 71
-    ListenableFuture<T> result = instance;
-    if (result == null) {
-      synchronized (this) {
-        result = instance;
-        if (result == null) {
-          ProducerMonitor monitor = monitorProvider.get().producerMonitorFor(token);
-          instance = result = compute(monitor);
-          if (result == null) {
-            throw new NullPointerException("compute returned null");
-          }
-          monitor.addCallbackTo(result);
+    if (token != null) {
+      ProducerMonitor requestingMonitor = REQUESTING_MONITOR.get();
+      if (requestingMonitor != null) {
+        requestingMonitor.inputRequested(token);
+      }
+    }
+    while (true) {
+      ProducerFuture<T> result = instance;
+      // null if another thread installed or abandoned the computation first, so try again
+      ListenableFuture<T> consumer = result == null ? computeOnce() : result.newConsumer();
+      if (consumer != null) {
+        return consumer;
+      }
+    }
+  }
+
+  /**
+   * Computes this producer's future and returns it for the calling consumer, or returns null if
+   * another thread installed its placeholder first.
+   */
+  @Nullable
+  private ListenableFuture<T> computeOnce() {
+    // the computing caller is its first consumer, so the placeholder can't be abandoned meanwhile
+    ProducerFuture<T> placeholder = new ProducerFuture<T>(this);
+    if (!INSTANCE_UPDATER.compareAndSet(this, null, placeholder)) {
+      return null;
+    }
+    ProducerMonitor monitor = monitorProvider.get().producerMonitorFor(token);
+    // components without monitors are common, so don't register anything for the no-op monitor
+    boolean monitored = monitor != Monitors.noOpProducerMonitor();
+    if (monitored) {
+      monitor.addCallbackTo(placeholder);
+    }
+    // compute requests this producer's inputs on this thread, so they are reported to its monitor
+    ProducerMonitor requestingMonitor = REQUESTING_MONITOR.get();
+    REQUESTING_MONITOR.set(monitored && token != null ? monitor : null);
+    ListenableFuture<T> computed;
+    try {
+      computed = compute(monitor);
+      if (computed == null) {
+        throw new NullPointerException("compute returned null");
+      }
+      if (deadline != null) {
+        // the monitor sees a timeout as a failure of the placeholder, like any other
+        computed = Producers.withTimeout(computed, timeoutMillis, deadline);
+      }
+    } catch (RuntimeException | Error e) {
+      placeholder.fail(e);
+      throw e;
+    } finally {
+      REQUESTING_MONITOR.set(requestingMonitor);
+    }
+    placeholder.completeWith(computed);
+    return placeholder.firstConsumer();
+  }
+
+  /** A future that completes with the result of a source future once the source is done. */
+  private abstract static class ResultFuture<T> extends AbstractFuture<T> implements Runnable {
+    volatile ListenableFuture<T> source;
+
+    void completeWith(ListenableFuture<T> source) {
+      this.source = source;
+      source.addListener(this, MoreExecutors.directExecutor());
+    }
+
+    @Override
+    public final void run() {
+      try {
+        set(Uninterruptibles.getUninterruptibly(source));
+      } catch (ExecutionException e) {
+        setException(e.getCause());
+      } catch (CancellationException e) {
+        cancel(false);
+      } catch (RuntimeException | Error e) {
+        setException(e);
+      }
+    }
+  }
+
+  /**
+   * The future memoized by a producer, which completes with the result of the computed future.
+   *
+   * <p>Cancelling it cancels the computed future, and so transitively the producer method and the
+   * inputs that it is waiting on. A request to interrupt is passed along too, so that a producer
+   * method that is blocked on the executor stops promptly instead of holding its thread.
+   */
+  private static final class ProducerFuture<T> extends ResultFuture<T> {
+    @SuppressWarnings("rawtypes")
+    private static final AtomicIntegerFieldUpdater<ProducerFuture> CONSUMERS_UPDATER =
+        AtomicIntegerFieldUpdater.newUpdater(ProducerFuture.class, "consumers");
+
+    private final AbstractProducer<T> producer;
+    /**
+     * The number of consumers that haven't cancelled, starting with the one that computes. Once it
+     * drops to zero this future is abandoned and never gains another consumer.
+     */
+    private volatile int consumers = 1;
+
+    ProducerFuture(AbstractProducer<T> producer) {
+      this.producer = producer;
+    }
+
+    void fail(Throwable t) {
+      setException(t);
+    }
+
+    /** Returns the future for the consumer that computed this one. */
+    ListenableFuture<T> firstConsumer() {
+      return isDone() ? this : newConsumerFuture();
+    }
+
+    /**
+     * Returns a future for a new consumer of this one, or null if every consumer has cancelled.
+     * Once this future is done there is nothing left to cancel, so it is shared directly.
+     */
+    @Nullable
+    ListenableFuture<T> newConsumer() {
+      if (isDone()) {
+        return isCancelled() && consumers == 0 ? null : this;
+      }
+      int count;
+      do {
+        count = consumers;
+        if (count == 0) {
+          return null;
         }
+      } while (!CONSUMERS_UPDATER.compareAndSet(this, count, count + 1));
+      return newConsumerFuture();
+    }
+
+    private ListenableFuture<T> newConsumerFuture() {
+      ConsumerFuture<T> consumer = new ConsumerFuture<T>(this);
+      consumer.completeWith(this);
+      return consumer;
+    }
+
+    /**
+     * Called when a consumer cancels; cancels this future if no consumers remain, and forgets it
+     * so that the next consumer computes again.
+     */
+    void release(boolean mayInterruptIfRunning) {
+      // a value that completed meanwhile is kept for later consumers
+      if (CONSUMERS_UPDATER.decrementAndGet(this) == 0 && cancel(mayInterruptIfRunning)) {
+        INSTANCE_UPDATER.compareAndSet(producer, this, null);
+      }
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+      if (!super.cancel(mayInterruptIfRunning)) {
+        return false;
+      }
+      ListenableFuture<T> computed = source;
+      if (computed != null) {
+        computed.cancel(mayInterruptIfRunning);
+      }
+      return true;
+    }
+  }
+
+  /** The future returned to one consumer of a {@link ProducerFuture}. */
+  private static final class ConsumerFuture<T> extends ResultFuture<T> {
+    private final ProducerFuture<T> producerFuture;
+
+    ConsumerFuture(ProducerFuture<T> producerFuture) {
+      this.producerFuture = producerFuture;
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+      if (!super.cancel(mayInterruptIfRunning)) {
+        return false;
       }
+      producerFuture.release(mayInterruptIfRunning);
+      return true;
     }
-    return result;
   }
 }
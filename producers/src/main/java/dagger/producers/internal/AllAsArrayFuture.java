@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.producers.internal;
+
+import com.google.common.util.concurrent.AbstractFuture;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.Uninterruptibles;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A future that succeeds with an array of the values of its input futures, in the order given, once
+ * all of them have succeeded. Unlike {@code Futures.allAsList}, the values are written straight
+ * into the array that is handed to the transform, so no intermediate list is built.
+ *
+ * <p>The future fails as soon as any input fails and is cancelled if any input is cancelled.
+ * Cancelling this future cancels all of the inputs.
+ *
+ * @since 2.1
+ */
+final class AllAsArrayFuture extends AbstractFuture<Object[]> {
+  static ListenableFuture<Object[]> create(ListenableFuture<?>[] inputs) {
+    AllAsArrayFuture future = new AllAsArrayFuture(inputs);
+    for (int i = 0; i < inputs.length; i++) {
+      inputs[i].addListener(future.new InputListener(i), MoreExecutors.directExecutor());
+    }
+    return future;
+  }
+
+  private final ListenableFuture<?>[] inputs;
+  private final Object[] values;
+  private final AtomicInteger remaining;
+
+  private AllAsArrayFuture(ListenableFuture<?>[] inputs) {
+    this.inputs = inputs;
+    this.values = new Object[inputs.length];
+    this.remaining = new AtomicInteger(inputs.length);
+    if (inputs.length == 0) {
+      set(values);
+    }
+  }
+
+  @Override
+  public boolean cancel(boolean mayInterruptIfRunning) {
+    if (!super.cancel(mayInterruptIfRunning)) {
+      return false;
+    }
+    for (ListenableFuture<?> input : inputs) {
+      input.cancel(mayInterruptIfRunning);
+    }
+    return true;
+  }
+
+  private void inputDone(int index) {
+    try {
+      values[index] = Uninterruptibles.getUninterruptibly(inputs[index]);
+    } catch (ExecutionException e) {
+      setException(e.getCause());
+      return;
+    } catch (CancellationException e) {
+      cancel(false);
+      return;
+    } catch (RuntimeException | Error e) {
+      setException(e);
+      return;
+    }
+    // the decrement publishes the value written above to whichever thread completes the array
+    if (remaining.decrementAndGet() == 0) {
+      set(values);
+    }
+  }
+
+  private final class InputListener implements Runnable {
+    private final int index;
+
+    InputListener(int index) {
+      this.index = index;
+    }
+
+    @Override
+    public void run() {
+      inputDone(index);
+    }
+  }
+}
@@ -20,13 +20,21 @@ import com.google.common.collect.ImmutableSet;
 import com.google.common.util.concurrent.FutureFallback;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListenableFutureTask;
+import dagger.producers.Deadline;
 import dagger.producers.Produced;
 import dagger.producers.Producer;
 import dagger.producers.monitoring.ProducerMonitor;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
 import javax.inject.Provider;
 
 import static com.google.common.base.Preconditions.checkNotNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
 /**
  * Utility methods for use in generated producer code.
@@ -87,6 +95,64 @@ public final class Producers {
     });
   }
 
+  /**
+   * Returns a future of the result of running the given callable on the executor. If the executor
+   * rejects the task, the returned future fails with the rejection.
+   */
+  public static <T> ListenableFuture<T> submitToExecutor(Callable<T> callable, Executor executor) {
+    ListenableFutureTask<T> task = ListenableFutureTask.create(callable);
+    try {
+      executor.execute(task);
+    } catch (RejectedExecutionException e) {
+      return Futures.immediateFailedFuture(e);
+    }
+    return task;
+  }
+
+  /**
+   * Returns a future of an array of the values of the given futures, in the order given, which
+   * succeeds once all of them have succeeded. If any input fails, the returned future fails with the
+   * same exception; cancelling the returned future cancels all of the inputs.
+   *
+   * <p>This is used in place of {@link Futures#allAsList} to combine the inputs of producer methods
+   * that depend on more than one future, since it avoids building an intermediate list.
+   */
+  public static ListenableFuture<Object[]> allAsArray(ListenableFuture<?>... futures) {
+    for (ListenableFuture<?> future : futures) {
+      checkNotNull(future);
+    }
+    return AllAsArrayFuture.create(futures);
+  }
+
+  /**
+   * Returns a future that completes with the result of the given future, unless the timeout or the
+   * deadline passes first, in which case it fails with a {@link TimeoutException} and the given
+   * future is cancelled. A timeout of zero means that only the deadline applies. If neither
+   * applies, the given future is returned.
+   */
+  public static <T> ListenableFuture<T> withTimeout(
+      ListenableFuture<T> future, long timeoutMillis, Deadline deadline) {
+    checkNotNull(future);
+    long limitNanos = deadline.timeRemaining(NANOSECONDS);
+    if (timeoutMillis > 0) {
+      limitNanos = Math.min(limitNanos, MILLISECONDS.toNanos(timeoutMillis));
+    }
+    if (limitNanos == Long.MAX_VALUE) {
+      return future;
+    }
+    return TimeoutFuture.create(future, limitNanos, deadline.scheduler());
+  }
+
+  /**
+   * Returns a future that completes with the result of the given future, unless the deadline
+   * passes first, in which case it fails with a {@link TimeoutException} and the given future is
+   * cancelled.
+   */
+  public static <T> ListenableFuture<T> withDeadline(
+      ListenableFuture<T> future, Deadline deadline) {
+    return withTimeout(future, 0, deadline);
+  }
+
   /**
    * Returns a producer that immediately executes the binding logic for the given provider every
    * time it is called.
@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.producers.internal;
+
+import com.google.common.util.concurrent.AbstractFuture;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.Uninterruptibles;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeoutException;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * A future that completes with the result of a delegate future, unless a time limit passes first,
+ * in which case it fails with a {@link TimeoutException} and the delegate is cancelled.
+ *
+ * <p>Only a single task is scheduled per future, and it is cancelled as soon as the delegate
+ * completes. Cancelling this future cancels the delegate.
+ *
+ * @since 2.1
+ */
+final class TimeoutFuture<T> extends AbstractFuture<T> implements Runnable {
+  static <T> ListenableFuture<T> create(
+      ListenableFuture<T> delegate, long timeoutNanos, ScheduledExecutorService scheduler) {
+    if (delegate.isDone()) {
+      return delegate;
+    }
+    TimeoutFuture<T> future = new TimeoutFuture<T>(delegate, timeoutNanos);
+    if (timeoutNanos <= 0) {
+      future.timedOut();
+      return future;
+    }
+    future.timer = scheduler.schedule(future.new Timer(), timeoutNanos, NANOSECONDS);
+    delegate.addListener(future, MoreExecutors.directExecutor());
+    return future;
+  }
+
+  private final ListenableFuture<T> delegate;
+  private final long timeoutNanos;
+  private volatile Future<?> timer;
+
+  private TimeoutFuture(ListenableFuture<T> delegate, long timeoutNanos) {
+    this.delegate = delegate;
+    this.timeoutNanos = timeoutNanos;
+  }
+
+  /** Completes this future once the delegate is done. */
+  @Override
+  public void run() {
+    try {
+      set(Uninterruptibles.getUninterruptibly(delegate));
+    } catch (ExecutionException e) {
+      setException(e.getCause());
+    } catch (CancellationException e) {
+      cancel(false);
+    } catch (RuntimeException | Error e) {
+      setException(e);
+    }
+    cancelTimer();
+  }
+
+  @Override
+  public boolean cancel(boolean mayInterruptIfRunning) {
+    if (!super.cancel(mayInterruptIfRunning)) {
+      return false;
+    }
+    delegate.cancel(mayInterruptIfRunning);
+    cancelTimer();
+    return true;
+  }
+
+  private void timedOut() {
+    if (setException(new TimeoutException(
+        String.format("Timed out after %d ms", NANOSECONDS.toMillis(Math.max(timeoutNanos, 0)))))) {
+      delegate.cancel(true);
+    }
+  }
+
+  private void cancelTimer() {
+    Future<?> localTimer = timer;
+    if (localTimer != null) {
+      localTimer.cancel(false);
+    }
+  }
+
+  private final class Timer implements Runnable {
+    @Override
+    public void run() {
+      timedOut();
+    }
+  }
+}
@@ -0,0 +1,282 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.producers.monitoring;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Objects;
+import com.google.common.base.Ticker;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import dagger.internal.Beta;
+import dagger.producers.monitoring.internal.Monitors;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * A component monitor that finds the critical path through the producers that a component runs:
+ * the chain of producers, each waiting on the next, that determines how long the component takes.
+ *
+ * <p>Every producer is timestamped when it is requested, when its method starts and when its value
+ * is done, and the inputs that it requests are recorded as the edges of the graph. Each time all of
+ * the requested producers are done, the path is traced back from the producer that finished last,
+ * through the input that each producer was waiting on last, and reported to a {@link Listener}.
+ *
+ * <p>For example: <pre><code>
+ *   {@literal @Module}
+ *   final class CriticalPathModule {
+ *     {@literal @Provides(type = SET)} static ProductionComponentMonitor.Factory monitorFactory(
+ *         CriticalPathMonitor.Listener listener) {
+ *       return new CriticalPathMonitor.Factory(listener);
+ *     }
+ *   }
+ * </code></pre>
+ *
+ * @since 2.1
+ */
+@Beta
+public final class CriticalPathMonitor implements ProductionComponentMonitor {
+  /** Receives the critical paths of components. */
+  public interface Listener {
+    /**
+     * Called with the critical path through the producers of the component, in the order that they
+     * ran, each time all of the producers that have been requested from the component are done.
+     * This is called on the thread that completes the last producer, so it should return quickly.
+     */
+    void criticalPath(Object component, List<NodeTiming> criticalPath);
+  }
+
+  /** Creates a {@link CriticalPathMonitor} for each component. */
+  public static final class Factory implements ProductionComponentMonitor.Factory {
+    private final Listener listener;
+    private final Ticker ticker;
+
+    /** Creates a factory for monitors that timestamp producers with {@link System#nanoTime}. */
+    public Factory(Listener listener) {
+      this(listener, Ticker.systemTicker());
+    }
+
+    /** Creates a factory for monitors that timestamp producers with the given ticker. */
+    public Factory(Listener listener, Ticker ticker) {
+      this.listener = checkNotNull(listener);
+      this.ticker = checkNotNull(ticker);
+    }
+
+    @Override
+    public ProductionComponentMonitor create(Object component) {
+      return new CriticalPathMonitor(component, listener, ticker);
+    }
+  }
+
+  /** The time that one producer on a critical path spent in each phase. */
+  public static final class NodeTiming {
+    private final ProducerToken token;
+    private final long waitingOnInputNanos;
+    private final long queueingNanos;
+    private final long executionNanos;
+
+    NodeTiming(
+        ProducerToken token, long waitingOnInputNanos, long queueingNanos, long executionNanos) {
+      this.token = token;
+      this.waitingOnInputNanos = waitingOnInputNanos;
+      this.queueingNanos = queueingNanos;
+      this.executionNanos = executionNanos;
+    }
+
+    /** The token of the producer method. */
+    public ProducerToken token() {
+      return token;
+    }
+
+    /**
+     * The time from when the producer was requested until its input on the critical path was done.
+     */
+    public long waitingOnInputNanos() {
+      return waitingOnInputNanos;
+    }
+
+    /**
+     * The time from when the producer's input on the critical path was done until its method
+     * started, which is spent waiting for the executor. This is zero if the method never started
+     * because an input failed.
+     */
+    public long queueingNanos() {
+      return queueingNanos;
+    }
+
+    /**
+     * The time from when the producer's method started until its value was done. For methods that
+     * return a future, this includes the time until that future was done.
+     */
+    public long executionNanos() {
+      return executionNanos;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (o == this) {
+        return true;
+      } else if (o instanceof NodeTiming) {
+        NodeTiming that = (NodeTiming) o;
+        return this.token.equals(that.token)
+            && this.waitingOnInputNanos == that.waitingOnInputNanos
+            && this.queueingNanos == that.queueingNanos
+            && this.executionNanos == that.executionNanos;
+      } else {
+        return false;
+      }
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hashCode(token, waitingOnInputNanos, queueingNanos, executionNanos);
+    }
+
+    @Override
+    public String toString() {
+      return MoreObjects.toStringHelper(this)
+          .add("token", token)
+          .add("waitingOnInputNanos", waitingOnInputNanos)
+          .add("queueingNanos", queueingNanos)
+          .add("executionNanos", executionNanos)
+          .toString();
+    }
+  }
+
+  private static final long NOT_STARTED = Long.MIN_VALUE;
+
+  private final Object component;
+  private final Listener listener;
+  private final Ticker ticker;
+  private final ConcurrentMap<ProducerToken, NodeMonitor> nodes =
+      new ConcurrentHashMap<ProducerToken, NodeMonitor>();
+  /** The number of requested producers that aren't done yet. */
+  private final AtomicInteger pending = new AtomicInteger();
+
+  private CriticalPathMonitor(Object component, Listener listener, Ticker ticker) {
+    this.component = component;
+    this.listener = listener;
+    this.ticker = ticker;
+  }
+
+  @Override
+  public ProducerMonitor producerMonitorFor(ProducerToken token) {
+    if (token == null) {
+      // not a producer method, so not part of the graph
+      return Monitors.noOpProducerMonitor();
+    }
+    NodeMonitor node = new NodeMonitor(token, ticker.read());
+    nodes.put(token, node);
+    pending.incrementAndGet();
+    return node;
+  }
+
+  private void nodeDone() {
+    if (pending.decrementAndGet() == 0) {
+      listener.criticalPath(component, criticalPath());
+    }
+  }
+
+  private ImmutableList<NodeTiming> criticalPath() {
+    NodeMonitor last = null;
+    for (NodeMonitor node : nodes.values()) {
+      if (node.isDone() && (last == null || node.doneNanos > last.doneNanos)) {
+        last = node;
+      }
+    }
+    List<NodeTiming> path = Lists.newArrayList();
+    Set<NodeMonitor> visited = new HashSet<NodeMonitor>();
+    for (NodeMonitor node = last; node != null && visited.add(node); ) {
+      NodeMonitor criticalInput = null;
+      for (ProducerToken input : node.inputs) {
+        NodeMonitor inputNode = nodes.get(input);
+        if (inputNode != null
+            && inputNode.isDone()
+            && (criticalInput == null || inputNode.doneNanos > criticalInput.doneNanos)) {
+          criticalInput = inputNode;
+        }
+      }
+      path.add(node.timing(criticalInput == null ? node.requestedNanos : criticalInput.doneNanos));
+      node = criticalInput;
+    }
+    return ImmutableList.copyOf(Lists.reverse(path));
+  }
+
+  private final class NodeMonitor extends ProducerMonitor {
+    final ProducerToken token;
+    final long requestedNanos;
+    final Set<ProducerToken> inputs =
+        Collections.newSetFromMap(new ConcurrentHashMap<ProducerToken, Boolean>());
+    volatile long startedNanos = NOT_STARTED;
+    volatile long doneNanos;
+    volatile boolean done;
+
+    NodeMonitor(ProducerToken token, long requestedNanos) {
+      this.token = token;
+      this.requestedNanos = requestedNanos;
+    }
+
+    @Override
+    public void inputRequested(ProducerToken input) {
+      inputs.add(input);
+    }
+
+    @Override
+    public void methodStarting() {
+      startedNanos = ticker.read();
+    }
+
+    @Override
+    public void succeeded(Object o) {
+      done();
+    }
+
+    @Override
+    public void failed(Throwable t) {
+      done();
+    }
+
+    private void done() {
+      doneNanos = ticker.read();
+      done = true;
+      nodeDone();
+    }
+
+    boolean isDone() {
+      return done;
+    }
+
+    /** Returns this producer's timing, given when its input on the critical path was done. */
+    NodeTiming timing(long readyNanos) {
+      if (startedNanos == NOT_STARTED) {
+        return new NodeTiming(token, doneNanos - requestedNanos, 0, 0);
+      }
+      // an input that was already done when this producer was requested kept it waiting for nothing
+      readyNanos = Math.max(readyNanos, requestedNanos);
+      return new NodeTiming(
+          token,
+          readyNanos - requestedNanos,
+          Math.max(startedNanos - readyNanos, 0),
+          doneNanos - startedNanos);
+    }
+  }
+}
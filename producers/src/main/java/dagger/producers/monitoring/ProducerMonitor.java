@@ -26,6 +26,8 @@ import dagger.producers.Produces;
  *
  * <p>The lifecycle of the monitor, under normal conditions, is:
  * <ul>
+ *   <li>{@link #inputRequested(ProducerToken)} for each input that is produced by another producer
+ *       method, as the producer requests its inputs
  *   <li>{@link #methodStarting()}
  *   <li>The method is called
  *   <li>{@link #methodFinished()}
@@ -52,6 +54,14 @@ import dagger.producers.Produces;
  * @author Jesse Beder
  */
 public abstract class ProducerMonitor {
+  /**
+   * Called when the producer requests one of its inputs that is produced by another producer
+   * method, before the producer method is run. Together with the token passed to
+   * {@link ProductionComponentMonitor#producerMonitorFor}, this describes the edges of the graph of
+   * producers that the component runs.
+   */
+  public void inputRequested(ProducerToken input) {}
+
   /**
    * Called when the producer method is about to start executing.
    *
@@ -110,6 +110,15 @@ public final class Monitors {
       this.delegate = delegate;
     }
 
+    @Override
+    public void inputRequested(ProducerToken input) {
+      try {
+        delegate.inputRequested(input);
+      } catch (RuntimeException e) {
+        logProducerMonitorArgMethodException(e, delegate, "inputRequested", input);
+      }
+    }
+
     @Override
     public void methodStarting() {
       try {
@@ -225,6 +234,17 @@ public final class Monitors {
       this.delegates = delegates;
     }
 
+    @Override
+    public void inputRequested(ProducerToken input) {
+      for (ProducerMonitor delegate : delegates) {
+        try {
+          delegate.inputRequested(input);
+        } catch (RuntimeException e) {
+          logProducerMonitorArgMethodException(e, delegate, "inputRequested", input);
+        }
+      }
+    }
+
     @Override
     public void methodStarting() {
       for (ProducerMonitor delegate : delegates) {
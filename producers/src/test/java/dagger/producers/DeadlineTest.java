@@ -0,0 +1,72 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.producers;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import static com.google.common.truth.Truth.assertThat;
+import static java.util.concurrent.TimeUnit.DAYS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Tests {@link Deadline}.
+ */
+@RunWith(JUnit4.class)
+public class DeadlineTest {
+  @Test public void noDeadline() {
+    assertThat(new Deadline().timeRemaining(NANOSECONDS)).isEqualTo(Long.MAX_VALUE);
+    assertThat(new Deadline().timeRemaining(NANOSECONDS, Long.MIN_VALUE))
+        .isEqualTo(Long.MAX_VALUE);
+  }
+
+  @Test public void after() {
+    Deadline deadline = Deadline.after(10, SECONDS, 100);
+    assertThat(deadline.timeRemaining(SECONDS, 100)).isEqualTo(10);
+    assertThat(deadline.timeRemaining(SECONDS, 100 + SECONDS.toNanos(4))).isEqualTo(6);
+    assertThat(deadline.timeRemaining(NANOSECONDS, 100 + SECONDS.toNanos(10))).isEqualTo(0);
+    assertThat(deadline.timeRemaining(NANOSECONDS, 101 + SECONDS.toNanos(10))).isEqualTo(-1);
+  }
+
+  @Test public void afterWithNegativeNow() {
+    long now = Long.MIN_VALUE + 10;
+    Deadline deadline = Deadline.after(1, SECONDS, now);
+    assertThat(deadline.timeRemaining(SECONDS, now)).isEqualTo(1);
+    assertThat(deadline.timeRemaining(NANOSECONDS, now + SECONDS.toNanos(2)))
+        .isEqualTo(-SECONDS.toNanos(1));
+  }
+
+  @Test public void afterSaturates() {
+    long now = Long.MAX_VALUE - 10;
+    Deadline deadline = Deadline.after(20, NANOSECONDS, now);
+    assertThat(deadline.timeRemaining(NANOSECONDS, now)).isEqualTo(10);
+    assertThat(deadline.timeRemaining(NANOSECONDS, Long.MAX_VALUE)).isEqualTo(0);
+  }
+
+  @Test public void afterLongDuration() {
+    assertThat(Deadline.after(Long.MAX_VALUE, DAYS, 100).timeRemaining(NANOSECONDS, 100))
+        .isEqualTo(Long.MAX_VALUE - 100);
+    assertThat(Deadline.after(Long.MAX_VALUE, DAYS, -100).timeRemaining(NANOSECONDS, -100))
+        .isEqualTo(Long.MAX_VALUE);
+  }
+
+  @Test public void afterNegativeDuration() {
+    Deadline deadline = Deadline.after(-1, SECONDS, 0);
+    assertThat(deadline.timeRemaining(SECONDS, 0)).isEqualTo(-1);
+  }
+}
@@ -17,12 +17,24 @@ package dagger.producers.internal;
 
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListenableFutureTask;
 import com.google.common.util.concurrent.SettableFuture;
+import dagger.producers.Deadline;
 import dagger.producers.Producer;
 import dagger.producers.monitoring.ProducerMonitor;
 import dagger.producers.monitoring.ProducerToken;
 import dagger.producers.monitoring.ProductionComponentMonitor;
+import dagger.producers.monitoring.internal.Monitors;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import javax.inject.Provider;
 import org.mockito.Mock;
 import org.mockito.Mockito;
@@ -33,8 +45,11 @@ import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
 
 import static com.google.common.truth.Truth.assertThat;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.junit.Assert.fail;
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
@@ -121,6 +136,255 @@ public class AbstractProducerTest {
     verifyNoMoreInteractions(monitor);
   }
 
+  @Test
+  public void get_concurrentCallersShareOneComputation() throws Exception {
+    final int numThreads = 8;
+    final CountDownLatch latch = new CountDownLatch(numThreads);
+    final AtomicInteger computations = new AtomicInteger();
+    final Producer<Object> producer =
+        new AbstractProducer<Object>(componentMonitorProvider, null) {
+          @Override
+          public ListenableFuture<Object> compute(ProducerMonitor unusedMonitor) {
+            computations.incrementAndGet();
+            return Futures.<Object>immediateFuture(new Object());
+          }
+        };
+    ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+    try {
+      List<Future<ListenableFuture<Object>>> futures = new ArrayList<>();
+      for (int i = 0; i < numThreads; i++) {
+        futures.add(
+            executor.submit(
+                new Callable<ListenableFuture<Object>>() {
+                  @Override
+                  public ListenableFuture<Object> call() throws Exception {
+                    latch.countDown();
+                    latch.await();
+                    return producer.get();
+                  }
+                }));
+      }
+      for (Future<ListenableFuture<Object>> future : futures) {
+        assertThat(future.get().get()).isSameAs(producer.get().get());
+      }
+      assertThat(computations.get()).isEqualTo(1);
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void get_computeThrows() throws Exception {
+    final RuntimeException t = new RuntimeException("monkey");
+    Producer<Object> producer =
+        new AbstractProducer<Object>(componentMonitorProvider, null) {
+          @Override
+          public ListenableFuture<Object> compute(ProducerMonitor unusedMonitor) {
+            throw t;
+          }
+        };
+    try {
+      producer.get();
+      fail();
+    } catch (RuntimeException e) {
+      assertThat(e).isSameAs(t);
+    }
+    try {
+      producer.get().get();
+      fail();
+    } catch (ExecutionException e) {
+      assertThat(e.getCause()).isSameAs(t);
+    }
+  }
+
+  @Test
+  public void cancellationPropagatesToComputedFuture() throws Exception {
+    SettableFuture<Integer> delegateFuture = SettableFuture.create();
+    Producer<Integer> producer = new DelegateProducer<>(componentMonitorProvider, delegateFuture);
+    producer.get().cancel(false);
+    assertThat(delegateFuture.isCancelled()).isTrue();
+  }
+
+  @Test
+  public void cancellationIsReferenceCounted() throws Exception {
+    SettableFuture<Integer> delegateFuture = SettableFuture.create();
+    Producer<Integer> producer = new DelegateProducer<>(componentMonitorProvider, delegateFuture);
+    ListenableFuture<Integer> first = producer.get();
+    ListenableFuture<Integer> second = producer.get();
+    first.cancel(false);
+    assertThat(first.isCancelled()).isTrue();
+    assertThat(delegateFuture.isCancelled()).isFalse();
+    assertThat(second.isDone()).isFalse();
+    second.cancel(false);
+    assertThat(delegateFuture.isCancelled()).isTrue();
+  }
+
+  @Test
+  public void cancellationDoesNotAffectOtherConsumers() throws Exception {
+    SettableFuture<Integer> delegateFuture = SettableFuture.create();
+    Producer<Integer> producer = new DelegateProducer<>(componentMonitorProvider, delegateFuture);
+    ListenableFuture<Integer> first = producer.get();
+    ListenableFuture<Integer> second = producer.get();
+    first.cancel(true);
+    delegateFuture.set(42);
+    assertThat(first.isCancelled()).isTrue();
+    assertThat(second.get()).isEqualTo(42);
+    assertThat(producer.get().get()).isEqualTo(42);
+  }
+
+  @Test
+  public void interruptingCancellationPropagatesToComputedFuture() throws Exception {
+    final CountDownLatch started = new CountDownLatch(1);
+    final CountDownLatch interrupted = new CountDownLatch(1);
+    ListenableFutureTask<Integer> task =
+        ListenableFutureTask.create(
+            new Callable<Integer>() {
+              @Override
+              public Integer call() {
+                started.countDown();
+                try {
+                  new CountDownLatch(1).await();
+                } catch (InterruptedException e) {
+                  interrupted.countDown();
+                }
+                return 42;
+              }
+            });
+    Producer<Integer> producer = new DelegateProducer<>(componentMonitorProvider, task);
+    ListenableFuture<Integer> future = producer.get();
+    new Thread(task).start();
+    started.await();
+    future.cancel(true);
+    assertThat(task.isCancelled()).isTrue();
+    assertThat(interrupted.await(10, SECONDS)).isTrue();
+  }
+
+  @Test
+  public void cancellationDuringComputeDoesNotCancelComputingCaller() throws Exception {
+    final SettableFuture<Integer> delegateFuture = SettableFuture.create();
+    Producer<Integer> producer =
+        new AbstractProducer<Integer>(componentMonitorProvider, null) {
+          @Override
+          protected ListenableFuture<Integer> compute(ProducerMonitor unusedMonitor) {
+            // stands in for a concurrent caller that cancels while this producer is computing
+            get().cancel(false);
+            return delegateFuture;
+          }
+        };
+    ListenableFuture<Integer> future = producer.get();
+    assertThat(future.isCancelled()).isFalse();
+    assertThat(delegateFuture.isCancelled()).isFalse();
+    future.cancel(false);
+    assertThat(delegateFuture.isCancelled()).isTrue();
+  }
+
+  @Test
+  public void get_afterEveryConsumerCancelsComputesAgain() throws Exception {
+    final List<SettableFuture<Integer>> computed = new ArrayList<>();
+    Producer<Integer> producer =
+        new AbstractProducer<Integer>(componentMonitorProvider, null) {
+          @Override
+          protected ListenableFuture<Integer> compute(ProducerMonitor unusedMonitor) {
+            SettableFuture<Integer> future = SettableFuture.create();
+            computed.add(future);
+            return future;
+          }
+        };
+    ListenableFuture<Integer> first = producer.get();
+    ListenableFuture<Integer> second = producer.get();
+    first.cancel(false);
+    second.cancel(true);
+    assertThat(computed).hasSize(1);
+    assertThat(computed.get(0).isCancelled()).isTrue();
+
+    ListenableFuture<Integer> third = producer.get();
+    assertThat(third.isCancelled()).isFalse();
+    assertThat(computed).hasSize(2);
+    computed.get(1).set(42);
+    assertThat(third.get()).isEqualTo(42);
+    assertThat(producer.get().get()).isEqualTo(42);
+    assertThat(computed).hasSize(2);
+  }
+
+  @Test
+  public void monitor_inputRequested() throws Exception {
+    ProducerToken token = ProducerToken.create(Object.class);
+    ProducerToken inputToken = ProducerToken.create(Integer.class);
+    final Producer<Integer> input =
+        new AbstractProducer<Integer>(componentMonitorProvider, inputToken) {
+          @Override
+          protected ListenableFuture<Integer> compute(ProducerMonitor unusedMonitor) {
+            return Futures.immediateFuture(42);
+          }
+        };
+    Producer<Integer> producer =
+        new AbstractProducer<Integer>(componentMonitorProvider, token) {
+          @Override
+          protected ListenableFuture<Integer> compute(ProducerMonitor unusedMonitor) {
+            return input.get();
+          }
+        };
+    assertThat(producer.get().get()).isEqualTo(42);
+    verify(monitor).inputRequested(inputToken);
+    // inputs requested outside of computing aren't reported
+    input.get();
+    verify(monitor).inputRequested(inputToken);
+  }
+
+  @Test
+  public void monitor_inputRequestedThroughUnmonitoredProducer() throws Exception {
+    ProducerToken token = ProducerToken.create(Object.class);
+    ProducerToken middleToken = ProducerToken.create(Number.class);
+    ProducerToken inputToken = ProducerToken.create(Integer.class);
+    final Producer<Integer> input =
+        new AbstractProducer<Integer>(componentMonitorProvider, inputToken) {
+          @Override
+          protected ListenableFuture<Integer> compute(ProducerMonitor unusedMonitor) {
+            return Futures.immediateFuture(42);
+          }
+        };
+    final Producer<Integer> middle =
+        new AbstractProducer<Integer>(
+            Monitors.noOpProductionComponentMonitorProvider(), middleToken) {
+          @Override
+          protected ListenableFuture<Integer> compute(ProducerMonitor unusedMonitor) {
+            return input.get();
+          }
+        };
+    Producer<Integer> producer =
+        new AbstractProducer<Integer>(componentMonitorProvider, token) {
+          @Override
+          protected ListenableFuture<Integer> compute(ProducerMonitor unusedMonitor) {
+            return middle.get();
+          }
+        };
+    assertThat(producer.get().get()).isEqualTo(42);
+    verify(monitor).inputRequested(middleToken);
+    // the input was requested by the unmonitored producer, not by the one that requested it
+    verify(monitor, never()).inputRequested(inputToken);
+  }
+
+  @Test
+  public void monitor_timeout() throws Exception {
+    final SettableFuture<Integer> delegateFuture = SettableFuture.create();
+    Producer<Integer> producer =
+        new AbstractProducer<Integer>(componentMonitorProvider, null, new Deadline(), 1) {
+          @Override
+          protected ListenableFuture<Integer> compute(ProducerMonitor unusedMonitor) {
+            return delegateFuture;
+          }
+        };
+    ListenableFuture<Integer> future = producer.get();
+    try {
+      future.get(1, MINUTES);
+      fail();
+    } catch (ExecutionException e) {
+      assertThat(e.getCause()).isInstanceOf(TimeoutException.class);
+      verify(monitor).failed(e.getCause());
+    }
+    assertThat(delegateFuture.isCancelled()).isTrue();
+  }
+
   @Test(expected = NullPointerException.class)
   public void monitor_null() throws Exception {
     new DelegateProducer<>(null, Futures.immediateFuture(42));
@@ -17,18 +17,26 @@ package dagger.producers.internal;
 
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
 import com.google.common.util.concurrent.SettableFuture;
+import dagger.producers.Deadline;
 import dagger.producers.Produced;
 import dagger.producers.Producer;
 import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
 import javax.inject.Provider;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
 
 import static com.google.common.truth.Truth.assertThat;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.MINUTES;
 import static org.junit.Assert.fail;
 
 /**
@@ -96,6 +104,168 @@ public class ProducersTest {
     }
   }
 
+  @Test public void submitToExecutor_success() throws Exception {
+    ListenableFuture<String> future =
+        Producers.submitToExecutor(
+            new Callable<String>() {
+              @Override public String call() {
+                return "monkey";
+              }
+            },
+            MoreExecutors.directExecutor());
+    assertThat(future.isDone()).isTrue();
+    assertThat(future.get()).isEqualTo("monkey");
+  }
+
+  @Test public void submitToExecutor_failure() throws Exception {
+    ListenableFuture<String> future =
+        Producers.submitToExecutor(
+            new Callable<String>() {
+              @Override public String call() throws Exception {
+                throw new Exception("monkey");
+              }
+            },
+            MoreExecutors.directExecutor());
+    try {
+      future.get();
+      fail();
+    } catch (ExecutionException e) {
+      assertThat(e.getCause()).hasMessage("monkey");
+    }
+  }
+
+  @Test public void submitToExecutor_rejected() throws Exception {
+    final RejectedExecutionException rejection = new RejectedExecutionException();
+    ListenableFuture<String> future =
+        Producers.submitToExecutor(
+            new Callable<String>() {
+              @Override public String call() {
+                throw new AssertionError();
+              }
+            },
+            new Executor() {
+              @Override public void execute(Runnable command) {
+                throw rejection;
+              }
+            });
+    try {
+      future.get();
+      fail();
+    } catch (ExecutionException e) {
+      assertThat(e.getCause()).isSameAs(rejection);
+    }
+  }
+
+  @Test public void allAsArray_success() throws Exception {
+    SettableFuture<String> first = SettableFuture.create();
+    SettableFuture<Integer> second = SettableFuture.create();
+    ListenableFuture<Object[]> arrayFuture = Producers.allAsArray(first, second);
+    second.set(42);
+    assertThat(arrayFuture.isDone()).isFalse();
+    first.set("monkey");
+    assertThat(arrayFuture.isDone()).isTrue();
+    assertThat(arrayFuture.get()).asList().containsExactly("monkey", 42).inOrder();
+  }
+
+  @Test public void allAsArray_empty() throws Exception {
+    ListenableFuture<Object[]> arrayFuture = Producers.allAsArray();
+    assertThat(arrayFuture.isDone()).isTrue();
+    assertThat(arrayFuture.get()).asList().isEmpty();
+  }
+
+  @Test public void allAsArray_failure() throws Exception {
+    SettableFuture<String> first = SettableFuture.create();
+    ListenableFuture<Object[]> arrayFuture =
+        Producers.allAsArray(
+            first, Futures.<Integer>immediateFailedFuture(new RuntimeException("monkey")));
+    assertThat(arrayFuture.isDone()).isTrue();
+    try {
+      arrayFuture.get();
+      fail();
+    } catch (ExecutionException e) {
+      assertThat(e.getCause()).hasMessage("monkey");
+    }
+  }
+
+  @Test public void allAsArray_inputCancelled() throws Exception {
+    SettableFuture<String> first = SettableFuture.create();
+    SettableFuture<Integer> second = SettableFuture.create();
+    ListenableFuture<Object[]> arrayFuture = Producers.allAsArray(first, second);
+    second.cancel(false);
+    assertThat(arrayFuture.isCancelled()).isTrue();
+    assertThat(first.isCancelled()).isTrue();
+  }
+
+  @Test public void allAsArray_cancelPropagatesBackwards() throws Exception {
+    SettableFuture<String> first = SettableFuture.create();
+    SettableFuture<Integer> second = SettableFuture.create();
+    ListenableFuture<Object[]> arrayFuture = Producers.allAsArray(first, second);
+    arrayFuture.cancel(false);
+    assertThat(first.isCancelled()).isTrue();
+    assertThat(second.isCancelled()).isTrue();
+  }
+
+  @Test public void withTimeout_noLimit() throws Exception {
+    SettableFuture<String> future = SettableFuture.create();
+    assertThat(Producers.withTimeout(future, 0, new Deadline())).isSameAs(future);
+  }
+
+  @Test public void withTimeout_success() throws Exception {
+    SettableFuture<String> future = SettableFuture.create();
+    ListenableFuture<String> timeoutFuture =
+        Producers.withTimeout(future, MINUTES.toMillis(1), new Deadline());
+    assertThat(timeoutFuture.isDone()).isFalse();
+    future.set("monkey");
+    assertThat(timeoutFuture.get()).isEqualTo("monkey");
+  }
+
+  @Test public void withTimeout_timesOut() throws Exception {
+    SettableFuture<String> future = SettableFuture.create();
+    ListenableFuture<String> timeoutFuture = Producers.withTimeout(future, 1, new Deadline());
+    try {
+      timeoutFuture.get();
+      fail();
+    } catch (ExecutionException e) {
+      assertThat(e.getCause()).isInstanceOf(TimeoutException.class);
+    }
+    assertThat(future.isCancelled()).isTrue();
+  }
+
+  @Test public void withTimeout_deadlineComesFirst() throws Exception {
+    SettableFuture<String> future = SettableFuture.create();
+    ListenableFuture<String> timeoutFuture =
+        Producers.withTimeout(future, MINUTES.toMillis(1), Deadline.after(1, MILLISECONDS));
+    try {
+      timeoutFuture.get(1, MINUTES);
+      fail();
+    } catch (ExecutionException e) {
+      assertThat(e.getCause()).isInstanceOf(TimeoutException.class);
+    }
+    assertThat(future.isCancelled()).isTrue();
+  }
+
+  @Test public void withTimeout_cancelPropagatesBackwards() throws Exception {
+    SettableFuture<String> future = SettableFuture.create();
+    ListenableFuture<String> timeoutFuture =
+        Producers.withTimeout(future, MINUTES.toMillis(1), new Deadline());
+    timeoutFuture.cancel(false);
+    assertThat(future.isCancelled()).isTrue();
+  }
+
+  @Test public void withDeadline_passed() throws Exception {
+    SettableFuture<String> future = SettableFuture.create();
+    ListenableFuture<String> deadlineFuture =
+        Producers.withDeadline(future, Deadline.after(0, MILLISECONDS));
+    assertThat(deadlineFuture.isDone()).isTrue();
+    try {
+      deadlineFuture.get();
+      fail();
+    } catch (ExecutionException e) {
+      assertThat(e.getCause()).isInstanceOf(TimeoutException.class);
+    }
+    assertThat(future.isCancelled()).isTrue();
+  }
+
   @Test public void producerFromProvider() throws Exception {
     Producer<Integer> producer = Producers.producerFromProvider(new Provider<Integer>() {
       int i = 0;
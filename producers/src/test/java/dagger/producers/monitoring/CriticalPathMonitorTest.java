@@ -0,0 +1,125 @@
+/*
+ * Copyright (C) 2015 Google, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package dagger.producers.monitoring;
+
+import com.google.common.testing.FakeTicker;
+import dagger.producers.monitoring.CriticalPathMonitor.NodeTiming;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import static com.google.common.truth.Truth.assertThat;
+
+/**
+ * Tests {@link CriticalPathMonitor}.
+ */
+@RunWith(JUnit4.class)
+public final class CriticalPathMonitorTest {
+  private static final ProducerToken ROOT = ProducerToken.create(Object.class);
+  private static final ProducerToken SLOW = ProducerToken.create(String.class);
+  private static final ProducerToken FAST = ProducerToken.create(Integer.class);
+
+  private final FakeTicker ticker = new FakeTicker();
+  private final List<List<NodeTiming>> criticalPaths = new ArrayList<List<NodeTiming>>();
+  private ProductionComponentMonitor componentMonitor;
+
+  @Before
+  public void setUp() {
+    CriticalPathMonitor.Factory factory =
+        new CriticalPathMonitor.Factory(
+            new CriticalPathMonitor.Listener() {
+              @Override
+              public void criticalPath(Object component, List<NodeTiming> criticalPath) {
+                criticalPaths.add(criticalPath);
+              }
+            },
+            ticker);
+    componentMonitor = factory.create(new Object());
+  }
+
+  @Test
+  public void criticalPathFollowsLastInput() {
+    ProducerMonitor root = componentMonitor.producerMonitorFor(ROOT);
+    root.inputRequested(SLOW);
+    ProducerMonitor slow = componentMonitor.producerMonitorFor(SLOW);
+    root.inputRequested(FAST);
+    ProducerMonitor fast = componentMonitor.producerMonitorFor(FAST);
+
+    ticker.advance(1);
+    fast.methodStarting();
+    slow.methodStarting();
+    ticker.advance(2);
+    fast.methodFinished();
+    fast.succeeded(1);
+    ticker.advance(10);
+    slow.methodFinished();
+    slow.succeeded("slow");
+    ticker.advance(3);
+    root.methodStarting();
+    ticker.advance(4);
+    root.methodFinished();
+    assertThat(criticalPaths).isEmpty();
+    root.succeeded(new Object());
+
+    assertThat(criticalPaths).hasSize(1);
+    assertThat(criticalPaths.get(0))
+        .containsExactly(new NodeTiming(SLOW, 0, 1, 12), new NodeTiming(ROOT, 13, 3, 4))
+        .inOrder();
+  }
+
+  @Test
+  public void inputThatWasAlreadyDone() {
+    ProducerMonitor fast = componentMonitor.producerMonitorFor(FAST);
+    fast.methodStarting();
+    ticker.advance(2);
+    fast.succeeded(1);
+    ticker.advance(5);
+    assertThat(criticalPaths).hasSize(1);
+
+    ProducerMonitor root = componentMonitor.producerMonitorFor(ROOT);
+    root.inputRequested(FAST);
+    ticker.advance(1);
+    root.methodStarting();
+    ticker.advance(4);
+    root.succeeded(new Object());
+
+    assertThat(criticalPaths).hasSize(2);
+    assertThat(criticalPaths.get(1))
+        .containsExactly(new NodeTiming(FAST, 0, 0, 2), new NodeTiming(ROOT, 0, 1, 4))
+        .inOrder();
+  }
+
+  @Test
+  public void failedInput() {
+    ProducerMonitor root = componentMonitor.producerMonitorFor(ROOT);
+    root.inputRequested(SLOW);
+    ProducerMonitor slow = componentMonitor.producerMonitorFor(SLOW);
+    slow.methodStarting();
+    ticker.advance(3);
+    RuntimeException failure = new RuntimeException("monkey");
+    slow.failed(failure);
+    ticker.advance(1);
+    root.failed(failure);
+
+    assertThat(criticalPaths).hasSize(1);
+    assertThat(criticalPaths.get(0))
+        .containsExactly(new NodeTiming(SLOW, 0, 0, 3), new NodeTiming(ROOT, 4, 0, 0))
+        .inOrder();
+  }
+}
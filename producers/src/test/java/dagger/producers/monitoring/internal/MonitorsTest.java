@@ -120,12 +120,15 @@ public final class MonitorsTest {
     ProductionComponentMonitor monitor = factory.create(new Object());
     ProducerMonitor producerMonitor =
         monitor.producerMonitorFor(ProducerToken.create(Object.class));
+    ProducerToken input = ProducerToken.create(String.class);
     Object o = new Object();
+    producerMonitor.inputRequested(input);
     producerMonitor.methodStarting();
     producerMonitor.methodFinished();
     producerMonitor.succeeded(o);
 
     InOrder order = inOrder(mockProducerMonitor);
+    order.verify(mockProducerMonitor).inputRequested(input);
     order.verify(mockProducerMonitor).methodStarting();
     order.verify(mockProducerMonitor).methodFinished();
     order.verify(mockProducerMonitor).succeeded(o);
@@ -312,12 +315,17 @@ public final class MonitorsTest {
     ProducerMonitor producerMonitor =
         monitor.producerMonitorFor(ProducerToken.create(Object.class));
 
+    ProducerToken input = ProducerToken.create(String.class);
     Object o = new Object();
+    producerMonitor.inputRequested(input);
     producerMonitor.methodStarting();
     producerMonitor.methodFinished();
     producerMonitor.succeeded(o);
 
     InOrder order = inOrder(mockProducerMonitorA, mockProducerMonitorB, mockProducerMonitorC);
+    order.verify(mockProducerMonitorA).inputRequested(input);
+    order.verify(mockProducerMonitorB).inputRequested(input);
+    order.verify(mockProducerMonitorC).inputRequested(input);
     order.verify(mockProducerMonitorA).methodStarting();
     order.verify(mockProducerMonitorB).methodStarting();
     order.verify(mockProducerMonitorC).methodStarting();